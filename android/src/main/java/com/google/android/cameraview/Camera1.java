@@ -17,6 +17,7 @@
 package com.google.android.cameraview;
 
 import android.annotation.SuppressLint;
+import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.Camera;
 import android.media.CamcorderProfile;
@@ -27,6 +28,7 @@ import android.view.SurfaceHolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
@@ -39,6 +41,11 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
 
     private static final int INVALID_CAMERA_ID = -1;
 
+    /**
+     * Number of preview buffers cycled through the camera when preview buffers are enabled.
+     */
+    private static final int PREVIEW_BUFFER_COUNT = 3;
+
     private static final SparseArrayCompat<String> FLASH_MODES = new SparseArrayCompat<>();
 
     static {
@@ -102,6 +109,16 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
 
     private boolean mIsScanning;
 
+    private boolean mUsePreviewBuffers;
+
+    private Size mScanResolution;
+
+    /**
+     * Buffers handed to the camera through {@link Camera#addCallbackBuffer(byte[])} since the
+     * preview callback was last installed.
+     */
+    private final Set<byte[]> mPreviewBuffers = new HashSet<>();
+
     private SurfaceTexture mPreviewTexture;
 
     Camera1(Callback callback, PreviewImpl preview) {
@@ -145,6 +162,7 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
             mCamera.stopPreview();
             mCamera.setPreviewCallback(null);
         }
+        mPreviewBuffers.clear();
         mShowingPreview = false;
         if (mMediaRecorder != null) {
             mMediaRecorder.stop();
@@ -187,7 +205,7 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
         mCamera.startPreview();
         mIsPreviewActive = true;
         if (mIsScanning) {
-            mCamera.setPreviewCallback(this);
+            installPreviewCallback();
         }
     }
                                                     
@@ -376,6 +394,52 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
         return mIsScanning;
     }
 
+    @Override
+    void setUsePreviewBuffers(boolean usePreviewBuffers) {
+        if (usePreviewBuffers == mUsePreviewBuffers) {
+            return;
+        }
+        mUsePreviewBuffers = usePreviewBuffers;
+        if (isCameraOpened() && mIsScanning) {
+            installPreviewCallback();
+        }
+    }
+
+    @Override
+    boolean getUsePreviewBuffers() {
+        return mUsePreviewBuffers;
+    }
+
+    @Override
+    void setScanResolution(Size size) {
+        // Camera1 delivers frames at the preview size
+        mScanResolution = size;
+    }
+
+    @Override
+    Size getScanResolution() {
+        return mScanResolution;
+    }
+
+    @Override
+    void setLumaOnlyFrames(boolean lumaOnlyFrames) {
+        // frames come from the camera in NV21 already
+    }
+
+    @Override
+    boolean getLumaOnlyFrames() {
+        return false;
+    }
+
+    @Override
+    void returnPreviewBuffer(byte[] data) {
+        // Buffers from a previous callback installation (e.g. before the preview size changed)
+        // are not ours anymore and are left to the garbage collector.
+        if (isCameraOpened() && mUsePreviewBuffers && mIsScanning && mPreviewBuffers.contains(data)) {
+            mCamera.addCallbackBuffer(data);
+        }
+    }
+
     @Override
     void takePicture() {
         if (!isCameraOpened()) {
@@ -408,7 +472,7 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
                     camera.startPreview();
                     mIsPreviewActive = true;
                     if (mIsScanning) {
-                        camera.setPreviewCallback(Camera1.this);
+                        installPreviewCallback();
                     }
                     mCallback.onPictureTaken(data);
                 }
@@ -755,15 +819,41 @@ class Camera1 extends CameraViewImpl implements MediaRecorder.OnInfoListener,
         mIsScanning = isScanning;
         if (isCameraOpened()) {
             if (mIsScanning) {
-                mCamera.setPreviewCallback(this);
+                installPreviewCallback();
             } else {
                 mCamera.setPreviewCallback(null);
+                mPreviewBuffers.clear();
             }
         }
     }
 
+    /**
+     * Installs {@code this} as the preview callback. When preview buffers are enabled a fresh
+     * set of buffers sized for the current preview size is queued, so the framework does not
+     * allocate a new array for every frame.
+     */
+    private void installPreviewCallback() {
+        mPreviewBuffers.clear();
+        if (!mUsePreviewBuffers) {
+            mCamera.setPreviewCallback(this);
+            return;
+        }
+        mCamera.setPreviewCallbackWithBuffer(this);
+        Camera.Size previewSize = mCameraParameters.getPreviewSize();
+        int bitsPerPixel = ImageFormat.getBitsPerPixel(mCameraParameters.getPreviewFormat());
+        int bufferSize = previewSize.width * previewSize.height * bitsPerPixel / 8;
+        for (int i = 0; i < PREVIEW_BUFFER_COUNT; i++) {
+            byte[] buffer = new byte[bufferSize];
+            mPreviewBuffers.add(buffer);
+            mCamera.addCallbackBuffer(buffer);
+        }
+    }
+
     @Override
     public void onPreviewFrame(byte[] data, Camera camera) {
+        if (data == null) {
+            return;
+        }
         Camera.Size previewSize = mCameraParameters.getPreviewSize();
         mCallback.onFramePreview(data, previewSize.width, previewSize.height, mDisplayOrientation);
     }
@@ -39,11 +39,13 @@ import android.util.Log;
 import android.util.SparseIntArray;
 import android.view.Surface;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -72,32 +74,72 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
      */
     private static final int MAX_PREVIEW_HEIGHT = 1080;
 
+    /**
+     * Max number of recycled frame buffers kept around
+     */
+    private static final int FRAME_BUFFER_POOL_SIZE = 3;
+
     private final CameraManager mCameraManager;
 
     private final CameraDevice.StateCallback mCameraDeviceCallback
             = new CameraDevice.StateCallback() {
 
         @Override
-        public void onOpened(@NonNull CameraDevice camera) {
-            mCamera = camera;
-            mCallback.onCameraOpened();
-            startCaptureSession();
-        }
-
-        @Override
-        public void onClosed(@NonNull CameraDevice camera) {
-            mCallback.onCameraClosed();
+        public void onOpened(@NonNull final CameraDevice camera) {
+            synchronized (mCameraStateLock) {
+                if (closeIfStale(camera)) {
+                    return;
+                }
+                mCameraOpening = false;
+                mCamera = camera;
+            }
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mCamera != camera) {
+                        return;
+                    }
+                    mCallback.onCameraOpened();
+                    startCaptureSession();
+                }
+            });
         }
 
         @Override
         public void onDisconnected(@NonNull CameraDevice camera) {
-            mCamera = null;
+            synchronized (mCameraStateLock) {
+                if (closeIfStale(camera)) {
+                    return;
+                }
+                mCameraOpening = false;
+                mCamera = null;
+            }
         }
 
         @Override
         public void onError(@NonNull CameraDevice camera, int error) {
             Log.e(TAG, "onError: " + camera.getId() + " (" + error + ")");
-            mCamera = null;
+            synchronized (mCameraStateLock) {
+                if (closeIfStale(camera)) {
+                    return;
+                }
+                mCameraOpening = false;
+                mCamera = null;
+            }
+        }
+
+        /**
+         * A device callback may arrive after {@link #stop()} handed its thread off while the
+         * open request was still pending. Close the device and let that thread finish.
+         */
+        private boolean closeIfStale(CameraDevice camera) {
+            Handler handler = mCameraHandler;
+            if (handler != null && handler.getLooper() == Looper.myLooper()) {
+                return false;
+            }
+            camera.close();
+            Looper.myLooper().quitSafely();
+            return true;
         }
 
     };
@@ -106,11 +148,45 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             = new CameraCaptureSession.StateCallback() {
 
         @Override
-        public void onConfigured(@NonNull CameraCaptureSession session) {
-            if (mCamera == null) {
-                return;
-            }
-            mCaptureSession = session;
+        public void onConfigured(@NonNull final CameraCaptureSession session) {
+            // the session is only ever replaced on the main thread, where stop() and the setters
+            // close it
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    startRepeatingRequest(session);
+                }
+            });
+        }
+
+        @Override
+        public void onConfigureFailed(@NonNull CameraCaptureSession session) {
+            Log.e(TAG, "Failed to configure capture session.");
+        }
+
+        @Override
+        public void onClosed(@NonNull final CameraCaptureSession session) {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mCaptureSession != null && mCaptureSession.equals(session)) {
+                        mCaptureSession = null;
+                    }
+                }
+            });
+        }
+
+    };
+
+    /**
+     * Makes a configured session current and starts the preview on it. Runs on the main thread.
+     */
+    private void startRepeatingRequest(CameraCaptureSession session) {
+        if (mCamera == null || session.getDevice() != mCamera) {
+            return;
+        }
+        mCaptureSession = session;
+        synchronized (mPreviewRequestLock) {
             mInitialCropRegion = mPreviewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION);
             updateAutoFocus();
             updateFlash();
@@ -119,50 +195,59 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             updateZoom();
             try {
                 mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
-                        mCaptureCallback, null);
+                        mCaptureCallback, mCameraHandler);
             } catch (CameraAccessException e) {
                 Log.e(TAG, "Failed to start camera preview because it couldn't access camera", e);
             } catch (IllegalStateException e) {
                 Log.e(TAG, "Failed to start camera preview.", e);
             }
         }
+    }
+
+    PictureCaptureCallback mCaptureCallback = new PictureCaptureCallback() {
 
         @Override
-        public void onConfigureFailed(@NonNull CameraCaptureSession session) {
-            Log.e(TAG, "Failed to configure capture session.");
+        public void onPrecaptureRequired() {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    runPrecapture();
+                }
+            });
         }
 
         @Override
-        public void onClosed(@NonNull CameraCaptureSession session) {
-            if (mCaptureSession != null && mCaptureSession.equals(session)) {
-                mCaptureSession = null;
-            }
+        public void onReady() {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    captureStillPicture();
+                }
+            });
         }
 
     };
 
-    PictureCaptureCallback mCaptureCallback = new PictureCaptureCallback() {
-
-        @Override
-        public void onPrecaptureRequired() {
+    /**
+     * Starts the auto exposure precapture sequence. Runs on the main thread.
+     */
+    private void runPrecapture() {
+        if (mCaptureSession == null) {
+            return;
+        }
+        synchronized (mPreviewRequestLock) {
             mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AE_PRECAPTURE_TRIGGER,
                     CaptureRequest.CONTROL_AE_PRECAPTURE_TRIGGER_START);
-            setState(STATE_PRECAPTURE);
+            mCaptureCallback.setState(PictureCaptureCallback.STATE_PRECAPTURE);
             try {
-                mCaptureSession.capture(mPreviewRequestBuilder.build(), this, null);
+                mCaptureSession.capture(mPreviewRequestBuilder.build(), mCaptureCallback, mCameraHandler);
                 mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AE_PRECAPTURE_TRIGGER,
                         CaptureRequest.CONTROL_AE_PRECAPTURE_TRIGGER_IDLE);
             } catch (CameraAccessException e) {
                 Log.e(TAG, "Failed to run precapture sequence.", e);
             }
         }
-
-        @Override
-        public void onReady() {
-            captureStillPicture();
-        }
-
-    };
+    }
 
     private final ImageReader.OnImageAvailableListener mOnImageAvailableListener
             = new ImageReader.OnImageAvailableListener() {
@@ -170,34 +255,91 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         @Override
         public void onImageAvailable(ImageReader reader) {
             try (Image image = reader.acquireNextImage()) {
-                Image.Plane[] planes = image.getPlanes();
-                if (planes.length > 0) {
-                    ByteBuffer buffer = planes[0].getBuffer();
-                    byte[] data = new byte[buffer.remaining()];
-                    buffer.get(data);
-                    if (image.getFormat() == ImageFormat.JPEG) {
-                        mCallback.onPictureTaken(data);
-                    } else {
-                        mCallback.onFramePreview(data, image.getWidth(), image.getHeight(), mDisplayOrientation);
+                if (image == null) {
+                    return;
+                }
+                if (image.getFormat() == ImageFormat.JPEG) {
+                    Image.Plane[] planes = image.getPlanes();
+                    if (planes.length > 0) {
+                        ByteBuffer buffer = planes[0].getBuffer();
+                        final byte[] data = new byte[buffer.remaining()];
+                        buffer.get(data);
+                        mMainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                mCallback.onPictureTaken(data);
+                            }
+                        });
                     }
-                    image.close();
+                } else {
+                    int width = image.getWidth();
+                    int height = image.getHeight();
+                    byte[] data = obtainFrameBuffer(Nv21Packer.getBufferSize(width, height));
+                    Image.Plane[] planes = image.getPlanes();
+                    // U and V share row and pixel strides, the Y plane always has a pixel stride of 1
+                    mNv21Packer.pack(width, height, planes[0].getBuffer(), planes[0].getRowStride(),
+                            planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(),
+                            planes[1].getPixelStride(), data, mLumaOnlyFrames);
+                    mCallback.onFramePreview(data, width, height, mDisplayOrientation);
                 }
+            } catch (IllegalStateException e) {
+                // the reader was closed while the image was pending
+                Log.w(TAG, "Failed to read image.", e);
             }
         }
 
     };
 
 
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Guards {@link #mCamera} and the camera thread hand-off between {@link #stop()} and the
+     * device callbacks, which run on {@link #mCameraThread}.
+     */
+    private final Object mCameraStateLock = new Object();
+
+    /**
+     * Runs device, session and capture callbacks as well as the still image reader.
+     */
+    private HandlerThread mCameraThread;
+
+    private volatile Handler mCameraHandler;
+
+    /**
+     * Runs the scan image reader so frame copying never competes with the UI thread. The reader is
+     * closed on this thread too, so an image is never closed while its planes are being packed.
+     */
+    private HandlerThread mAnalysisThread;
+
+    private Handler mAnalysisHandler;
+
+    private boolean mCameraOpening;
+
     private String mCameraId;
 
     private CameraCharacteristics mCameraCharacteristics;
 
-    CameraDevice mCamera;
+    volatile CameraDevice mCamera;
 
-    CameraCaptureSession mCaptureSession;
+    /**
+     * Only changed on the main thread. Session callbacks and the capture callbacks that restart
+     * the preview post there.
+     */
+    volatile CameraCaptureSession mCaptureSession;
 
+    /**
+     * Guarded by {@link #mPreviewRequestLock}. The builder is changed from the main thread and
+     * built from capture callbacks on {@link #mCameraThread}, and it is not thread-safe.
+     */
     CaptureRequest.Builder mPreviewRequestBuilder;
 
+    /**
+     * Held around every change to {@link #mPreviewRequestBuilder} together with the request it
+     * is built into, so a repeating request never sees a half-applied update.
+     */
+    private final Object mPreviewRequestLock = new Object();
+
     Set<String> mAvailableCameras = new HashSet<>();
 
     private ImageReader mStillImageReader;
@@ -218,7 +360,8 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
 
     private Size mPictureSize;
 
-    private int mFacing;
+    // read by frame consumers off the main thread
+    private volatile int mFacing;
 
     private AspectRatio mAspectRatio = Constants.DEFAULT_ASPECT_RATIO;
 
@@ -238,6 +381,24 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
 
     private boolean mIsScanning;
 
+    private volatile boolean mUsePreviewBuffers;
+
+    private volatile boolean mLumaOnlyFrames;
+
+    /**
+     * Recycled frame buffers, guarded by itself. Only used with {@link #mUsePreviewBuffers}.
+     */
+    private final ArrayDeque<byte[]> mFrameBufferPool = new ArrayDeque<>();
+
+    /**
+     * Only used on {@link #mAnalysisThread}.
+     */
+    private final Nv21Packer mNv21Packer = new Nv21Packer();
+
+    private final SizeMap mScanSizes = new SizeMap();
+
+    private Size mScanResolution;
+
     private Surface mPreviewSurface;
 
     private Rect mInitialCropRegion;
@@ -278,6 +439,7 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             mAspectRatio = mInitialRatio;
             return false;
         }
+        startBackgroundThreads();
         collectCameraInfo();
         setAspectRatio(mInitialRatio);
         mInitialRatio = null;
@@ -289,14 +451,29 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
 
     @Override
     void stop() {
-        if (mCaptureSession != null) {
-            mCaptureSession.close();
-            mCaptureSession = null;
-        }
-        if (mCamera != null) {
-            mCamera.close();
-            mCamera = null;
+        boolean wasOpened;
+        HandlerThread cameraThread;
+        synchronized (mCameraStateLock) {
+            if (mCaptureSession != null) {
+                mCaptureSession.close();
+                mCaptureSession = null;
+            }
+            wasOpened = mCamera != null;
+            if (mCamera != null) {
+                mCamera.close();
+                mCamera = null;
+            }
+            // a pending open still needs the thread to deliver its callback, which then quits it
+            cameraThread = mCameraOpening ? null : mCameraThread;
+            mCameraOpening = false;
+            mCameraThread = null;
+            mCameraHandler = null;
         }
+        quitThread(cameraThread);
+        quitThread(mAnalysisThread);
+        mAnalysisThread = null;
+        mAnalysisHandler = null;
+
         if (mStillImageReader != null) {
             mStillImageReader.close();
             mStillImageReader = null;
@@ -306,6 +483,9 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             mScanImageReader.close();
             mScanImageReader = null;
         }
+        synchronized (mFrameBufferPool) {
+            mFrameBufferPool.clear();
+        }
 
         if (mMediaRecorder != null) {
             mMediaRecorder.stop();
@@ -318,6 +498,35 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
                 mIsRecording = false;
             }
         }
+
+        if (wasOpened) {
+            mCallback.onCameraClosed();
+        }
+    }
+
+    private void startBackgroundThreads() {
+        if (mCameraThread == null) {
+            mCameraThread = new HandlerThread("CameraBackground");
+            mCameraThread.start();
+            mCameraHandler = new Handler(mCameraThread.getLooper());
+        }
+        if (mAnalysisThread == null) {
+            mAnalysisThread = new HandlerThread("CameraAnalysis");
+            mAnalysisThread.start();
+            mAnalysisHandler = new Handler(mAnalysisThread.getLooper());
+        }
+    }
+
+    private static void quitThread(HandlerThread thread) {
+        if (thread == null) {
+            return;
+        }
+        thread.quitSafely();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @Override
@@ -363,9 +572,6 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             mCaptureSession.close();
             mCaptureSession = null;
         }
-        if (mStillImageReader != null) {
-            mStillImageReader.close();
-        }
         if (size == null) {
           if (mAspectRatio == null) {
             return;
@@ -395,11 +601,15 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             return false;
         }
         mAspectRatio = ratio;
-        prepareStillImageReader();
-        prepareScanImageReader();
-        if (mCaptureSession != null) {
+        // stop using the readers' surfaces before they are replaced
+        boolean restartSession = mCaptureSession != null;
+        if (restartSession) {
             mCaptureSession.close();
             mCaptureSession = null;
+        }
+        prepareStillImageReader();
+        prepareScanImageReader();
+        if (restartSession) {
             startCaptureSession();
         }
         return true;
@@ -416,14 +626,16 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
             return;
         }
         mAutoFocus = autoFocus;
-        if (mPreviewRequestBuilder != null) {
-            updateAutoFocus();
-            if (mCaptureSession != null) {
-                try {
-                    mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
-                            mCaptureCallback, null);
-                } catch (CameraAccessException e) {
-                    mAutoFocus = !mAutoFocus; // Revert
+        synchronized (mPreviewRequestLock) {
+            if (mPreviewRequestBuilder != null) {
+                updateAutoFocus();
+                if (mCaptureSession != null) {
+                    try {
+                        mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
+                                mCaptureCallback, mCameraHandler);
+                    } catch (CameraAccessException e) {
+                        mAutoFocus = !mAutoFocus; // Revert
+                    }
                 }
             }
         }
@@ -441,14 +653,16 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         }
         int saved = mFlash;
         mFlash = flash;
-        if (mPreviewRequestBuilder != null) {
-            updateFlash();
-            if (mCaptureSession != null) {
-                try {
-                    mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
-                            mCaptureCallback, null);
-                } catch (CameraAccessException e) {
-                    mFlash = saved; // Revert
+        synchronized (mPreviewRequestLock) {
+            if (mPreviewRequestBuilder != null) {
+                updateFlash();
+                if (mCaptureSession != null) {
+                    try {
+                        mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
+                                mCaptureCallback, mCameraHandler);
+                    } catch (CameraAccessException e) {
+                        mFlash = saved; // Revert
+                    }
                 }
             }
         }
@@ -485,11 +699,13 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
                 Surface surface = getPreviewSurface();
                 Surface mMediaRecorderSurface = mMediaRecorder.getSurface();
 
-                mPreviewRequestBuilder = mCamera.createCaptureRequest(CameraDevice.TEMPLATE_RECORD);
-                mPreviewRequestBuilder.addTarget(surface);
-                mPreviewRequestBuilder.addTarget(mMediaRecorderSurface);
+                synchronized (mPreviewRequestLock) {
+                    mPreviewRequestBuilder = mCamera.createCaptureRequest(CameraDevice.TEMPLATE_RECORD);
+                    mPreviewRequestBuilder.addTarget(surface);
+                    mPreviewRequestBuilder.addTarget(mMediaRecorderSurface);
+                }
                 mCamera.createCaptureSession(Arrays.asList(surface, mMediaRecorderSurface),
-                    mSessionCallback, null);
+                    mSessionCallback, mCameraHandler);
                 mMediaRecorder.start();
                 mIsRecording = true;
                 return true;
@@ -521,13 +737,15 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         }
         float saved = mFocusDepth;
         mFocusDepth = value;
-        if (mCaptureSession != null) {
-            updateFocusDepth();
-            try {
-                mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
-                        mCaptureCallback, null);
-            } catch (CameraAccessException e) {
-                mFocusDepth = saved;  // Revert
+        synchronized (mPreviewRequestLock) {
+            if (mCaptureSession != null) {
+                updateFocusDepth();
+                try {
+                    mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
+                            mCaptureCallback, mCameraHandler);
+                } catch (CameraAccessException e) {
+                    mFocusDepth = saved;  // Revert
+                }
             }
         }
     }
@@ -544,14 +762,16 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
       }
       float saved = mZoom;
       mZoom = zoom;
-      if (mCaptureSession != null) {
-          updateZoom();
-          try {
-              mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
-                  mCaptureCallback, null);
-          } catch (CameraAccessException e) {
-              mZoom = saved;  // Revert
-          }
+      synchronized (mPreviewRequestLock) {
+        if (mCaptureSession != null) {
+            updateZoom();
+            try {
+                mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
+                    mCaptureCallback, mCameraHandler);
+            } catch (CameraAccessException e) {
+                mZoom = saved;  // Revert
+            }
+        }
       }
     }
 
@@ -567,13 +787,15 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         }
         int saved = mWhiteBalance;
         mWhiteBalance = whiteBalance;
-        if (mCaptureSession != null) {
-            updateWhiteBalance();
-            try {
-                mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
-                    mCaptureCallback, null);
-            } catch (CameraAccessException e) {
-                mWhiteBalance = saved;  // Revert
+        synchronized (mPreviewRequestLock) {
+            if (mCaptureSession != null) {
+                updateWhiteBalance();
+                try {
+                    mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(),
+                        mCaptureCallback, mCameraHandler);
+                } catch (CameraAccessException e) {
+                    mWhiteBalance = saved;  // Revert
+                }
             }
         }
     }
@@ -606,6 +828,83 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         return mIsScanning;
     }
 
+    @Override
+    void setUsePreviewBuffers(boolean usePreviewBuffers) {
+        // Frames are copied out of the ImageReader, there are no camera owned buffers to cycle.
+        mUsePreviewBuffers = usePreviewBuffers;
+        if (!usePreviewBuffers) {
+            synchronized (mFrameBufferPool) {
+                mFrameBufferPool.clear();
+            }
+        }
+    }
+
+    @Override
+    boolean getUsePreviewBuffers() {
+        return mUsePreviewBuffers;
+    }
+
+    @Override
+    void returnPreviewBuffer(byte[] data) {
+        if (!mUsePreviewBuffers) {
+            return;
+        }
+        synchronized (mFrameBufferPool) {
+            if (mFrameBufferPool.size() < FRAME_BUFFER_POOL_SIZE) {
+                mFrameBufferPool.push(data);
+            }
+        }
+    }
+
+    /**
+     * Takes a buffer of the given size from the pool, dropping buffers left over from a previous
+     * scan size, or allocates a new one.
+     */
+    private byte[] obtainFrameBuffer(int size) {
+        if (mUsePreviewBuffers) {
+            synchronized (mFrameBufferPool) {
+                byte[] buffer;
+                while ((buffer = mFrameBufferPool.poll()) != null) {
+                    if (buffer.length == size) {
+                        return buffer;
+                    }
+                }
+            }
+        }
+        return new byte[size];
+    }
+
+    @Override
+    void setLumaOnlyFrames(boolean lumaOnlyFrames) {
+        mLumaOnlyFrames = lumaOnlyFrames;
+    }
+
+    @Override
+    boolean getLumaOnlyFrames() {
+        return mLumaOnlyFrames;
+    }
+
+    @Override
+    void setScanResolution(Size size) {
+        if (size == null ? mScanResolution == null : size.equals(mScanResolution)) {
+            return;
+        }
+        mScanResolution = size;
+        if (mScanImageReader != null) {
+            if (mCaptureSession != null) {
+                mCaptureSession.close();
+                mCaptureSession = null;
+            }
+            prepareScanImageReader();
+            startCaptureSession();
+        }
+    }
+
+    @Override
+    Size getScanResolution() {
+        return mScanResolution;
+    }
+
     @Override
     void setDisplayOrientation(int displayOrientation) {
         mDisplayOrientation = displayOrientation;
@@ -689,6 +988,10 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
                 mPreviewSizes.add(new Size(width, height));
             }
         }
+        mScanSizes.clear();
+        for (android.util.Size size : map.getOutputSizes(ImageFormat.YUV_420_888)) {
+            mScanSizes.add(new Size(size.getWidth(), size.getHeight()));
+        }
         mPictureSizes.clear();
         collectPictureSizes(mPictureSizes, map);
         if (mPictureSize == null) {
@@ -713,21 +1016,62 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
 
     private void prepareStillImageReader() {
         if (mStillImageReader != null) {
-            mStillImageReader.close();
+            closeImageReader(mStillImageReader, mCameraHandler);
         }
         mStillImageReader = ImageReader.newInstance(mPictureSize.getWidth(), mPictureSize.getHeight(),
                 ImageFormat.JPEG, 1);
-        mStillImageReader.setOnImageAvailableListener(mOnImageAvailableListener, null);
+        mStillImageReader.setOnImageAvailableListener(mOnImageAvailableListener, mCameraHandler);
     }
 
     private void prepareScanImageReader() {
         if (mScanImageReader != null) {
-            mScanImageReader.close();
+            closeImageReader(mScanImageReader, mAnalysisHandler);
         }
-        Size largest = mPreviewSizes.sizes(mAspectRatio).last();
-        mScanImageReader = ImageReader.newInstance(largest.getWidth(), largest.getHeight(),
+        Size size = chooseScanSize();
+        mScanImageReader = ImageReader.newInstance(size.getWidth(), size.getHeight(),
                 ImageFormat.YUV_420_888, 1);
-        mScanImageReader.setOnImageAvailableListener(mOnImageAvailableListener, null);
+        mScanImageReader.setOnImageAvailableListener(mOnImageAvailableListener, mAnalysisHandler);
+    }
+
+    /**
+     * Closes a reader on the thread its listener runs on. Closing it elsewhere could close an
+     * image while the listener still reads its planes; {@link #stop()} joins the threads first
+     * instead.
+     */
+    private static void closeImageReader(final ImageReader reader, Handler handler) {
+        boolean posted = handler != null && handler.post(new Runnable() {
+            @Override
+            public void run() {
+                reader.close();
+            }
+        });
+        if (!posted) {
+            reader.close();
+        }
+    }
+
+    /**
+     * Chooses the size of the scan image reader. Without a {@link #mScanResolution} this is the
+     * largest preview size; otherwise the smallest YUV output size of the current aspect ratio
+     * that covers the requested resolution, or the largest one if none does.
+     */
+    private Size chooseScanSize() {
+        SortedSet<Size> previewSizes = mPreviewSizes.sizes(mAspectRatio);
+        SortedSet<Size> candidates = mScanSizes.sizes(mAspectRatio);
+        if (mScanResolution == null || candidates == null || candidates.isEmpty()) {
+            return previewSizes.last();
+        }
+        // output sizes are landscape, compare long and short sides so portrait targets work too
+        int targetLong = Math.max(mScanResolution.getWidth(), mScanResolution.getHeight());
+        int targetShort = Math.min(mScanResolution.getWidth(), mScanResolution.getHeight());
+        for (Size size : candidates) {
+            int longSide = Math.max(size.getWidth(), size.getHeight());
+            int shortSide = Math.min(size.getWidth(), size.getHeight());
+            if (longSide >= targetLong && shortSide >= targetShort) {
+                return size;
+            }
+        }
+        return candidates.last();
     }
 
     /**
@@ -736,7 +1080,10 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
      */
     private void startOpeningCamera() {
         try {
-            mCameraManager.openCamera(mCameraId, mCameraDeviceCallback, null);
+            synchronized (mCameraStateLock) {
+                mCameraManager.openCamera(mCameraId, mCameraDeviceCallback, mCameraHandler);
+                mCameraOpening = true;
+            }
         } catch (CameraAccessException e) {
             throw new RuntimeException("Failed to open camera: " + mCameraId, e);
         }
@@ -755,14 +1102,16 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         mPreview.setBufferSize(previewSize.getWidth(), previewSize.getHeight());
         Surface surface = getPreviewSurface();
         try {
-            mPreviewRequestBuilder = mCamera.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
-            mPreviewRequestBuilder.addTarget(surface);
+            synchronized (mPreviewRequestLock) {
+                mPreviewRequestBuilder = mCamera.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
+                mPreviewRequestBuilder.addTarget(surface);
 
-            if (mIsScanning) {
-                mPreviewRequestBuilder.addTarget(mScanImageReader.getSurface());
+                if (mIsScanning) {
+                    mPreviewRequestBuilder.addTarget(mScanImageReader.getSurface());
+                }
             }
             mCamera.createCaptureSession(Arrays.asList(surface, mStillImageReader.getSurface(),
-                    mScanImageReader.getSurface()), mSessionCallback, null);
+                    mScanImageReader.getSurface()), mSessionCallback, mCameraHandler);
         } catch (CameraAccessException e) {
             mCallback.onMountError();
         }
@@ -799,8 +1148,7 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         }
 
         // it may be called from another thread, so make sure we're in main looper
-        Handler handler = new Handler(Looper.getMainLooper());
-        handler.post(new Runnable() {
+        mMainHandler.post(new Runnable() {
             @Override
             public void run() {
                 if (mCaptureSession != null) {
@@ -989,20 +1337,31 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
      * Locks the focus as the first step for a still image capture.
      */
     private void lockFocus() {
-        mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER,
-                CaptureRequest.CONTROL_AF_TRIGGER_START);
-        try {
-            mCaptureCallback.setState(PictureCaptureCallback.STATE_LOCKING);
-            mCaptureSession.capture(mPreviewRequestBuilder.build(), mCaptureCallback, null);
-        } catch (CameraAccessException e) {
-            Log.e(TAG, "Failed to lock focus.", e);
+        synchronized (mPreviewRequestLock) {
+            mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER,
+                    CaptureRequest.CONTROL_AF_TRIGGER_START);
+            try {
+                mCaptureCallback.setState(PictureCaptureCallback.STATE_LOCKING);
+                mCaptureSession.capture(mPreviewRequestBuilder.build(), mCaptureCallback, mCameraHandler);
+            } catch (CameraAccessException e) {
+                Log.e(TAG, "Failed to lock focus.", e);
+            }
         }
     }
 
     /**
-     * Captures a still picture.
+     * Captures a still picture. Runs on the main thread.
      */
     void captureStillPicture() {
+        if (mCaptureSession == null) {
+            return;
+        }
+        Integer afMode;
+        Rect cropRegion;
+        synchronized (mPreviewRequestLock) {
+            afMode = mPreviewRequestBuilder.get(CaptureRequest.CONTROL_AF_MODE);
+            cropRegion = mPreviewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION);
+        }
         try {
             CaptureRequest.Builder captureRequestBuilder = mCamera.createCaptureRequest(
                     CameraDevice.TEMPLATE_STILL_CAPTURE);
@@ -1011,8 +1370,7 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
                 captureRequestBuilder.removeTarget(mScanImageReader.getSurface());
             }
             captureRequestBuilder.addTarget(mStillImageReader.getSurface());
-            captureRequestBuilder.set(CaptureRequest.CONTROL_AF_MODE,
-                    mPreviewRequestBuilder.get(CaptureRequest.CONTROL_AF_MODE));
+            captureRequestBuilder.set(CaptureRequest.CONTROL_AF_MODE, afMode);
             switch (mFlash) {
                 case Constants.FLASH_OFF:
                     captureRequestBuilder.set(CaptureRequest.CONTROL_AE_MODE,
@@ -1040,7 +1398,7 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
                     break;
             }
             captureRequestBuilder.set(CaptureRequest.JPEG_ORIENTATION, getOutputRotation());
-            captureRequestBuilder.set(CaptureRequest.SCALER_CROP_REGION, mPreviewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
+            captureRequestBuilder.set(CaptureRequest.SCALER_CROP_REGION, cropRegion);
             // Stop preview and capture a still picture.
             mCaptureSession.stopRepeating();
             mCaptureSession.capture(captureRequestBuilder.build(),
@@ -1049,9 +1407,14 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
                         public void onCaptureCompleted(@NonNull CameraCaptureSession session,
                                 @NonNull CaptureRequest request,
                                 @NonNull TotalCaptureResult result) {
-                            unlockFocus();
+                            mMainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    unlockFocus();
+                                }
+                            });
                         }
-                    }, null);
+                    }, mCameraHandler);
         } catch (CameraAccessException e) {
             Log.e(TAG, "Cannot capture a still picture.", e);
         }
@@ -1132,27 +1495,32 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
 
     /**
      * Unlocks the auto-focus and restart camera preview. This is supposed to be called after
-     * capturing a still picture.
+     * capturing a still picture. Runs on the main thread.
      */
     void unlockFocus() {
-        mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER,
-                CaptureRequest.CONTROL_AF_TRIGGER_CANCEL);
-        try {
-            mCaptureSession.capture(mPreviewRequestBuilder.build(), mCaptureCallback, null);
-            updateAutoFocus();
-            updateFlash();
-            if (mIsScanning) {
-                mImageFormat = ImageFormat.YUV_420_888;
-                startCaptureSession();
-            } else {
-                mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER,
-                        CaptureRequest.CONTROL_AF_TRIGGER_IDLE);
-                mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(), mCaptureCallback,
-                        null);
-                mCaptureCallback.setState(PictureCaptureCallback.STATE_PREVIEW);
+        if (mCaptureSession == null) {
+            return;
+        }
+        synchronized (mPreviewRequestLock) {
+            mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER,
+                    CaptureRequest.CONTROL_AF_TRIGGER_CANCEL);
+            try {
+                mCaptureSession.capture(mPreviewRequestBuilder.build(), mCaptureCallback, mCameraHandler);
+                updateAutoFocus();
+                updateFlash();
+                if (mIsScanning) {
+                    mImageFormat = ImageFormat.YUV_420_888;
+                    startCaptureSession();
+                } else {
+                    mPreviewRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER,
+                            CaptureRequest.CONTROL_AF_TRIGGER_IDLE);
+                    mCaptureSession.setRepeatingRequest(mPreviewRequestBuilder.build(), mCaptureCallback,
+                            mCameraHandler);
+                    mCaptureCallback.setState(PictureCaptureCallback.STATE_PREVIEW);
+                }
+            } catch (CameraAccessException e) {
+                Log.e(TAG, "Failed to restart camera preview.", e);
             }
-        } catch (CameraAccessException e) {
-            Log.e(TAG, "Failed to restart camera preview.", e);
         }
     }
 
@@ -1186,7 +1554,8 @@ class Camera2 extends CameraViewImpl implements MediaRecorder.OnInfoListener, Me
         static final int STATE_WAITING = 4;
         static final int STATE_CAPTURING = 5;
 
-        private int mState;
+        // set on the main thread, read by capture callbacks on the camera thread
+        private volatile int mState;
 
         PictureCaptureCallback() {
         }
@@ -221,7 +221,10 @@ public class CameraView extends FrameLayout {
         state.zoom = getZoom();
         state.whiteBalance = getWhiteBalance();
         state.scanning = getScanning();
+        state.usePreviewBuffers = getUsePreviewBuffers();
+        state.lumaOnlyFrames = getLumaOnlyFrames();
         state.pictureSize = getPictureSize();
+        state.scanResolution = getScanResolution();
         return state;
     }
 
@@ -241,7 +244,10 @@ public class CameraView extends FrameLayout {
         setZoom(ss.zoom);
         setWhiteBalance(ss.whiteBalance);
         setScanning(ss.scanning);
+        setUsePreviewBuffers(ss.usePreviewBuffers);
+        setLumaOnlyFrames(ss.lumaOnlyFrames);
         setPictureSize(ss.pictureSize);
+        setScanResolution(ss.scanResolution);
     }
 
     public void setUsingCamera2Api(boolean useCamera2) {
@@ -432,6 +438,39 @@ public class CameraView extends FrameLayout {
         return mImpl.getPictureSize();
     }
 
+    /**
+     * Sets the size of frames delivered to {@link Callback#onFramePreview}, so that detectors can
+     * work on smaller frames than the preview. Only supported by Camera2; Camera1 always delivers
+     * frames at the preview size.
+     *
+     * @param size The {@link Size} to be set, or {@code null} to use the preview size.
+     */
+    public void setScanResolution(@Nullable Size size) {
+        mImpl.setScanResolution(size);
+    }
+
+    /**
+     * Allows frames delivered to {@link Callback#onFramePreview} to carry luminance only, which
+     * saves converting the chroma planes with Camera2. The buffers keep their NV21 size, and with
+     * {@link #setUsePreviewBuffers} a recycled buffer keeps whatever chroma an earlier frame left
+     * in it, so only luminance of such frames may be relied on.
+     */
+    public void setLumaOnlyFrames(boolean lumaOnlyFrames) {
+        mImpl.setLumaOnlyFrames(lumaOnlyFrames);
+    }
+
+    public boolean getLumaOnlyFrames() {
+        return mImpl.getLumaOnlyFrames();
+    }
+
+    /**
+     * Gets the size requested through {@link #setScanResolution(Size)}.
+     */
+    @Nullable
+    public Size getScanResolution() {
+        return mImpl.getScanResolution();
+    }
+
     /**
      * Enables or disables the continuous auto-focus mode. When the current camera doesn't support
      * auto-focus, calling this method will be ignored.
@@ -499,6 +538,29 @@ public class CameraView extends FrameLayout {
 
     public boolean getScanning() { return mImpl.getScanning(); }
 
+    /**
+     * Enables or disables delivering preview frames through a small pool of reused buffers
+     * instead of a newly allocated array per frame. When enabled, every buffer received in
+     * {@link Callback#onFramePreview(CameraView, byte[], int, int, int)} has to be handed back
+     * with {@link #returnPreviewBuffer(byte[])} once it is no longer used.
+     *
+     * @param usePreviewBuffers {@code true} to cycle preview buffers.
+     */
+    public void setUsePreviewBuffers(boolean usePreviewBuffers) {
+        mImpl.setUsePreviewBuffers(usePreviewBuffers);
+    }
+
+    public boolean getUsePreviewBuffers() { return mImpl.getUsePreviewBuffers(); }
+
+    /**
+     * Returns a preview frame buffer so it can be filled with a subsequent frame.
+     *
+     * @param data The buffer received in {@link Callback#onFramePreview}.
+     */
+    public void returnPreviewBuffer(byte[] data) {
+        mImpl.returnPreviewBuffer(data);
+    }
+
     /**
      * Take a picture. The result will be returned to
      * {@link Callback#onPictureTaken(CameraView, byte[])}.
@@ -627,9 +689,15 @@ public class CameraView extends FrameLayout {
         int whiteBalance;
 
         boolean scanning;
+
+        boolean usePreviewBuffers;
+
+        boolean lumaOnlyFrames;
         
         Size pictureSize;
 
+        Size scanResolution;
+
         @SuppressWarnings("WrongConstant")
         public SavedState(Parcel source, ClassLoader loader) {
             super(source);
@@ -641,7 +709,10 @@ public class CameraView extends FrameLayout {
             zoom = source.readFloat();
             whiteBalance = source.readInt();
             scanning = source.readByte() != 0;
+            usePreviewBuffers = source.readByte() != 0;
+            lumaOnlyFrames = source.readByte() != 0;
             pictureSize = source.readParcelable(loader);
+            scanResolution = source.readParcelable(loader);
         }
 
         public SavedState(Parcelable superState) {
@@ -659,7 +730,10 @@ public class CameraView extends FrameLayout {
             out.writeFloat(zoom);
             out.writeInt(whiteBalance);
             out.writeByte((byte) (scanning ? 1 : 0));
+            out.writeByte((byte) (usePreviewBuffers ? 1 : 0));
+            out.writeByte((byte) (lumaOnlyFrames ? 1 : 0));
             out.writeParcelable(pictureSize, flags);
+            out.writeParcelable(scanResolution, flags);
         }
 
         public static final Creator<SavedState> CREATOR
@@ -719,6 +793,10 @@ public class CameraView extends FrameLayout {
         public void onVideoRecorded(CameraView cameraView, String path) {
         }
 
+        /**
+         * Called when a preview frame is available for scanning. With Camera2 this runs on a
+         * dedicated analysis thread rather than the main thread.
+         */
         public void onFramePreview(CameraView cameraView, byte[] data, int width, int height, int orientation) {
         }
 
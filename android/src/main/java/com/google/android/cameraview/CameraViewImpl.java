@@ -98,6 +98,32 @@ abstract class CameraViewImpl {
     abstract void setScanning(boolean isScanning);
 
     abstract boolean getScanning();
+
+    abstract void setUsePreviewBuffers(boolean usePreviewBuffers);
+
+    abstract boolean getUsePreviewBuffers();
+
+    /**
+     * Hands a frame buffer received through {@link Callback#onFramePreview} back to the
+     * implementation once its consumers are done with it.
+     */
+    abstract void returnPreviewBuffer(byte[] data);
+
+    /**
+     * Sets the size frames are delivered at through {@link Callback#onFramePreview}, independently
+     * of the preview size. {@code null} uses the preview size.
+     */
+    abstract void setScanResolution(Size size);
+
+    /**
+     * When set, frames may carry valid luminance only, with undefined chroma. Implementations that
+     * have to convert frames can skip the chroma planes.
+     */
+    abstract void setLumaOnlyFrames(boolean lumaOnlyFrames);
+
+    abstract boolean getLumaOnlyFrames();
+
+    abstract Size getScanResolution();
     
     abstract public void resumePreview();
     
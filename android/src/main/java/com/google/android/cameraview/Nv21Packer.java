@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.cameraview;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs {@link android.graphics.ImageFormat#YUV_420_888} planes into NV21 byte arrays, honouring
+ * the row and pixel strides of every plane. Not thread safe, the row buffers are reused.
+ */
+class Nv21Packer {
+
+    private byte[] mRowU = new byte[0];
+
+    private byte[] mRowV = new byte[0];
+
+    /**
+     * @return the size of an NV21 buffer for the given dimensions. Chroma is subsampled rounding
+     * up, so odd dimensions still get a chroma sample for their last column and row.
+     */
+    static int getBufferSize(int width, int height) {
+        return width * height + 2 * getChromaSize(width) * getChromaSize(height);
+    }
+
+    private static int getChromaSize(int size) {
+        return (size + 1) / 2;
+    }
+
+    /**
+     * Packs the planes of an image into {@code out}, which must hold at least
+     * {@link #getBufferSize} bytes. The plane buffers are read from position 0 on, like the ones
+     * of {@link android.media.Image.Plane}.
+     *
+     * @param y               the Y plane, whose pixel stride is always 1
+     * @param yRowStride      bytes between the starts of two rows of the Y plane
+     * @param u               the U plane
+     * @param v               the V plane
+     * @param chromaRowStride bytes between the starts of two rows of the U and V planes
+     * @param chromaPixelStride bytes between two samples of a row of the U and V planes
+     * @param lumaOnly        Only copy the Y plane, leaving the chroma part of {@code out}
+     *                        untouched. Enough for consumers that only look at luminance, such as
+     *                        ZXing; a reused buffer keeps the chroma of the frame it held before.
+     */
+    void pack(int width, int height, ByteBuffer y, int yRowStride, ByteBuffer u, ByteBuffer v,
+            int chromaRowStride, int chromaPixelStride, byte[] out, boolean lumaOnly) {
+        if (yRowStride == width) {
+            y.position(0);
+            y.get(out, 0, width * height);
+        } else {
+            for (int row = 0; row < height; row++) {
+                y.position(row * yRowStride);
+                y.get(out, row * width, width);
+            }
+        }
+        if (lumaOnly) {
+            return;
+        }
+
+        int chromaWidth = getChromaSize(width);
+        int chromaHeight = getChromaSize(height);
+        // the last row of a plane may end right after its last sample, without padding
+        int rowLength = (chromaWidth - 1) * chromaPixelStride + 1;
+        if (mRowU.length < rowLength) {
+            mRowU = new byte[rowLength];
+            mRowV = new byte[rowLength];
+        }
+        int offset = width * height;
+        for (int row = 0; row < chromaHeight; row++) {
+            u.position(row * chromaRowStride);
+            u.get(mRowU, 0, rowLength);
+            v.position(row * chromaRowStride);
+            v.get(mRowV, 0, rowLength);
+            for (int col = 0, index = 0; col < chromaWidth; col++, index += chromaPixelStride) {
+                out[offset++] = mRowV[index];
+                out[offset++] = mRowU[index];
+            }
+        }
+    }
+
+}
@@ -28,12 +28,15 @@ import java.util.EnumSet;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
 import com.google.zxing.MultiFormatReader;
 import com.google.zxing.PlanarYUVLuminanceSource;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.HybridBinarizer;
 
+import org.reactnative.barcodescanner.RotatedLuminanceSource;
+
 class RCTCameraViewFinder extends TextureView implements TextureView.SurfaceTextureListener, Camera.PreviewCallback {
     private int _cameraType;
     private int _captureMode;
@@ -332,9 +335,8 @@ class RCTCameraViewFinder extends TextureView implements TextureView.SurfaceText
             this.imageData = imageData;
         }
 
-        private Result getBarcode(int width, int height) {
+        private Result getBarcode(LuminanceSource source) {
             try{
-              PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(imageData, width, height, 0, 0, width, height, false);
               BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
               return _multiFormatReader.decodeWithState(bitmap);
             } catch (Throwable t) {
@@ -350,29 +352,12 @@ class RCTCameraViewFinder extends TextureView implements TextureView.SurfaceText
 
             int width = size.width;
             int height = size.height;
-            Result result = getBarcode(width, height);
+            Result result = getBarcode(new PlanarYUVLuminanceSource(imageData, width, height, 0, 0, width, height, false));
             if (result != null)
               return result;
 
-            rotateImage(width, height);
-            width = size.height;
-            height = size.width;
-
-            return getBarcode(width, height);
-        }
-
-        private void rotateImage(int width, int height) {
-            byte[] rotated = new byte[imageData.length];
-            for (int y = 0; y < width; y++) {
-                for (int x = 0; x < height; x++) {
-                    int sourceIx = x + y * height;
-                    int destIx = x * width + width - y - 1;
-                    if (sourceIx >= 0 && sourceIx < imageData.length && destIx >= 0 && destIx < imageData.length) {
-                        rotated[destIx] = imageData[sourceIx];
-                    }
-                }
-            }
-            imageData = rotated;
+            // rotated view of the luma plane, no copy of the frame
+            return getBarcode(new RotatedLuminanceSource(imageData, width, height, 0, 0, width, height));
         }
 
         @Override
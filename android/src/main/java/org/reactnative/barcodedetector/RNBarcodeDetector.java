@@ -4,72 +4,98 @@ import android.content.Context;
 import android.util.SparseArray;
 import com.google.android.gms.vision.barcode.Barcode;
 import com.google.android.gms.vision.barcode.BarcodeDetector;
-import org.reactnative.camera.utils.ImageDimensions;
+import org.reactnative.camera.utils.DetectorCache;
 import org.reactnative.frame.RNFrame;
 
 public class RNBarcodeDetector {
 
-    private BarcodeDetector mBarcodeDetector = null;
-    private ImageDimensions mPreviousDimensions;
+    // detectors kept for alternating dimensions or barcode types
+    private static final int CACHE_CAPACITY = 3;
+
     private BarcodeDetector.Builder mBuilder;
+    private final DetectorCache<BarcodeDetector> mDetectorCache;
 
     private int mBarcodeType = Barcode.ALL_FORMATS;
+    // set by release(), so that a task still holding this detector does not build a new one
+    private boolean mReleased;
 
     public RNBarcodeDetector(Context context) {
         mBuilder = new BarcodeDetector.Builder(context)
                 .setBarcodeFormats(mBarcodeType);
+        mDetectorCache = new DetectorCache<>(CACHE_CAPACITY, new DetectorCache.Builder<BarcodeDetector>() {
+            @Override
+            public BarcodeDetector build() {
+                return mBuilder.build();
+            }
+
+            @Override
+            public void release(BarcodeDetector detector) {
+                detector.release();
+            }
+        });
     }
 
     // Public API
 
-    public boolean isOperational() {
-        if (mBarcodeDetector == null) {
-            createBarcodeDetector();
+    /**
+     * Asks the most recently used detector. Without one, a detector is built just to answer and
+     * released right away, no frame would ever use it.
+     */
+    public synchronized boolean isOperational() {
+        if (mReleased) {
+            return false;
+        }
+        BarcodeDetector barcodeDetector = mDetectorCache.getMostRecent();
+        if (barcodeDetector != null) {
+            return barcodeDetector.isOperational();
         }
 
-        return mBarcodeDetector.isOperational();
+        BarcodeDetector probe = mBuilder.build();
+        try {
+            return probe.isOperational();
+        } finally {
+            probe.release();
+        }
     }
 
-    public SparseArray<Barcode> detect(RNFrame frame) {
-        // If the frame has different dimensions, create another barcode detector.
-        // Otherwise we will most likely get nasty "inconsistent image dimensions" error from detector
-        // and no barcode will be detected.
-        if (!frame.getDimensions().equals(mPreviousDimensions)) {
-            releaseBarcodeDetector();
-        }
+    /**
+     * Asks the detector that {@link #detect(RNFrame)} uses for the frame, building it if needed.
+     */
+    public synchronized boolean isOperational(RNFrame frame) {
+        return !mReleased && getDetector(frame).isOperational();
+    }
 
-        if (mBarcodeDetector == null) {
-            createBarcodeDetector();
-            mPreviousDimensions = frame.getDimensions();
+    public synchronized SparseArray<Barcode> detect(RNFrame frame) {
+        if (mReleased) {
+            return new SparseArray<>();
         }
-
-        return mBarcodeDetector.detect(frame.getFrame());
+        return getDetector(frame).detect(frame.getFrame());
     }
 
-    public void setBarcodeType(int barcodeType) {
+    public synchronized void setBarcodeType(int barcodeType) {
         if (barcodeType != mBarcodeType) {
-            release();
             mBuilder.setBarcodeFormats(barcodeType);
             mBarcodeType = barcodeType;
         }
     }
 
-
-    public void release() {
-        releaseBarcodeDetector();
-        mPreviousDimensions = null;
+    public long getBuildCount() {
+        return mDetectorCache.getBuildCount();
     }
 
-    // Lifecycle methods
+    public double getBuildTimeMs() {
+        return mDetectorCache.getBuildTimeMs();
+    }
 
-    private void releaseBarcodeDetector() {
-        if (mBarcodeDetector != null) {
-            mBarcodeDetector.release();
-            mBarcodeDetector = null;
-        }
+    public synchronized void release() {
+        mReleased = true;
+        mDetectorCache.clear();
     }
 
-    private void createBarcodeDetector() {
-        mBarcodeDetector = mBuilder.build();
+    private BarcodeDetector getDetector(RNFrame frame) {
+        // A detector only works on frames of the dimensions it first saw, otherwise we will most
+        // likely get nasty "inconsistent image dimensions" errors and no barcode will be detected.
+        // Keep one per dimensions.
+        return mDetectorCache.get(frame.getDimensions(), mBarcodeType);
     }
 }
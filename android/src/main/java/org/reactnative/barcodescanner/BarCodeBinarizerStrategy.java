@@ -0,0 +1,128 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.multi.MultipleBarcodeReader;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how luminance is turned black and white before decoding. One instance per camera view.
+ *
+ * HybridBinarizer thresholds every block of the image locally, which copes with shadows and
+ * glare but is the expensive part of a decode. GlobalHistogramBinarizer uses one threshold for
+ * the whole image and only looks at a few rows for 1D codes. In "auto" mode evenly lit images get
+ * a global pass first and fall back to the hybrid one if it finds nothing; images whose brightness
+ * varies a lot across the frame go straight to the hybrid binarizer.
+ */
+
+public class BarCodeBinarizerStrategy {
+  public static final String MODE_HYBRID = "hybrid";
+  public static final String MODE_GLOBAL = "global";
+  public static final String MODE_AUTO = "auto";
+
+  // sampled rows and cells per row for the lighting estimate
+  private static final int SAMPLE_ROWS = 8;
+  private static final int SAMPLE_COLUMNS = 8;
+  // spread of cell mean luminance above which the frame is considered unevenly lit
+  private static final int UNEVEN_LIGHTING_SPREAD = 96;
+
+  private volatile String mMode = MODE_HYBRID;
+  private final AtomicLong mGlobalDecodeCount = new AtomicLong();
+  private final AtomicLong mHybridDecodeCount = new AtomicLong();
+
+  public void setMode(String mode) {
+    mMode = MODE_GLOBAL.equals(mode) || MODE_AUTO.equals(mode) ? mode : MODE_HYBRID;
+  }
+
+  public Result decode(MultiFormatReader reader, LuminanceSource source) throws NotFoundException {
+    DecodeWorkspace workspace = DecodeWorkspace.get();
+    try {
+      if (tryGlobalFirst(source, workspace)) {
+        try {
+          Result result = reader.decodeWithState(new BinaryBitmap(WorkspaceBinarizer.global(source, workspace)));
+          mGlobalDecodeCount.incrementAndGet();
+          return result;
+        } catch (NotFoundException e) {
+          if (MODE_GLOBAL.equals(mMode)) {
+            throw e;
+          }
+        }
+      }
+      Result result = reader.decodeWithState(new BinaryBitmap(WorkspaceBinarizer.hybrid(source, workspace)));
+      mHybridDecodeCount.incrementAndGet();
+      return result;
+    } finally {
+      workspace.endDecode();
+    }
+  }
+
+  public Result[] decodeMultiple(MultipleBarcodeReader reader, LuminanceSource source,
+                                 Map<DecodeHintType, ?> hints) throws NotFoundException {
+    DecodeWorkspace workspace = DecodeWorkspace.get();
+    try {
+      if (tryGlobalFirst(source, workspace)) {
+        try {
+          Result[] results = reader.decodeMultiple(new BinaryBitmap(WorkspaceBinarizer.global(source, workspace)), hints);
+          mGlobalDecodeCount.incrementAndGet();
+          return results;
+        } catch (NotFoundException e) {
+          if (MODE_GLOBAL.equals(mMode)) {
+            throw e;
+          }
+        }
+      }
+      Result[] results = reader.decodeMultiple(new BinaryBitmap(WorkspaceBinarizer.hybrid(source, workspace)), hints);
+      mHybridDecodeCount.incrementAndGet();
+      return results;
+    } finally {
+      workspace.endDecode();
+    }
+  }
+
+  public long getGlobalDecodeCount() {
+    return mGlobalDecodeCount.get();
+  }
+
+  public long getHybridDecodeCount() {
+    return mHybridDecodeCount.get();
+  }
+
+  private boolean tryGlobalFirst(LuminanceSource source, DecodeWorkspace workspace) {
+    String mode = mMode;
+    return MODE_GLOBAL.equals(mode) || (MODE_AUTO.equals(mode) && !isUnevenlyLit(source, workspace));
+  }
+
+  /**
+   * Compares the mean luminance of a coarse grid of cells, reading a single row per grid row.
+   */
+  static boolean isUnevenlyLit(LuminanceSource source, DecodeWorkspace workspace) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int cellWidth = width / SAMPLE_COLUMNS;
+    if (cellWidth == 0 || height < SAMPLE_ROWS) {
+      return false;
+    }
+    int min = 255;
+    int max = 0;
+    byte[] row = workspace.obtainRow(width);
+    for (int i = 0; i < SAMPLE_ROWS; i++) {
+      row = source.getRow((2 * i + 1) * height / (2 * SAMPLE_ROWS), row);
+      for (int cell = 0; cell < SAMPLE_COLUMNS; cell++) {
+        int sum = 0;
+        for (int x = cell * cellWidth, end = x + cellWidth; x < end; x++) {
+          sum += row[x] & 0xff;
+        }
+        int mean = sum / cellWidth;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+      }
+    }
+    return max - min > UNEVEN_LIGHTING_SPREAD;
+  }
+}
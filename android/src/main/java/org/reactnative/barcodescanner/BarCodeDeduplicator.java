@@ -0,0 +1,124 @@
+package org.reactnative.barcodescanner;
+
+import android.os.SystemClock;
+
+import com.google.zxing.Result;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Suppresses repeated reads of the same barcode, keyed on format and text. A code is new when it
+ * has not been read for the window, so a code held in view is reported once. Position updates for
+ * a code held in view are a separate setting: it is reported again, as a repeat, at most once per
+ * position update interval. Remembers a bounded number of codes, least recently seen first out.
+ */
+
+public class BarCodeDeduplicator {
+  public static final int READ_SUPPRESSED = 0;
+  public static final int READ_NEW = 1;
+  public static final int READ_REPEAT = 2;
+
+  private static final int MAX_ENTRIES = 64;
+
+  /**
+   * Source of the read times, in milliseconds.
+   */
+  interface Clock {
+    long now();
+  }
+
+  private static final Clock ELAPSED_REALTIME = new Clock() {
+    @Override
+    public long now() {
+      return SystemClock.elapsedRealtime();
+    }
+  };
+
+  private static class Entry {
+    long mLastSeen;
+    long mLastEmitted;
+
+    Entry(long now) {
+      mLastSeen = now;
+      mLastEmitted = now;
+    }
+  }
+
+  private final Clock mClock;
+  private long mWindowMs;
+  private long mPositionUpdateIntervalMs;
+  private long mEmittedCount;
+  private long mSuppressedCount;
+
+  // access ordered, so the eldest entry is the least recently seen code
+  private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  public BarCodeDeduplicator() {
+    this(ELAPSED_REALTIME);
+  }
+
+  BarCodeDeduplicator(Clock clock) {
+    mClock = clock;
+  }
+
+  /**
+   * @param windowMs how long a code has to be out of view to be reported as new again, 0 disables
+   *                 de-duplication
+   */
+  public synchronized void setWindowMs(long windowMs) {
+    mWindowMs = Math.max(0, windowMs);
+    mEntries.clear();
+  }
+
+  /**
+   * @param positionUpdateIntervalMs how often a code held in view is reported again, 0 reports it
+   *                                 only once
+   */
+  public synchronized void setPositionUpdateIntervalMs(long positionUpdateIntervalMs) {
+    mPositionUpdateIntervalMs = Math.max(0, positionUpdateIntervalMs);
+  }
+
+  /**
+   * @return {@link #READ_NEW} or {@link #READ_REPEAT} when the read should be reported,
+   * {@link #READ_SUPPRESSED} otherwise
+   */
+  public synchronized int check(Result barCode) {
+    if (mWindowMs <= 0) {
+      mEmittedCount++;
+      return READ_NEW;
+    }
+    String key = barCode.getBarcodeFormat() + ":" + barCode.getText();
+    long now = mClock.now();
+    Entry entry = mEntries.get(key);
+    if (entry == null || now - entry.mLastSeen >= mWindowMs) {
+      mEntries.put(key, new Entry(now));
+      mEmittedCount++;
+      return READ_NEW;
+    }
+    entry.mLastSeen = now;
+    if (mPositionUpdateIntervalMs > 0 && now - entry.mLastEmitted >= mPositionUpdateIntervalMs) {
+      entry.mLastEmitted = now;
+      mEmittedCount++;
+      return READ_REPEAT;
+    }
+    mSuppressedCount++;
+    return READ_SUPPRESSED;
+  }
+
+  /**
+   * @return the number of codes reported, a multi barcode event counts every code it carries
+   */
+  public synchronized long getEmittedCount() {
+    return mEmittedCount;
+  }
+
+  public synchronized long getSuppressedCount() {
+    return mSuppressedCount;
+  }
+}
@@ -0,0 +1,102 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Result;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the ZXing reader for each frame. One instance per set of requested formats.
+ *
+ * By default every frame is decoded with all requested formats. With a full scan interval of N,
+ * the formats that have decoded so far are learned, and frames are decoded with only those,
+ * except for every Nth frame which still tries every requested format. A miss on a frame then
+ * costs a handful of readers instead of every 1D and 2D reader.
+ */
+
+public class BarCodeFormatSelector {
+  private final Set<BarcodeFormat> mFormats;
+  private final Selection mFullSelection;
+  private final EnumSet<BarcodeFormat> mHotFormats = EnumSet.noneOf(BarcodeFormat.class);
+  private Selection mHotSelection;
+  private int mFullScanInterval;
+  private int mFrameCount;
+  private long mFullScanCount;
+  private long mNarrowScanCount;
+
+  /**
+   * @param formats the requested formats, ZXing reads every format when empty
+   */
+  public BarCodeFormatSelector(Set<BarcodeFormat> formats) {
+    mFormats = formats.isEmpty() ? EnumSet.allOf(BarcodeFormat.class) : formats;
+    mFullSelection = new Selection(formats);
+  }
+
+  /**
+   * @param fullScanInterval decode every Nth frame with all formats, 1 or less to always do so
+   */
+  public synchronized void setFullScanInterval(int fullScanInterval) {
+    mFullScanInterval = fullScanInterval;
+    mFrameCount = 0;
+  }
+
+  /**
+   * @return the reader and hints to decode the next frame with
+   */
+  public synchronized Selection next() {
+    mFrameCount++;
+    if (mFullScanInterval > 1 && mHotSelection != null && mFrameCount % mFullScanInterval != 0) {
+      mNarrowScanCount++;
+      return mHotSelection;
+    }
+    mFullScanCount++;
+    return mFullSelection;
+  }
+
+  public synchronized void onDecoded(Collection<Result> results) {
+    boolean changed = false;
+    for (Result result : results) {
+      changed |= mHotFormats.add(result.getBarcodeFormat());
+    }
+    if (changed) {
+      // once every format has shown up there is nothing left to narrow
+      mHotSelection = mHotFormats.containsAll(mFormats) ? null : new Selection(EnumSet.copyOf(mHotFormats));
+    }
+  }
+
+  public synchronized long getFullScanCount() {
+    return mFullScanCount;
+  }
+
+  public synchronized long getNarrowScanCount() {
+    return mNarrowScanCount;
+  }
+
+  /**
+   * A reader for a set of formats. The reader keeps state between calls, so a selection must
+   * not be used by two decodes at once.
+   */
+  public static class Selection {
+    private final Map<DecodeHintType, Object> mHints = new EnumMap<>(DecodeHintType.class);
+    private final MultiFormatReader mReader = new MultiFormatReader();
+
+    private Selection(Set<BarcodeFormat> formats) {
+      mHints.put(DecodeHintType.POSSIBLE_FORMATS, formats);
+      mReader.setHints(mHints);
+    }
+
+    public MultiFormatReader getReader() {
+      return mReader;
+    }
+
+    public Map<DecodeHintType, Object> getHints() {
+      return mHints;
+    }
+  }
+}
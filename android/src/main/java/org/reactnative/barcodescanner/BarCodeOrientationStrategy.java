@@ -0,0 +1,88 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+
+/**
+ * Decides which frame orientations the ZXing scanner tries on each frame. One instance per
+ * camera view, since it keeps state across consecutive frames.
+ *
+ * In "both" mode every frame is decoded normally and, failing that, rotated. In "alternate" mode
+ * consecutive frames take turns, halving the cost of frames without a barcode; once a code
+ * decodes, its orientation is kept until it misses again.
+ */
+
+public class BarCodeOrientationStrategy {
+  public static final int ORIENTATION_NORMAL = 0;
+  public static final int ORIENTATION_ROTATED = 1;
+
+  public static final String MODE_BOTH = "both";
+  public static final String MODE_ALTERNATE = "alternate";
+
+  private static final int NONE = -1;
+
+  private boolean mAlternate;
+  private int mPreferred = NONE;
+  private int mNext = ORIENTATION_NORMAL;
+
+  public synchronized void setMode(String mode) {
+    mAlternate = MODE_ALTERNATE.equals(mode);
+    mPreferred = NONE;
+    mNext = ORIENTATION_NORMAL;
+  }
+
+  /**
+   * @return the orientations to try on the next frame, in order.
+   */
+  public synchronized int[] nextOrientations() {
+    if (!mAlternate) {
+      // try whatever decoded last time first
+      return mPreferred == ORIENTATION_ROTATED
+          ? new int[]{ORIENTATION_ROTATED, ORIENTATION_NORMAL}
+          : new int[]{ORIENTATION_NORMAL, ORIENTATION_ROTATED};
+    }
+    if (mPreferred != NONE) {
+      return new int[]{mPreferred};
+    }
+    int orientation = mNext;
+    mNext = other(orientation);
+    return new int[]{orientation};
+  }
+
+  public synchronized void onDecodeFinished(int orientation, boolean found) {
+    if (found) {
+      mPreferred = orientation;
+    } else if (mPreferred == orientation) {
+      // lost it, go back to alternating and try the other orientation on the next frame
+      mPreferred = NONE;
+      mNext = other(orientation);
+    }
+  }
+
+  /**
+   * Converts the points of a result decoded from the region (left, top, width, height) of a frame
+   * in the given orientation into frame coordinates, in place.
+   */
+  public static Result toFramePoints(Result result, int orientation, int left, int top, int height) {
+    ResultPoint[] points = result.getResultPoints();
+    if (points == null) {
+      return result;
+    }
+    for (int i = 0; i < points.length; i++) {
+      if (points[i] == null) {
+        continue;
+      }
+      if (orientation == ORIENTATION_ROTATED) {
+        // the rotated region is height wide, frame (x, y) lands on (top + height - 1 - y, x - left)
+        points[i] = new ResultPoint(left + points[i].getY(), top + height - 1 - points[i].getX());
+      } else {
+        points[i] = new ResultPoint(left + points[i].getX(), top + points[i].getY());
+      }
+    }
+    return result;
+  }
+
+  private static int other(int orientation) {
+    return orientation == ORIENTATION_NORMAL ? ORIENTATION_ROTATED : ORIENTATION_NORMAL;
+  }
+}
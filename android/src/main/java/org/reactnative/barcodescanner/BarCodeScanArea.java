@@ -0,0 +1,67 @@
+package org.reactnative.barcodescanner;
+
+import com.facebook.react.bridge.ReadableMap;
+
+/**
+ * Area of the camera view to scan for bar codes, normalized to [0, 1] in view coordinates.
+ */
+
+public class BarCodeScanArea {
+  private final float mLeft;
+  private final float mTop;
+  private final float mRight;
+  private final float mBottom;
+
+  public BarCodeScanArea(float x, float y, float width, float height) {
+    mLeft = clamp(x);
+    mTop = clamp(y);
+    mRight = clamp(x + width);
+    mBottom = clamp(y + height);
+  }
+
+  /**
+   * @return the area described by the map's {@code x}, {@code y}, {@code width} and {@code height},
+   * or {@code null} if the map is {@code null}.
+   */
+  public static BarCodeScanArea fromMap(ReadableMap map) {
+    if (map == null) {
+      return null;
+    }
+    float x = map.hasKey("x") ? (float) map.getDouble("x") : 0;
+    float y = map.hasKey("y") ? (float) map.getDouble("y") : 0;
+    float width = map.hasKey("width") ? (float) map.getDouble("width") : 1;
+    float height = map.hasKey("height") ? (float) map.getDouble("height") : 1;
+    return new BarCodeScanArea(x, y, width, height);
+  }
+
+  /**
+   * Maps the area onto a preview frame.
+   *
+   * @param transform  maps the frame into the camera view
+   * @param viewWidth  width of the camera view, in pixels
+   * @param viewHeight height of the camera view, in pixels
+   * @return the region of the frame, or {@code null} if the area is not visible in the preview
+   */
+  public FrameRegion toFrameRegion(FrameTransform transform, int viewWidth, int viewHeight) {
+    if (viewWidth <= 0 || viewHeight <= 0) {
+      return null;
+    }
+    int frameWidth = transform.getFrameWidth();
+    int frameHeight = transform.getFrameHeight();
+    float[] topLeft = transform.viewToFrame(mLeft * viewWidth, mTop * viewHeight);
+    float[] bottomRight = transform.viewToFrame(mRight * viewWidth, mBottom * viewHeight);
+
+    int left = (int) Math.floor(clamp(Math.min(topLeft[0], bottomRight[0])) * frameWidth);
+    int top = (int) Math.floor(clamp(Math.min(topLeft[1], bottomRight[1])) * frameHeight);
+    int right = (int) Math.ceil(clamp(Math.max(topLeft[0], bottomRight[0])) * frameWidth);
+    int bottom = (int) Math.ceil(clamp(Math.max(topLeft[1], bottomRight[1])) * frameHeight);
+    if (right - left < 1 || bottom - top < 1) {
+      return null;
+    }
+    return new FrameRegion(left, top, right - left, bottom - top);
+  }
+
+  private static float clamp(float value) {
+    return Math.max(0, Math.min(1, value));
+  }
+}
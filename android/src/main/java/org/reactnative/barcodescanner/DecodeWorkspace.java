@@ -0,0 +1,125 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Buffers reused by the ZXing decodes of one thread, so that scanning a stream of frames of the
+ * same size does not allocate a luminance matrix, a bit matrix and threshold tables per frame.
+ * Everything handed out is only valid until the next frame is decoded on the same thread.
+ */
+
+public class DecodeWorkspace {
+  private static final ThreadLocal<DecodeWorkspace> sWorkspaces = new ThreadLocal<DecodeWorkspace>() {
+    @Override
+    protected DecodeWorkspace initialValue() {
+      return new DecodeWorkspace();
+    }
+  };
+
+  private byte[] mLuminances = new byte[0];
+  private byte[] mRow = new byte[0];
+  private int[] mBlackPoints = new int[0];
+  private final int[] mBuckets = new int[WorkspaceBinarizer.LUMINANCE_BUCKETS];
+  // two bit matrices, since tiled scanning alternates between region and tile sizes
+  private BitMatrix mMatrix;
+  private BitMatrix mPreviousMatrix;
+  // source whose getMatrix() does not allocate, only set while a frame is decoded
+  private LuminanceSource mFrameSource;
+
+  private DecodeWorkspace() {
+  }
+
+  public static DecodeWorkspace get() {
+    return sWorkspaces.get();
+  }
+
+  /**
+   * Creates a source for the region (left, top, width, height) of the luminance plane of a frame
+   * in the given orientation.
+   */
+  public LuminanceSource createSource(byte[] data, int dataWidth, int dataHeight,
+                                      int left, int top, int width, int height, int orientation) {
+    LuminanceSource source;
+    if (orientation == BarCodeOrientationStrategy.ORIENTATION_ROTATED) {
+      source = new RotatedLuminanceSource(data, dataWidth, dataHeight, left, top, width, height,
+          obtainLuminances(width * height));
+      mFrameSource = source;
+    } else {
+      source = new PlanarYUVLuminanceSource(data, dataWidth, dataHeight, left, top, width, height, false);
+      // an uncropped planar source hands out the frame itself, a cropped one copies
+      mFrameSource = width == dataWidth && height == dataHeight ? source : null;
+    }
+    return source;
+  }
+
+  /**
+   * Forgets the source of the decoded frame. The workspace outlives the frame on its thread and
+   * would otherwise keep the frame's memory alive until the next decode.
+   */
+  void endDecode() {
+    mFrameSource = null;
+  }
+
+  /**
+   * @return the luminance of the whole source, row by row
+   */
+  byte[] getLuminances(LuminanceSource source) {
+    if (source == mFrameSource) {
+      return source.getMatrix();
+    }
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = obtainLuminances(width * height);
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(source.getRow(y, obtainRow(width)), 0, luminances, y * width, width);
+    }
+    return luminances;
+  }
+
+  byte[] obtainRow(int width) {
+    if (mRow.length < width) {
+      mRow = new byte[width];
+    }
+    return mRow;
+  }
+
+  int[] obtainBuckets() {
+    Arrays.fill(mBuckets, 0);
+    return mBuckets;
+  }
+
+  int[] obtainBlackPoints(int size) {
+    if (mBlackPoints.length < size) {
+      mBlackPoints = new int[size];
+    }
+    return mBlackPoints;
+  }
+
+  /**
+   * @return a cleared matrix of the given size
+   */
+  BitMatrix obtainMatrix(int width, int height) {
+    if (!fits(mMatrix, width, height)) {
+      BitMatrix previous = mPreviousMatrix;
+      mPreviousMatrix = mMatrix;
+      mMatrix = fits(previous, width, height) ? previous : new BitMatrix(width, height);
+    }
+    mMatrix.clear();
+    return mMatrix;
+  }
+
+  private byte[] obtainLuminances(int size) {
+    if (mLuminances.length < size) {
+      mLuminances = new byte[size];
+    }
+    return mLuminances;
+  }
+
+  private static boolean fits(BitMatrix matrix, int width, int height) {
+    return matrix != null && matrix.getWidth() == width && matrix.getHeight() == height;
+  }
+}
@@ -0,0 +1,35 @@
+package org.reactnative.barcodescanner;
+
+/**
+ * Rectangle of a preview frame, in frame pixels, that corresponds to a {@link BarCodeScanArea}.
+ */
+
+public class FrameRegion {
+  private final int mLeft;
+  private final int mTop;
+  private final int mWidth;
+  private final int mHeight;
+
+  FrameRegion(int left, int top, int width, int height) {
+    mLeft = left;
+    mTop = top;
+    mWidth = width;
+    mHeight = height;
+  }
+
+  public int getLeft() {
+    return mLeft;
+  }
+
+  public int getTop() {
+    return mTop;
+  }
+
+  public int getWidth() {
+    return mWidth;
+  }
+
+  public int getHeight() {
+    return mHeight;
+  }
+}
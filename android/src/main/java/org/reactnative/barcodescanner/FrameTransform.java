@@ -0,0 +1,100 @@
+package org.reactnative.barcodescanner;
+
+import android.graphics.Rect;
+
+import com.google.zxing.ResultPoint;
+
+/**
+ * Maps between preview frame pixels and camera view coordinates. Frames are rotated clockwise by
+ * the rotation to become upright, then mirrored if needed, then scaled into the preview bounds.
+ */
+
+public class FrameTransform {
+  private final int mFrameWidth;
+  private final int mFrameHeight;
+  private final int mRotation;
+  private final boolean mMirrored;
+  private final Rect mPreviewRect;
+  private final float mDensity;
+
+  /**
+   * @param frameWidth  width of the frame, as delivered by the camera
+   * @param frameHeight height of the frame, as delivered by the camera
+   * @param rotation    clockwise rotation that makes the frame upright, in degrees
+   * @param mirrored    whether the preview is shown mirrored, as for the front camera
+   * @param previewRect bounds of the preview inside the camera view, in pixels; the preview may
+   *                    extend past the view, which then only shows its center
+   * @param density     display density, used to report points in dp
+   */
+  public FrameTransform(int frameWidth, int frameHeight, int rotation, boolean mirrored, Rect previewRect,
+                        float density) {
+    mFrameWidth = frameWidth;
+    mFrameHeight = frameHeight;
+    mRotation = ((rotation % 360) + 360) % 360;
+    mMirrored = mirrored;
+    mPreviewRect = new Rect(previewRect);
+    mDensity = density;
+  }
+
+  public int getFrameWidth() {
+    return mFrameWidth;
+  }
+
+  public int getFrameHeight() {
+    return mFrameHeight;
+  }
+
+  /**
+   * @return the normalized frame coordinates of a point given in view pixels.
+   */
+  float[] viewToFrame(float viewX, float viewY) {
+    float u = (viewX - mPreviewRect.left) / mPreviewRect.width();
+    float v = (viewY - mPreviewRect.top) / mPreviewRect.height();
+    if (mMirrored) {
+      u = 1 - u;
+    }
+    switch (mRotation) {
+      case 90:
+        return new float[]{v, 1 - u};
+      case 180:
+        return new float[]{1 - u, 1 - v};
+      case 270:
+        return new float[]{1 - v, u};
+      default:
+        return new float[]{u, v};
+    }
+  }
+
+  /**
+   * @return the point given in frame pixels, in dp relative to the camera view.
+   */
+  public ResultPoint frameToView(float frameX, float frameY) {
+    float x = frameX / mFrameWidth;
+    float y = frameY / mFrameHeight;
+    float u;
+    float v;
+    switch (mRotation) {
+      case 90:
+        u = 1 - y;
+        v = x;
+        break;
+      case 180:
+        u = 1 - x;
+        v = 1 - y;
+        break;
+      case 270:
+        u = y;
+        v = 1 - x;
+        break;
+      default:
+        u = x;
+        v = y;
+    }
+    if (mMirrored) {
+      u = 1 - u;
+    }
+    float viewX = mPreviewRect.left + u * mPreviewRect.width();
+    float viewY = mPreviewRect.top + v * mPreviewRect.height();
+    return new ResultPoint(viewX / mDensity, viewY / mDensity);
+  }
+}
@@ -0,0 +1,146 @@
+package org.reactnative.barcodescanner;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+
+import org.reactnative.camera.utils.SampledImage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the barcodes in image files. Images are decoded downsampled so that their longer side
+ * does not exceed a maximum size, and only their luminance is kept for ZXing. Safe to use from
+ * several threads at once, each thread using its own reader.
+ */
+
+public class ImageBarCodeScanner {
+  private final Context mContext;
+  private final Map<DecodeHintType, Object> mHints = new EnumMap<>(DecodeHintType.class);
+  private final int mMaxImageSize;
+  private final BarCodeBinarizerStrategy mBinarizerStrategy = new BarCodeBinarizerStrategy();
+  private final ThreadLocal<MultiFormatReader> mReaders = new ThreadLocal<MultiFormatReader>() {
+    @Override
+    protected MultiFormatReader initialValue() {
+      return new MultiFormatReader();
+    }
+  };
+
+  /**
+   * @param formats the formats to look for, every format when empty
+   * @param tryHarder spend more time per image, see {@link DecodeHintType#TRY_HARDER}
+   */
+  public ImageBarCodeScanner(Context context, Set<BarcodeFormat> formats,
+                             boolean tryHarder, int maxImageSize) {
+    mContext = context;
+    mMaxImageSize = maxImageSize;
+    if (!formats.isEmpty()) {
+      mHints.put(DecodeHintType.POSSIBLE_FORMATS, formats);
+    }
+    if (tryHarder) {
+      mHints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Decodes the image at uri, a content or file URI or a plain path.
+   */
+  public SampledImage load(String uri) throws IOException {
+    // colour is thrown away anyway, half the memory of ARGB_8888
+    return SampledImage.load(mContext, uri, mMaxImageSize, Bitmap.Config.RGB_565);
+  }
+
+  /**
+   * @return the distinct barcodes of the image, with points in pixels of the original image
+   */
+  public List<Result> scan(SampledImage image) {
+    Bitmap bitmap = image.getBitmap();
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    byte[] luminances = toLuminances(bitmap);
+
+    // 2D codes decode in any orientation, 1D codes only across their bars
+    List<Result> results = decode(luminances, width, height, BarCodeOrientationStrategy.ORIENTATION_NORMAL);
+    if (results.isEmpty()) {
+      results = decode(luminances, width, height, BarCodeOrientationStrategy.ORIENTATION_ROTATED);
+    }
+
+    float scale = image.getScale();
+    List<Result> scaled = new ArrayList<>(results.size());
+    for (Result result : results) {
+      scaled.add(scale(result, scale));
+    }
+    return scaled;
+  }
+
+  private List<Result> decode(byte[] luminances, int width, int height, int orientation) {
+    LuminanceSource source = DecodeWorkspace.get()
+        .createSource(luminances, width, height, 0, 0, width, height, orientation);
+    MultiFormatReader reader = mReaders.get();
+    try {
+      Result[] decoded = mBinarizerStrategy.decodeMultiple(new GenericMultipleBarcodeReader(reader), source, mHints);
+      Map<String, Result> results = new LinkedHashMap<>();
+      for (Result result : decoded) {
+        String key = result.getBarcodeFormat() + ":" + result.getText();
+        if (!results.containsKey(key)) {
+          results.put(key, BarCodeOrientationStrategy.toFramePoints(result, orientation, 0, 0, height));
+        }
+      }
+      return new ArrayList<>(results.values());
+    } catch (NotFoundException e) {
+      return Collections.emptyList();
+    } finally {
+      reader.reset();
+    }
+  }
+
+  /**
+   * Luminance as (r + 2g + b) / 4, the same weighting as ZXing's RGBLuminanceSource, read one row
+   * at a time so the pixels are never held as an int array.
+   */
+  private static byte[] toLuminances(Bitmap bitmap) {
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    byte[] luminances = new byte[width * height];
+    int[] row = new int[width];
+    for (int y = 0, offset = 0; y < height; y++, offset += width) {
+      bitmap.getPixels(row, 0, width, 0, y, width, 1);
+      for (int x = 0; x < width; x++) {
+        int pixel = row[x];
+        int r = (pixel >> 16) & 0xff;
+        int g2 = (pixel >> 7) & 0x1fe;
+        int b = pixel & 0xff;
+        luminances[offset + x] = (byte) ((r + g2 + b) / 4);
+      }
+    }
+    return luminances;
+  }
+
+  private static Result scale(Result result, float scale) {
+    ResultPoint[] points = result.getResultPoints();
+    if (scale == 1f || points == null) {
+      return result;
+    }
+    for (int i = 0; i < points.length; i++) {
+      if (points[i] != null) {
+        points[i] = new ResultPoint(points[i].getX() * scale, points[i].getY() * scale);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,139 @@
+package org.reactnative.barcodescanner;
+
+import android.util.Log;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Finds every barcode in a frame. The region is decoded as a whole and as a grid of overlapping
+ * tiles, so that small codes are found as well; tiles are decoded in parallel, each worker thread
+ * using its own reader. Codes found more than once are reported once.
+ */
+
+public class MultiBarCodeScanner {
+  private static final String TAG = "MultiBarCodeScanner";
+  private static final int TILE_ROWS = 2;
+  private static final int TILE_COLUMNS = 2;
+  // fraction of a tile shared with its neighbour, so codes on tile borders are still whole in one tile
+  private static final float TILE_OVERLAP = 0.25f;
+
+  // readers are reset after every decode, so the worker threads share theirs between scanners
+  private static final ThreadLocal<MultiFormatReader> READERS = new ThreadLocal<MultiFormatReader>() {
+    @Override
+    protected MultiFormatReader initialValue() {
+      return new MultiFormatReader();
+    }
+  };
+
+  private final ExecutorService mExecutor;
+  private final BarCodeBinarizerStrategy mBinarizerStrategy;
+
+  public MultiBarCodeScanner(ExecutorService executor, BarCodeBinarizerStrategy binarizerStrategy) {
+    mExecutor = executor;
+    mBinarizerStrategy = binarizerStrategy;
+  }
+
+  /**
+   * Decodes the region (left, top, width, height) of the frame in the given orientation, looking
+   * for the formats in hints.
+   *
+   * @return the distinct results, with points in frame coordinates
+   */
+  public List<Result> decode(byte[] data, int dataWidth, int dataHeight,
+                             int left, int top, int width, int height, int orientation,
+                             Map<DecodeHintType, ?> hints) {
+    List<Callable<List<Result>>> tasks = new ArrayList<>();
+    tasks.add(new TileTask(data, dataWidth, dataHeight, left, top, width, height, orientation, hints));
+
+    int tileWidth = (int) Math.ceil(width / (TILE_COLUMNS - (TILE_COLUMNS - 1) * TILE_OVERLAP));
+    int tileHeight = (int) Math.ceil(height / (TILE_ROWS - (TILE_ROWS - 1) * TILE_OVERLAP));
+    int stepX = (int) (tileWidth * (1 - TILE_OVERLAP));
+    int stepY = (int) (tileHeight * (1 - TILE_OVERLAP));
+    for (int row = 0; row < TILE_ROWS; row++) {
+      for (int column = 0; column < TILE_COLUMNS; column++) {
+        int tileLeft = Math.min(left + column * stepX, left + width - tileWidth);
+        int tileTop = Math.min(top + row * stepY, top + height - tileHeight);
+        tasks.add(new TileTask(data, dataWidth, dataHeight, tileLeft, tileTop, tileWidth, tileHeight, orientation, hints));
+      }
+    }
+
+    Map<String, Result> results = new LinkedHashMap<>();
+    try {
+      for (Future<List<Result>> future : mExecutor.invokeAll(tasks)) {
+        try {
+          for (Result result : future.get()) {
+            String key = result.getBarcodeFormat() + ":" + result.getText();
+            if (!results.containsKey(key)) {
+              results.put(key, result);
+            }
+          }
+        } catch (ExecutionException e) {
+          Log.w(TAG, "Decoding a tile failed.", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return new ArrayList<>(results.values());
+  }
+
+  private class TileTask implements Callable<List<Result>> {
+    private final byte[] mData;
+    private final int mDataWidth;
+    private final int mDataHeight;
+    private final int mLeft;
+    private final int mTop;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mOrientation;
+    private final Map<DecodeHintType, ?> mHints;
+
+    TileTask(byte[] data, int dataWidth, int dataHeight, int left, int top, int width, int height, int orientation,
+             Map<DecodeHintType, ?> hints) {
+      mData = data;
+      mDataWidth = dataWidth;
+      mDataHeight = dataHeight;
+      mLeft = left;
+      mTop = top;
+      mWidth = width;
+      mHeight = height;
+      mOrientation = orientation;
+      mHints = hints;
+    }
+
+    @Override
+    public List<Result> call() {
+      LuminanceSource source = DecodeWorkspace.get()
+          .createSource(mData, mDataWidth, mDataHeight, mLeft, mTop, mWidth, mHeight, mOrientation);
+      MultiFormatReader reader = READERS.get();
+      try {
+        // decodeMultiple hands the hints to the reader on every call, passing none would clear them
+        Result[] decoded = mBinarizerStrategy.decodeMultiple(new GenericMultipleBarcodeReader(reader), source, mHints);
+        List<Result> results = new ArrayList<>(decoded.length);
+        for (Result result : decoded) {
+          results.add(BarCodeOrientationStrategy.toFramePoints(result, mOrientation, mLeft, mTop, mHeight));
+        }
+        return results;
+      } catch (NotFoundException e) {
+        return Collections.emptyList();
+      } finally {
+        reader.reset();
+      }
+    }
+  }
+}
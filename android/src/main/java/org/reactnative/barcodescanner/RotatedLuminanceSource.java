@@ -0,0 +1,101 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+
+/**
+ * Presents a region of the luminance plane of a YUV frame rotated by 90 degrees clockwise,
+ * without copying the frame. Rows are read through index arithmetic; the full matrix is produced
+ * by a tiled transpose, optionally into a caller supplied buffer.
+ *
+ * The frame point (x, y) of the region appears at ({@code regionHeight - 1 - (y - top)},
+ * {@code x - left}) in this source.
+ */
+
+public class RotatedLuminanceSource extends LuminanceSource {
+  // square tiles keep both the reads and the strided writes of the transpose within cache lines
+  private static final int TILE_SIZE = 32;
+
+  private final byte[] mYuvData;
+  private final int mDataWidth;
+  private final int mDataHeight;
+  private final int mLeft;
+  private final int mTop;
+  private final int mRegionWidth;
+  private final int mRegionHeight;
+  private final byte[] mMatrixBuffer;
+
+  public RotatedLuminanceSource(byte[] yuvData, int dataWidth, int dataHeight,
+                                int left, int top, int width, int height) {
+    this(yuvData, dataWidth, dataHeight, left, top, width, height, null);
+  }
+
+  /**
+   * @param matrixBuffer reused for {@link #getMatrix()} if it holds at least width * height bytes
+   */
+  public RotatedLuminanceSource(byte[] yuvData, int dataWidth, int dataHeight,
+                                int left, int top, int width, int height, byte[] matrixBuffer) {
+    super(height, width);
+    if (left + width > dataWidth || top + height > dataHeight) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+    }
+    mYuvData = yuvData;
+    mDataWidth = dataWidth;
+    mDataHeight = dataHeight;
+    mLeft = left;
+    mTop = top;
+    mRegionWidth = width;
+    mRegionHeight = height;
+    mMatrixBuffer = matrixBuffer;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    // rotated row y is frame column left + y, read bottom to top
+    int offset = (mTop + mRegionHeight - 1) * mDataWidth + mLeft + y;
+    for (int x = 0; x < width; x++) {
+      row[x] = mYuvData[offset];
+      offset -= mDataWidth;
+    }
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int area = width * getHeight();
+    byte[] matrix = mMatrixBuffer != null && mMatrixBuffer.length >= area ? mMatrixBuffer : new byte[area];
+    for (int tileTop = 0; tileTop < mRegionHeight; tileTop += TILE_SIZE) {
+      int tileBottom = Math.min(tileTop + TILE_SIZE, mRegionHeight);
+      for (int tileLeft = 0; tileLeft < mRegionWidth; tileLeft += TILE_SIZE) {
+        int tileRight = Math.min(tileLeft + TILE_SIZE, mRegionWidth);
+        for (int y = tileTop; y < tileBottom; y++) {
+          int inputOffset = (mTop + y) * mDataWidth + mLeft;
+          int outputColumn = mRegionHeight - 1 - y;
+          for (int x = tileLeft; x < tileRight; x++) {
+            matrix[x * width + outputColumn] = mYuvData[inputOffset + x];
+          }
+        }
+      }
+    }
+    return matrix;
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return true;
+  }
+
+  @Override
+  public LuminanceSource crop(int left, int top, int width, int height) {
+    // (left, top) in this source is frame (mLeft + top, mTop + mRegionHeight - 1 - left)
+    return new RotatedLuminanceSource(mYuvData, mDataWidth, mDataHeight,
+        mLeft + top, mTop + mRegionHeight - left - width, height, width);
+  }
+}
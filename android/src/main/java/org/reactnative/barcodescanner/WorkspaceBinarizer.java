@@ -0,0 +1,270 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+
+/**
+ * ZXing's HybridBinarizer and GlobalHistogramBinarizer thresholding, computed into the buffers of
+ * a {@link DecodeWorkspace} instead of freshly allocated ones. Produces the same bits as the
+ * ZXing binarizers. Row access for 1D readers is inherited unchanged.
+ */
+
+public class WorkspaceBinarizer extends GlobalHistogramBinarizer {
+  static final int LUMINANCE_BITS = 5;
+  static final int LUMINANCE_SHIFT = 8 - LUMINANCE_BITS;
+  static final int LUMINANCE_BUCKETS = 1 << LUMINANCE_BITS;
+
+  private static final int BLOCK_SIZE_POWER = 3;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER;
+  private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;
+  private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+  private static final int MIN_DYNAMIC_RANGE = 24;
+
+  private final DecodeWorkspace mWorkspace;
+  private final boolean mHybrid;
+  private BitMatrix mMatrix;
+
+  private WorkspaceBinarizer(LuminanceSource source, DecodeWorkspace workspace, boolean hybrid) {
+    super(source);
+    mWorkspace = workspace;
+    mHybrid = hybrid;
+  }
+
+  public static WorkspaceBinarizer hybrid(LuminanceSource source, DecodeWorkspace workspace) {
+    return new WorkspaceBinarizer(source, workspace, true);
+  }
+
+  public static WorkspaceBinarizer global(LuminanceSource source, DecodeWorkspace workspace) {
+    return new WorkspaceBinarizer(source, workspace, false);
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() throws NotFoundException {
+    if (mMatrix == null) {
+      LuminanceSource source = getLuminanceSource();
+      if (mHybrid && source.getWidth() >= MINIMUM_DIMENSION && source.getHeight() >= MINIMUM_DIMENSION) {
+        mMatrix = hybridMatrix(source);
+      } else {
+        mMatrix = globalMatrix(source);
+      }
+    }
+    return mMatrix;
+  }
+
+  /**
+   * Cropped images, as decoded by the multiple barcode reader, get a regular binarizer: they must
+   * not share the workspace matrix with the image they were cropped from.
+   */
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return mHybrid ? new HybridBinarizer(source) : new GlobalHistogramBinarizer(source);
+  }
+
+  private BitMatrix globalMatrix(LuminanceSource source) throws NotFoundException {
+    int width = source.getWidth();
+    int height = source.getHeight();
+
+    // histogram of four sampled rows
+    int[] buckets = mWorkspace.obtainBuckets();
+    byte[] row = mWorkspace.obtainRow(width);
+    for (int y = 1; y < 5; y++) {
+      row = source.getRow(height * y / 5, row);
+      int right = (width * 4) / 5;
+      for (int x = width / 5; x < right; x++) {
+        buckets[(row[x] & 0xff) >> LUMINANCE_SHIFT]++;
+      }
+    }
+    int blackPoint = estimateBlackPoint(buckets);
+
+    byte[] luminances = mWorkspace.getLuminances(source);
+    BitMatrix matrix = mWorkspace.obtainMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        if ((luminances[offset + x] & 0xff) < blackPoint) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
+  private BitMatrix hybridMatrix(LuminanceSource source) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = mWorkspace.getLuminances(source);
+    int subWidth = width >> BLOCK_SIZE_POWER;
+    if ((width & BLOCK_SIZE_MASK) != 0) {
+      subWidth++;
+    }
+    int subHeight = height >> BLOCK_SIZE_POWER;
+    if ((height & BLOCK_SIZE_MASK) != 0) {
+      subHeight++;
+    }
+    int[] blackPoints = mWorkspace.obtainBlackPoints(subWidth * subHeight);
+    calculateBlackPoints(luminances, subWidth, subHeight, width, height, blackPoints);
+    BitMatrix matrix = mWorkspace.obtainMatrix(width, height);
+    calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, matrix);
+    return matrix;
+  }
+
+  private static int estimateBlackPoint(int[] buckets) throws NotFoundException {
+    // tallest peak
+    int numBuckets = buckets.length;
+    int maxBucketCount = 0;
+    int firstPeak = 0;
+    int firstPeakSize = 0;
+    for (int x = 0; x < numBuckets; x++) {
+      if (buckets[x] > firstPeakSize) {
+        firstPeak = x;
+        firstPeakSize = buckets[x];
+      }
+      if (buckets[x] > maxBucketCount) {
+        maxBucketCount = buckets[x];
+      }
+    }
+
+    // second tallest peak, favouring distant ones
+    int secondPeak = 0;
+    int secondPeakScore = 0;
+    for (int x = 0; x < numBuckets; x++) {
+      int distanceToBiggest = x - firstPeak;
+      int score = buckets[x] * distanceToBiggest * distanceToBiggest;
+      if (score > secondPeakScore) {
+        secondPeak = x;
+        secondPeakScore = score;
+      }
+    }
+
+    if (firstPeak > secondPeak) {
+      int temp = firstPeak;
+      firstPeak = secondPeak;
+      secondPeak = temp;
+    }
+
+    // too little contrast to pick a meaningful black point
+    if (secondPeak - firstPeak <= numBuckets / 16) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+
+    // a low valley between the peaks, closer to the white one
+    int bestValley = secondPeak - 1;
+    int bestValleyScore = -1;
+    for (int x = secondPeak - 1; x > firstPeak; x--) {
+      int fromFirst = x - firstPeak;
+      int score = fromFirst * fromFirst * (secondPeak - x) * (maxBucketCount - buckets[x]);
+      if (score > bestValleyScore) {
+        bestValley = x;
+        bestValleyScore = score;
+      }
+    }
+    return bestValley << LUMINANCE_SHIFT;
+  }
+
+  private static void calculateThresholdForBlock(byte[] luminances, int subWidth, int subHeight,
+                                                 int width, int height, int[] blackPoints, BitMatrix matrix) {
+    int maxYOffset = height - BLOCK_SIZE;
+    int maxXOffset = width - BLOCK_SIZE;
+    for (int y = 0; y < subHeight; y++) {
+      int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+      int top = cap(y, 2, subHeight - 3);
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+        int left = cap(x, 2, subWidth - 3);
+        // average of the 5x5 blocks around this one
+        int sum = 0;
+        for (int z = -2; z <= 2; z++) {
+          int offset = (top + z) * subWidth + left;
+          sum += blackPoints[offset - 2] + blackPoints[offset - 1] + blackPoints[offset]
+              + blackPoints[offset + 1] + blackPoints[offset + 2];
+        }
+        thresholdBlock(luminances, xoffset, yoffset, sum / 25, width, matrix);
+      }
+    }
+  }
+
+  private static int cap(int value, int min, int max) {
+    return value < min ? min : value > max ? max : value;
+  }
+
+  private static void thresholdBlock(byte[] luminances, int xoffset, int yoffset, int threshold,
+                                     int stride, BitMatrix matrix) {
+    for (int y = 0, offset = yoffset * stride + xoffset; y < BLOCK_SIZE; y++, offset += stride) {
+      for (int x = 0; x < BLOCK_SIZE; x++) {
+        // <= so that black pixels stay black even with a threshold of 0
+        if ((luminances[offset + x] & 0xff) <= threshold) {
+          matrix.set(xoffset + x, yoffset + y);
+        }
+      }
+    }
+  }
+
+  private static void calculateBlackPoints(byte[] luminances, int subWidth, int subHeight,
+                                           int width, int height, int[] blackPoints) {
+    int maxYOffset = height - BLOCK_SIZE;
+    int maxXOffset = width - BLOCK_SIZE;
+    for (int y = 0; y < subHeight; y++) {
+      int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+        int sum = 0;
+        int min = 0xff;
+        int max = 0;
+        for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+          for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+            int pixel = luminances[offset + xx] & 0xff;
+            sum += pixel;
+            if (pixel < min) {
+              min = pixel;
+            }
+            if (pixel > max) {
+              max = pixel;
+            }
+          }
+          // once the dynamic range is met, only the sum is still needed
+          if (max - min > MIN_DYNAMIC_RANGE) {
+            for (yy++, offset += width; yy < BLOCK_SIZE; yy++, offset += width) {
+              for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+                sum += luminances[offset + xx] & 0xff;
+              }
+            }
+          }
+        }
+
+        int average = sum >> (BLOCK_SIZE_POWER * 2);
+        if (max - min <= MIN_DYNAMIC_RANGE) {
+          // a flat block is assumed white, unless its neighbours say it is darker than them
+          average = min / 2;
+          if (y > 0 && x > 0) {
+            int averageNeighborBlackPoint = (blackPoints[(y - 1) * subWidth + x]
+                + (2 * blackPoints[y * subWidth + x - 1]) + blackPoints[(y - 1) * subWidth + x - 1]) / 4;
+            if (min < averageNeighborBlackPoint) {
+              average = averageNeighborBlackPoint;
+            }
+          }
+        }
+        blackPoints[y * subWidth + x] = average;
+      }
+    }
+  }
+}
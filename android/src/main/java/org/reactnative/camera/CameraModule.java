@@ -1,6 +1,7 @@
 package org.reactnative.camera;
 
 import android.graphics.Bitmap;
+import android.os.AsyncTask;
 import android.os.Build;
 import com.facebook.react.bridge.*;
 import com.facebook.react.uimanager.NativeViewHierarchyManager;
@@ -9,6 +10,9 @@ import com.facebook.react.uimanager.UIManagerModule;
 import com.google.android.cameraview.AspectRatio;
 import com.google.zxing.BarcodeFormat;
 import org.reactnative.barcodedetector.BarcodeFormatUtils;
+import org.reactnative.barcodescanner.ImageBarCodeScanner;
+import org.reactnative.camera.tasks.DetectorExecutors;
+import org.reactnative.camera.tasks.ImageBarCodeScannerAsyncTask;
 import org.reactnative.camera.tasks.ResolveTakenPictureAsyncTask;
 import org.reactnative.camera.utils.ScopedContext;
 import org.reactnative.facedetector.RNFaceDetector;
@@ -17,8 +21,11 @@ import com.google.android.cameraview.Size;
 import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -318,6 +325,69 @@ public class CameraModule extends ReactContextBaseJavaModule {
           }
       });
   }
+    @ReactMethod
+    public void getDetectorStatistics(final int viewTag, final Promise promise) {
+        final ReactApplicationContext context = getReactApplicationContext();
+        UIManagerModule uiManager = context.getNativeModule(UIManagerModule.class);
+        uiManager.addUIBlock(new UIBlock() {
+            @Override
+            public void execute(NativeViewHierarchyManager nativeViewHierarchyManager) {
+                final RNCameraView cameraView;
+
+                try {
+                    cameraView = (RNCameraView) nativeViewHierarchyManager.resolveView(viewTag);
+                    promise.resolve(cameraView.getDetectorStatistics());
+                } catch (Exception e) {
+                    promise.reject("E_CAMERA_BAD_VIEWTAG", "getDetectorStatisticsAsync: Expected a Camera component");
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void setDetectorThreadPriority(final int threadPriority, final Promise promise) {
+        DetectorExecutors.setThreadPriority(threadPriority);
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void scanBarcodesFromImages(final ReadableArray uris, final ReadableMap options, final Promise promise) {
+        List<String> imageUris = new ArrayList<>(uris.size());
+        for (int i = 0; i < uris.size(); i++) {
+            imageUris.add(uris.getString(i));
+        }
+
+        EnumSet<BarcodeFormat> formats = EnumSet.noneOf(BarcodeFormat.class);
+        if (options.hasKey("barCodeTypes")) {
+            ReadableArray barCodeTypes = options.getArray("barCodeTypes");
+            for (int i = 0; i < barCodeTypes.size(); i++) {
+                String type = barCodeTypes.getString(i);
+                // accept the BarCodeType keys as well as their values
+                Object format = VALID_BARCODE_TYPES.containsKey(type) ? VALID_BARCODE_TYPES.get(type) : type;
+                try {
+                    formats.add(BarcodeFormat.valueOf((String) format));
+                } catch (IllegalArgumentException e) {
+                    promise.reject("E_BARCODE_SCANNING_FAILED", "Unknown barcode type: `" + type + "`.");
+                    return;
+                }
+            }
+        }
+
+        int maxImageSize = options.hasKey("maxImageSize") ? options.getInt("maxImageSize") : 2048;
+        int maxConcurrency = options.hasKey("maxConcurrency")
+            ? options.getInt("maxConcurrency")
+            : DetectorExecutors.IMAGE_BAR_CODE_SCANNER.getMaximumPoolSize();
+        boolean tryHarder = options.hasKey("tryHarder") && options.getBoolean("tryHarder");
+        boolean useGoogleVision = options.hasKey("useGoogleVision") && options.getBoolean("useGoogleVision");
+
+        ReactApplicationContext context = getReactApplicationContext();
+        ImageBarCodeScanner scanner = new ImageBarCodeScanner(context, formats, tryHarder,
+            Math.max(1, maxImageSize));
+        // the task waits for the images, keep it off the serial executor other tasks queue on
+        new ImageBarCodeScannerAsyncTask(context, imageUris, scanner, maxConcurrency, useGoogleVision, promise)
+            .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
     @ReactMethod
     public void getAvailablePictureSizes(final String ratio, final int viewTag, final Promise promise) {
         final ReactApplicationContext context = getReactApplicationContext();
@@ -2,12 +2,15 @@ package org.reactnative.camera;
 
 import android.support.annotation.Nullable;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.ViewGroupManager;
 import com.facebook.react.uimanager.annotations.ReactProp;
 import com.google.android.cameraview.AspectRatio;
 import com.google.android.cameraview.Size;
+import org.reactnative.barcodescanner.BarCodeScanArea;
+import org.reactnative.camera.tasks.DetectorExecutors;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,7 +26,8 @@ public class CameraViewManager extends ViewGroupManager<RNCameraView> {
     EVENT_ON_FACE_DETECTION_ERROR("onFaceDetectionError"),
     EVENT_ON_BARCODE_DETECTION_ERROR("onGoogleVisionBarcodeDetectionError"),
     EVENT_ON_TEXT_RECOGNIZED("onTextRecognized"),
-    EVENT_ON_PICTURE_SAVED("onPictureSaved");
+    EVENT_ON_PICTURE_SAVED("onPictureSaved"),
+    EVENT_ON_DETECTORS_READY("onDetectorsReady");
 
     private final String mName;
 
@@ -106,6 +110,11 @@ public class CameraViewManager extends ViewGroupManager<RNCameraView> {
     view.setPictureSize(size.equals("None") ? null : Size.parse(size));
   }
 
+  @ReactProp(name = "scanResolution")
+  public void setScanResolution(RNCameraView view, String size) {
+    view.setScanResolution(size == null || size.equals("None") ? null : Size.parse(size));
+  }
+
   @ReactProp(name = "barCodeTypes")
   public void setBarCodeTypes(RNCameraView view, ReadableArray barCodeTypes) {
     if (barCodeTypes == null) {
@@ -118,6 +127,41 @@ public class CameraViewManager extends ViewGroupManager<RNCameraView> {
     view.setBarCodeTypes(result);
   }
 
+  @ReactProp(name = "barCodeScanArea")
+  public void setBarCodeScanArea(RNCameraView view, @Nullable ReadableMap barCodeScanArea) {
+    view.setBarCodeScanArea(BarCodeScanArea.fromMap(barCodeScanArea));
+  }
+
+  @ReactProp(name = "barCodeOrientationStrategy")
+  public void setBarCodeOrientationStrategy(RNCameraView view, @Nullable String barCodeOrientationStrategy) {
+    view.setBarCodeOrientationStrategy(barCodeOrientationStrategy);
+  }
+
+  @ReactProp(name = "barCodeDedupWindowMs")
+  public void setBarCodeDedupWindowMs(RNCameraView view, int barCodeDedupWindowMs) {
+    view.setBarCodeDedupWindow(barCodeDedupWindowMs);
+  }
+
+  @ReactProp(name = "barCodePositionUpdateIntervalMs")
+  public void setBarCodePositionUpdateIntervalMs(RNCameraView view, int barCodePositionUpdateIntervalMs) {
+    view.setBarCodePositionUpdateInterval(barCodePositionUpdateIntervalMs);
+  }
+
+  @ReactProp(name = "barCodeFullScanInterval")
+  public void setBarCodeFullScanInterval(RNCameraView view, int barCodeFullScanInterval) {
+    view.setBarCodeFullScanInterval(barCodeFullScanInterval);
+  }
+
+  @ReactProp(name = "barCodeBinarizer")
+  public void setBarCodeBinarizer(RNCameraView view, @Nullable String barCodeBinarizer) {
+    view.setBarCodeBinarizer(barCodeBinarizer);
+  }
+
+  @ReactProp(name = "barCodeMultiple")
+  public void setBarCodeMultiple(RNCameraView view, boolean barCodeMultiple) {
+    view.setShouldScanMultipleBarCodes(barCodeMultiple);
+  }
+
   @ReactProp(name = "barCodeScannerEnabled")
   public void setBarCodeScanning(RNCameraView view, boolean barCodeScannerEnabled) {
     view.setShouldScanBarCodes(barCodeScannerEnabled);
@@ -128,6 +172,11 @@ public class CameraViewManager extends ViewGroupManager<RNCameraView> {
     view.setUsingCamera2Api(useCamera2Api);
   }
 
+  @ReactProp(name = "usePreviewBuffers")
+  public void setUsePreviewBuffers(RNCameraView view, boolean usePreviewBuffers) {
+    view.setUsePreviewBuffers(usePreviewBuffers);
+  }
+
   @ReactProp(name = "playSoundOnCapture")
   public void setPlaySoundOnCapture(RNCameraView view, boolean playSoundOnCapture) {
     view.setPlaySoundOnCapture(playSoundOnCapture);
@@ -153,6 +202,11 @@ public class CameraViewManager extends ViewGroupManager<RNCameraView> {
     view.setFaceDetectionClassifications(classifications);
   }
 
+  @ReactProp(name = "faceDetectionInterval", defaultInt = 1)
+  public void setFaceDetectionInterval(RNCameraView view, int interval) {
+    view.setFaceDetectionInterval(interval);
+  }
+
   @ReactProp(name = "googleVisionBarcodeDetectorEnabled")
   public void setGoogleVisionBarcodeDetecting(RNCameraView view, boolean googleBarcodeDetectorEnabled) {
     view.setShouldGoogleDetectBarcodes(googleBarcodeDetectorEnabled);
@@ -167,4 +221,9 @@ public class CameraViewManager extends ViewGroupManager<RNCameraView> {
   public void setTextRecognizing(RNCameraView view, boolean textRecognizerEnabled) {
     view.setShouldRecognizeText(textRecognizerEnabled);
   }
+
+  @ReactProp(name = "textRecognitionIncremental")
+  public void setTextRecognitionIncremental(RNCameraView view, boolean incremental) {
+    view.setTextRecognitionIncremental(incremental);
+  }
 }
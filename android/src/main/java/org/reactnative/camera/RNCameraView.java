@@ -4,6 +4,7 @@ import android.Manifest;
 import android.annotation.SuppressLint;
 import android.content.pm.PackageManager;
 import android.graphics.Color;
+import android.graphics.Rect;
 import android.media.CamcorderProfile;
 import android.media.MediaActionSound;
 import android.os.Build;
@@ -17,25 +18,39 @@ import com.google.android.cameraview.CameraView;
 import com.google.android.gms.vision.barcode.Barcode;
 import com.google.android.gms.vision.face.Face;
 import com.google.android.gms.vision.text.TextBlock;
-import com.google.android.gms.vision.text.TextRecognizer;
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.DecodeHintType;
-import com.google.zxing.MultiFormatReader;
 import com.google.zxing.Result;
 import org.reactnative.barcodedetector.RNBarcodeDetector;
+import org.reactnative.barcodescanner.BarCodeBinarizerStrategy;
+import org.reactnative.barcodescanner.BarCodeDeduplicator;
+import org.reactnative.barcodescanner.BarCodeFormatSelector;
+import org.reactnative.barcodescanner.BarCodeOrientationStrategy;
+import org.reactnative.barcodescanner.BarCodeScanArea;
+import org.reactnative.barcodescanner.FrameRegion;
+import org.reactnative.barcodescanner.FrameTransform;
+import org.reactnative.barcodescanner.MultiBarCodeScanner;
 import org.reactnative.camera.tasks.*;
 import org.reactnative.camera.utils.ImageDimensions;
+import org.reactnative.camera.utils.TextBlockTracker;
 import org.reactnative.camera.utils.RNFileUtils;
+import org.reactnative.facedetector.FaceTracker;
 import org.reactnative.facedetector.RNFaceDetector;
+import org.reactnative.frame.FrameScheduler;
+import org.reactnative.frame.PreviewBuffer;
+import org.reactnative.frame.RNFrame;
+import org.reactnative.textrecognizer.RNTextRecognizer;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public class RNCameraView extends CameraView implements LifecycleEventListener, BarCodeScannerAsyncTaskDelegate, FaceDetectorAsyncTaskDelegate,
-    BarcodeDetectorAsyncTaskDelegate, TextRecognizerAsyncTaskDelegate, PictureSavedDelegate {
+    BarcodeDetectorAsyncTaskDelegate, TextRecognizerAsyncTaskDelegate, PictureSavedDelegate,
+    DetectorWarmUpAsyncTaskDelegate {
   private ThemedReactContext mThemedReactContext;
   private Queue<Promise> mPictureTakenPromises = new ConcurrentLinkedQueue<>();
   private Map<Promise, ReadableMap> mPictureTakenOptions = new ConcurrentHashMap<>();
@@ -47,34 +62,114 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
   private boolean mIsPaused = false;
   private boolean mIsNew = true;
 
-  // Concurrency lock for scanners to avoid flooding the runtime
-  public volatile boolean barCodeScannerTaskLock = false;
-  public volatile boolean faceDetectorTaskLock = false;
-  public volatile boolean googleBarcodeDetectorTaskLock = false;
-  public volatile boolean textRecognizerTaskLock = false;
+  // One lane per detector, each running at most one frame and keeping only the latest pending one
+  private final FrameScheduler mFrameScheduler = new FrameScheduler();
+  private final FrameScheduler.Lane mBarCodeScannerLane;
+  private final FrameScheduler.Lane mFaceDetectorLane;
+  private final FrameScheduler.Lane mGoogleBarcodeDetectorLane;
+  private final FrameScheduler.Lane mTextRecognizerLane;
 
   // Scanning-related properties
-  private MultiFormatReader mMultiFormatReader;
-  private RNFaceDetector mFaceDetector;
-  private RNBarcodeDetector mGoogleBarcodeDetector;
-  private TextRecognizer mTextRecognizer;
-  private boolean mShouldDetectFaces = false;
-  private boolean mShouldGoogleDetectBarcodes = false;
-  private boolean mShouldScanBarCodes = false;
-  private boolean mShouldRecognizeText = false;
+  private volatile BarCodeFormatSelector mBarCodeFormatSelector;
+  private volatile RNFaceDetector mFaceDetector;
+  private volatile RNBarcodeDetector mGoogleBarcodeDetector;
+  private volatile RNTextRecognizer mTextRecognizer;
+  // Read by the frame callback, which runs on the camera's analysis thread with Camera2
+  private volatile boolean mShouldDetectFaces = false;
+  private volatile boolean mShouldGoogleDetectBarcodes = false;
+  private volatile boolean mShouldScanBarCodes = false;
+  private volatile boolean mShouldRecognizeText = false;
+  // null unless text blocks are reported incrementally
+  private TextBlockTracker mTextBlockTracker;
+  // dimensions of the frame text blocks were last reported for
+  private ImageDimensions mTextBlockDimensions;
   private int mFaceDetectorMode = RNFaceDetector.FAST_MODE;
   private int mFaceDetectionLandmarks = RNFaceDetector.NO_LANDMARKS;
   private int mFaceDetectionClassifications = RNFaceDetector.NO_CLASSIFICATIONS;
+  private final FaceTracker mFaceTracker = new FaceTracker();
   private int mGoogleVisionBarCodeType = Barcode.ALL_FORMATS;
+  // Read by the frame workers, which may run off the UI thread
+  private volatile BarCodeScanArea mBarCodeScanArea;
+  private volatile PreviewLayout mPreviewLayout;
+  // facing of the open camera, so frame workers never call into the camera implementation
+  private volatile int mFrameFacing = CameraView.FACING_BACK;
+  private final BarCodeOrientationStrategy mBarCodeOrientationStrategy = new BarCodeOrientationStrategy();
+  private final BarCodeBinarizerStrategy mBarCodeBinarizerStrategy = new BarCodeBinarizerStrategy();
+  private boolean mShouldScanMultipleBarCodes = false;
+  private volatile MultiBarCodeScanner mMultiBarCodeScanner;
+  private final BarCodeDeduplicator mBarCodeDeduplicator = new BarCodeDeduplicator();
+  private int mBarCodeFullScanInterval = 0;
+  // width, height and rotation of the latest preview frame, detectors are warmed up with frames like it
+  private volatile int[] mPreviewFrameFormat;
+  private static final int[] DEFAULT_WARM_UP_FRAME_FORMAT = {640, 480, 0};
+  private int mPendingWarmUps = 0;
+  private WritableMap mWarmedUpDetectors;
+  private boolean mDestroyed;
+  private final PreviewBuffer.Recycler mPreviewBufferRecycler = new PreviewBuffer.Recycler() {
+    @Override
+    public void recycle(byte[] data) {
+      returnPreviewBuffer(data);
+    }
+  };
 
   public RNCameraView(ThemedReactContext themedReactContext) {
     super(themedReactContext, true);
     mThemedReactContext = themedReactContext;
     themedReactContext.addLifecycleEventListener(this);
 
+    mBarCodeScannerLane = mFrameScheduler.addLane("barCodeScanner", new FrameScheduler.Worker() {
+      @Override
+      public void process(PreviewBuffer frame) {
+        FrameTransform transform = null;
+        PreviewLayout layout = mPreviewLayout;
+        if (layout != null && !layout.mPreviewRect.isEmpty()) {
+          transform = new FrameTransform(frame.getWidth(), frame.getHeight(), frame.getRotation(),
+              mFrameFacing == CameraView.FACING_FRONT, layout.mPreviewRect, layout.mDensity);
+        }
+        FrameRegion scanRegion = null;
+        BarCodeScanArea scanArea = mBarCodeScanArea;
+        if (scanArea != null) {
+          scanRegion = transform == null ? null
+              : scanArea.toFrameRegion(transform, layout.mViewWidth, layout.mViewHeight);
+          if (scanRegion == null) {
+            // the scan area is not visible in the preview
+            mBarCodeScannerLane.complete();
+            return;
+          }
+        }
+        new BarCodeScannerAsyncTask(RNCameraView.this, mBarCodeFormatSelector, frame.getData(),
+            frame.getWidth(), frame.getHeight(), scanRegion, transform, mBarCodeOrientationStrategy, mBarCodeBinarizerStrategy,
+            mMultiBarCodeScanner)
+            .executeOnExecutor(DetectorExecutors.BAR_CODE_SCANNER);
+      }
+    });
+    mFaceDetectorLane = mFrameScheduler.addLane("faceDetector", new FrameScheduler.Worker() {
+      @Override
+      public void process(PreviewBuffer frame) {
+        new FaceDetectorAsyncTask(RNCameraView.this, mFaceDetector, mFaceTracker, frame)
+            .executeOnExecutor(DetectorExecutors.FACE_DETECTOR);
+      }
+    });
+    mGoogleBarcodeDetectorLane = mFrameScheduler.addLane("googleBarcodeDetector", new FrameScheduler.Worker() {
+      @Override
+      public void process(PreviewBuffer frame) {
+        new BarcodeDetectorAsyncTask(RNCameraView.this, mGoogleBarcodeDetector, frame)
+            .executeOnExecutor(DetectorExecutors.BARCODE_DETECTOR);
+      }
+    });
+    mTextRecognizerLane = mFrameScheduler.addLane("textRecognizer", new FrameScheduler.Worker() {
+      @Override
+      public void process(PreviewBuffer frame) {
+        new TextRecognizerAsyncTask(RNCameraView.this, mTextRecognizer, frame)
+            .executeOnExecutor(DetectorExecutors.TEXT_RECOGNIZER);
+      }
+    });
+
     addCallback(new Callback() {
       @Override
       public void onCameraOpened(CameraView cameraView) {
+        // the implementation may have fallen back to another camera than the one asked for
+        mFrameFacing = cameraView.getFacing();
         RNCameraViewHelper.emitCameraReadyEvent(cameraView);
       }
 
@@ -116,42 +211,30 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
 
       @Override
       public void onFramePreview(CameraView cameraView, byte[] data, int width, int height, int rotation) {
-        int correctRotation = RNCameraViewHelper.getCorrectCameraRotation(rotation, getFacing());
-        boolean willCallBarCodeTask = mShouldScanBarCodes && !barCodeScannerTaskLock && cameraView instanceof BarCodeScannerAsyncTaskDelegate;
-        boolean willCallFaceTask = mShouldDetectFaces && !faceDetectorTaskLock && cameraView instanceof FaceDetectorAsyncTaskDelegate;
-        boolean willCallGoogleBarcodeTask = mShouldGoogleDetectBarcodes && !googleBarcodeDetectorTaskLock && cameraView instanceof BarcodeDetectorAsyncTaskDelegate;
-        boolean willCallTextTask = mShouldRecognizeText && !textRecognizerTaskLock && cameraView instanceof TextRecognizerAsyncTaskDelegate;
-        if (!willCallBarCodeTask && !willCallFaceTask && !willCallGoogleBarcodeTask && !willCallTextTask) {
+        if (data.length < (1.5 * width * height)) {
+          cameraView.returnPreviewBuffer(data);
           return;
         }
 
-        if (data.length < (1.5 * width * height)) {
-            return;
+        int correctRotation = RNCameraViewHelper.getCorrectCameraRotation(rotation, mFrameFacing);
+        int[] frameFormat = mPreviewFrameFormat;
+        if (frameFormat == null || frameFormat[0] != width || frameFormat[1] != height || frameFormat[2] != correctRotation) {
+          mPreviewFrameFormat = new int[]{width, height, correctRotation};
         }
-
-        if (willCallBarCodeTask) {
-          barCodeScannerTaskLock = true;
-          BarCodeScannerAsyncTaskDelegate delegate = (BarCodeScannerAsyncTaskDelegate) cameraView;
-          new BarCodeScannerAsyncTask(delegate, mMultiFormatReader, data, width, height).execute();
+        PreviewBuffer frame = new PreviewBuffer(mPreviewBufferRecycler, data, width, height, correctRotation);
+        if (mShouldScanBarCodes) {
+          mBarCodeScannerLane.offer(frame);
         }
-
-        if (willCallFaceTask) {
-          faceDetectorTaskLock = true;
-          FaceDetectorAsyncTaskDelegate delegate = (FaceDetectorAsyncTaskDelegate) cameraView;
-          new FaceDetectorAsyncTask(delegate, mFaceDetector, data, width, height, correctRotation).execute();
+        if (mShouldDetectFaces) {
+          mFaceDetectorLane.offer(frame);
         }
-
-        if (willCallGoogleBarcodeTask) {
-          googleBarcodeDetectorTaskLock = true;
-          BarcodeDetectorAsyncTaskDelegate delegate = (BarcodeDetectorAsyncTaskDelegate) cameraView;
-          new BarcodeDetectorAsyncTask(delegate, mGoogleBarcodeDetector, data, width, height, correctRotation).execute();
+        if (mShouldGoogleDetectBarcodes) {
+          mGoogleBarcodeDetectorLane.offer(frame);
         }
-
-        if (willCallTextTask) {
-          textRecognizerTaskLock = true;
-          TextRecognizerAsyncTaskDelegate delegate = (TextRecognizerAsyncTaskDelegate) cameraView;
-          new TextRecognizerAsyncTask(delegate, mTextRecognizer, data, width, height, correctRotation).execute();
+        if (mShouldRecognizeText) {
+          mTextRecognizerLane.offer(frame);
         }
+        frame.release();
       }
     });
   }
@@ -189,6 +272,8 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
     int paddingX = (int) ((width - correctWidth) / 2);
     int paddingY = (int) ((height - correctHeight) / 2);
     preview.layout(paddingX, paddingY, correctWidth + paddingX, correctHeight + paddingY);
+    mPreviewLayout = new PreviewLayout(new Rect(paddingX, paddingY, correctWidth + paddingX, correctHeight + paddingY),
+        right - left, bottom - top, getResources().getDisplayMetrics().density);
   }
 
   @SuppressLint("all")
@@ -211,6 +296,33 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
     initBarcodeReader();
   }
 
+  public void setBarCodeScanArea(BarCodeScanArea barCodeScanArea) {
+    mBarCodeScanArea = barCodeScanArea;
+  }
+
+  public void setBarCodeDedupWindow(long windowMs) {
+    mBarCodeDeduplicator.setWindowMs(windowMs);
+  }
+
+  public void setBarCodePositionUpdateInterval(long positionUpdateIntervalMs) {
+    mBarCodeDeduplicator.setPositionUpdateIntervalMs(positionUpdateIntervalMs);
+  }
+
+  public void setBarCodeFullScanInterval(int fullScanInterval) {
+    mBarCodeFullScanInterval = fullScanInterval;
+    if (mBarCodeFormatSelector != null) {
+      mBarCodeFormatSelector.setFullScanInterval(fullScanInterval);
+    }
+  }
+
+  public void setBarCodeOrientationStrategy(String mode) {
+    mBarCodeOrientationStrategy.setMode(mode);
+  }
+
+  public void setBarCodeBinarizer(String mode) {
+    mBarCodeBinarizerStrategy.setMode(mode);
+  }
+
   public void setPlaySoundOnCapture(Boolean playSoundOnCapture) {
     mPlaySoundOnCapture = playSoundOnCapture;
   }
@@ -267,8 +379,6 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
    * Additionally supports [codabar, code128, maxicode, rss14, rssexpanded, upc_a, upc_ean]
    */
   private void initBarcodeReader() {
-    mMultiFormatReader = new MultiFormatReader();
-    EnumMap<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
     EnumSet<BarcodeFormat> decodeFormats = EnumSet.noneOf(BarcodeFormat.class);
 
     if (mBarCodeTypes != null) {
@@ -280,30 +390,77 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
       }
     }
 
-    hints.put(DecodeHintType.POSSIBLE_FORMATS, decodeFormats);
-    mMultiFormatReader.setHints(hints);
+    mBarCodeFormatSelector = new BarCodeFormatSelector(decodeFormats);
+    mBarCodeFormatSelector.setFullScanInterval(mBarCodeFullScanInterval);
+    mMultiBarCodeScanner = mShouldScanMultipleBarCodes
+        ? new MultiBarCodeScanner(DetectorExecutors.BAR_CODE_TILES, mBarCodeBinarizerStrategy)
+        : null;
+  }
+
+  public void setShouldScanMultipleBarCodes(boolean shouldScanMultipleBarCodes) {
+    if (mShouldScanMultipleBarCodes == shouldScanMultipleBarCodes) {
+      return;
+    }
+    mShouldScanMultipleBarCodes = shouldScanMultipleBarCodes;
+    if (mBarCodeFormatSelector != null) {
+      initBarcodeReader();
+    }
   }
 
   public void setShouldScanBarCodes(boolean shouldScanBarCodes) {
-    if (shouldScanBarCodes && mMultiFormatReader == null) {
+    if (shouldScanBarCodes && mBarCodeFormatSelector == null) {
       initBarcodeReader();
     }
     this.mShouldScanBarCodes = shouldScanBarCodes;
+    if (!shouldScanBarCodes) {
+      mBarCodeScannerLane.clear();
+    }
+    updateScanning();
+  }
+
+  private void updateScanning() {
+    // ZXing only reads luminance, so chroma conversion can be skipped while it is the only detector
+    setLumaOnlyFrames(mShouldScanBarCodes && !mShouldDetectFaces && !mShouldGoogleDetectBarcodes && !mShouldRecognizeText);
     setScanning(mShouldDetectFaces || mShouldGoogleDetectBarcodes || mShouldScanBarCodes || mShouldRecognizeText);
   }
 
-  public void onBarCodeRead(Result barCode) {
+  public void onBarCodeRead(Result barCode, FrameTransform transform) {
     String barCodeType = barCode.getBarcodeFormat().toString();
     if (!mShouldScanBarCodes || !mBarCodeTypes.contains(barCodeType)) {
       return;
     }
+    int read = mBarCodeDeduplicator.check(barCode);
+    if (read == BarCodeDeduplicator.READ_SUPPRESSED) {
+      return;
+    }
 
-    RNCameraViewHelper.emitBarCodeReadEvent(this, barCode);
+    RNCameraViewHelper.emitBarCodeReadEvent(this, barCode, read == BarCodeDeduplicator.READ_REPEAT, transform);
+  }
+
+  public void onBarCodesRead(List<Result> barCodes, FrameTransform transform) {
+    if (!mShouldScanBarCodes) {
+      return;
+    }
+
+    List<Result> barCodesRead = new ArrayList<>(barCodes.size());
+    boolean[] repeats = new boolean[barCodes.size()];
+    for (Result barCode : barCodes) {
+      if (!mBarCodeTypes.contains(barCode.getBarcodeFormat().toString())) {
+        continue;
+      }
+      int read = mBarCodeDeduplicator.check(barCode);
+      if (read != BarCodeDeduplicator.READ_SUPPRESSED) {
+        repeats[barCodesRead.size()] = read == BarCodeDeduplicator.READ_REPEAT;
+        barCodesRead.add(barCode);
+      }
+    }
+    if (!barCodesRead.isEmpty()) {
+      RNCameraViewHelper.emitBarCodesReadEvent(this, barCodesRead, repeats, transform);
+    }
   }
 
   public void onBarCodeScanningTaskCompleted() {
-    barCodeScannerTaskLock = false;
-    mMultiFormatReader.reset();
+    mBarCodeScannerLane.complete();
   }
 
   /**
@@ -315,6 +472,18 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
     mFaceDetector.setLandmarkType(mFaceDetectionLandmarks);
     mFaceDetector.setClassificationType(mFaceDetectionClassifications);
     mFaceDetector.setTracking(true);
+
+    final RNFaceDetector faceDetector = mFaceDetector;
+    warmUpDetector(mFaceDetectorLane.getName(), DetectorExecutors.FACE_DETECTOR, new DetectorWarmUpAsyncTask.WarmUp() {
+      @Override
+      public boolean warmUp(RNFrame frame) {
+        if (!faceDetector.isOperational(frame)) {
+          return false;
+        }
+        faceDetector.detect(frame);
+        return true;
+      }
+    });
   }
 
   public void setFaceDetectionLandmarks(int landmarks) {
@@ -338,12 +507,20 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
     }
   }
 
+  public void setFaceDetectionInterval(int interval) {
+    mFaceTracker.setDetectionInterval(interval);
+  }
+
   public void setShouldDetectFaces(boolean shouldDetectFaces) {
     if (shouldDetectFaces && mFaceDetector == null) {
       setupFaceDetector();
     }
     this.mShouldDetectFaces = shouldDetectFaces;
-    setScanning(mShouldDetectFaces || mShouldGoogleDetectBarcodes || mShouldScanBarCodes || mShouldRecognizeText);
+    if (!shouldDetectFaces) {
+      mFaceDetectorLane.clear();
+      mFaceTracker.reset();
+    }
+    updateScanning();
   }
 
   public void setShouldGoogleDetectBarcodes(boolean shouldDetectBarcodes) {
@@ -351,7 +528,10 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
       setupBarcodeDetector();
     }
     this.mShouldGoogleDetectBarcodes = shouldDetectBarcodes;
-    setScanning(mShouldDetectFaces || mShouldGoogleDetectBarcodes || mShouldScanBarCodes || mShouldRecognizeText);
+    if (!shouldDetectBarcodes) {
+      mGoogleBarcodeDetectorLane.clear();
+    }
+    updateScanning();
   }
 
   public void onFacesDetected(SparseArray<Face> facesReported, int sourceWidth, int sourceHeight, int sourceRotation) {
@@ -366,6 +546,7 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
   }
 
   public void onFaceDetectionError(RNFaceDetector faceDetector) {
+    mFaceDetectorLane.complete();
     if (!mShouldDetectFaces) {
       return;
     }
@@ -375,7 +556,7 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
 
   @Override
   public void onFaceDetectingTaskCompleted() {
-    faceDetectorTaskLock = false;
+    mFaceDetectorLane.complete();
   }
 
   /**
@@ -384,13 +565,76 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
   private void setupBarcodeDetector() {
     mGoogleBarcodeDetector = new RNBarcodeDetector(mThemedReactContext);
     mGoogleBarcodeDetector.setBarcodeType(mGoogleVisionBarCodeType);
+
+    final RNBarcodeDetector barcodeDetector = mGoogleBarcodeDetector;
+    warmUpDetector(mGoogleBarcodeDetectorLane.getName(), DetectorExecutors.BARCODE_DETECTOR, new DetectorWarmUpAsyncTask.WarmUp() {
+      @Override
+      public boolean warmUp(RNFrame frame) {
+        if (!barcodeDetector.isOperational(frame)) {
+          return false;
+        }
+        barcodeDetector.detect(frame);
+        return true;
+      }
+    });
   }
 
   /**
    * Initial setup of the text recongizer
    */
   private void setupTextRecongnizer() {
-    mTextRecognizer = new TextRecognizer.Builder(mThemedReactContext).build();
+    mTextRecognizer = new RNTextRecognizer(mThemedReactContext);
+
+    final RNTextRecognizer textRecognizer = mTextRecognizer;
+    warmUpDetector(mTextRecognizerLane.getName(), DetectorExecutors.TEXT_RECOGNIZER, new DetectorWarmUpAsyncTask.WarmUp() {
+      @Override
+      public boolean warmUp(RNFrame frame) {
+        if (!textRecognizer.isOperational()) {
+          return false;
+        }
+        textRecognizer.detect(frame);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Warms a detector up on its executor, ahead of any preview frame for it. Before the first
+   * preview frame its size is not known yet, and a detector that depends on frame dimensions may
+   * still be built once more for the first frame; its native code is loaded by then.
+   */
+  private void warmUpDetector(String detector, Executor executor, DetectorWarmUpAsyncTask.WarmUp warmUp) {
+    int[] frameFormat = mPreviewFrameFormat;
+    if (frameFormat == null) {
+      frameFormat = DEFAULT_WARM_UP_FRAME_FORMAT;
+    }
+    try {
+      new DetectorWarmUpAsyncTask(this, detector, warmUp, frameFormat[0], frameFormat[1], frameFormat[2])
+          .executeOnExecutor(executor);
+      mPendingWarmUps++;
+    } catch (RejectedExecutionException e) {
+      // the executor is saturated, the detector gets built with its first frame instead
+    }
+  }
+
+  @Override
+  public void onDetectorWarmedUp(String detector, boolean operational, long durationMs) {
+    if (mDestroyed) {
+      return;
+    }
+    if (mWarmedUpDetectors == null) {
+      mWarmedUpDetectors = Arguments.createMap();
+    }
+    WritableMap warmUp = Arguments.createMap();
+    warmUp.putBoolean("operational", operational);
+    warmUp.putDouble("warmUpMs", durationMs);
+    mWarmedUpDetectors.putMap(detector, warmUp);
+
+    // one event once every detector set up meanwhile is warm
+    if (--mPendingWarmUps == 0) {
+      RNCameraViewHelper.emitDetectorsReadyEvent(this, mWarmedUpDetectors);
+      mWarmedUpDetectors = null;
+    }
   }
 
   public void setGoogleVisionBarcodeType(int barcodeType) {
@@ -411,6 +655,7 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
   }
 
   public void onBarcodeDetectionError(RNBarcodeDetector barcodeDetector) {
+    mGoogleBarcodeDetectorLane.complete();
     if (!mShouldGoogleDetectBarcodes) {
       return;
     }
@@ -420,7 +665,7 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
 
   @Override
   public void onBarcodeDetectingTaskCompleted() {
-    googleBarcodeDetectorTaskLock = false;
+    mGoogleBarcodeDetectorLane.complete();
   }
 
   public void setShouldRecognizeText(boolean shouldRecognizeText) {
@@ -428,7 +673,13 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
       setupTextRecongnizer();
     }
     this.mShouldRecognizeText = shouldRecognizeText;
-    setScanning(mShouldDetectFaces || mShouldGoogleDetectBarcodes || mShouldScanBarCodes || mShouldRecognizeText);
+    if (!shouldRecognizeText) {
+      mTextRecognizerLane.clear();
+      if (mTextBlockTracker != null) {
+        resetTextBlockTracker();
+      }
+    }
+    updateScanning();
   }
 
   @Override
@@ -440,12 +691,88 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
     SparseArray<TextBlock> textBlocksDetected = textBlocks == null ? new SparseArray<TextBlock>() : textBlocks;
     ImageDimensions dimensions = new ImageDimensions(sourceWidth, sourceHeight, sourceRotation, getFacing());
 
+    if (mTextBlockTracker != null) {
+      TextBlockTracker.Changes changes = mTextBlockTracker.update(textBlocksDetected);
+      if (!changes.isEmpty()) {
+        mTextBlockDimensions = dimensions;
+        RNCameraViewHelper.emitTextBlockChangesEvent(this, changes, dimensions);
+      }
+      return;
+    }
     RNCameraViewHelper.emitTextRecognizedEvent(this, textBlocksDetected, dimensions);
   }
 
+  public void setTextRecognitionIncremental(boolean incremental) {
+    if (incremental && mTextBlockTracker == null) {
+      mTextBlockTracker = new TextBlockTracker();
+    } else if (!incremental && mTextBlockTracker != null) {
+      resetTextBlockTracker();
+      mTextBlockTracker = null;
+    }
+  }
+
+  // reports the blocks still tracked as removed, JS would otherwise keep them forever
+  private void resetTextBlockTracker() {
+    TextBlockTracker.Changes changes = mTextBlockTracker.reset();
+    if (!changes.isEmpty() && mTextBlockDimensions != null) {
+      RNCameraViewHelper.emitTextBlockChangesEvent(this, changes, mTextBlockDimensions);
+    }
+  }
+
   @Override
   public void onTextRecognizerTaskCompleted() {
-    textRecognizerTaskLock = false;
+    mTextRecognizerLane.complete();
+  }
+
+  /**
+   * Processed and dropped frame counts of every detector, keyed by detector name.
+   */
+  public WritableMap getDetectorStatistics() {
+    WritableMap statistics = Arguments.createMap();
+    for (FrameScheduler.Lane lane : mFrameScheduler.getLanes()) {
+      WritableMap laneStatistics = Arguments.createMap();
+      laneStatistics.putDouble("processedFrames", lane.getProcessedCount());
+      laneStatistics.putDouble("droppedFrames", lane.getDroppedCount());
+      laneStatistics.putBoolean("busy", lane.isBusy());
+      statistics.putMap(lane.getName(), laneStatistics);
+    }
+    WritableMap deduplication = Arguments.createMap();
+    deduplication.putDouble("emittedCodes", mBarCodeDeduplicator.getEmittedCount());
+    deduplication.putDouble("suppressedCodes", mBarCodeDeduplicator.getSuppressedCount());
+    statistics.putMap("barCodeDeduplication", deduplication);
+    WritableMap binarizer = Arguments.createMap();
+    binarizer.putDouble("globalDecodes", mBarCodeBinarizerStrategy.getGlobalDecodeCount());
+    binarizer.putDouble("hybridDecodes", mBarCodeBinarizerStrategy.getHybridDecodeCount());
+    statistics.putMap("barCodeBinarizer", binarizer);
+    BarCodeFormatSelector formatSelector = mBarCodeFormatSelector;
+    if (formatSelector != null) {
+      WritableMap formatSelection = Arguments.createMap();
+      formatSelection.putDouble("fullScans", formatSelector.getFullScanCount());
+      formatSelection.putDouble("narrowScans", formatSelector.getNarrowScanCount());
+      statistics.putMap("barCodeFormatSelection", formatSelection);
+    }
+    WritableMap faceTracking = Arguments.createMap();
+    faceTracking.putDouble("detectedFrames", mFaceTracker.getDetectedFrameCount());
+    faceTracking.putDouble("trackedFrames", mFaceTracker.getTrackedFrameCount());
+    statistics.putMap("faceTracking", faceTracking);
+    WritableMap detectorBuilds = Arguments.createMap();
+    if (mFaceDetector != null) {
+      detectorBuilds.putMap("faceDetector", serializeDetectorBuilds(mFaceDetector.getBuildCount(),
+          mFaceDetector.getBuildTimeMs()));
+    }
+    if (mGoogleBarcodeDetector != null) {
+      detectorBuilds.putMap("googleBarcodeDetector", serializeDetectorBuilds(mGoogleBarcodeDetector.getBuildCount(),
+          mGoogleBarcodeDetector.getBuildTimeMs()));
+    }
+    statistics.putMap("detectorBuilds", detectorBuilds);
+    return statistics;
+  }
+
+  private static WritableMap serializeDetectorBuilds(long buildCount, double buildTimeMs) {
+    WritableMap builds = Arguments.createMap();
+    builds.putDouble("count", buildCount);
+    builds.putDouble("timeMs", buildTimeMs);
+    return builds;
   }
 
   @Override
@@ -471,6 +798,8 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
 
   @Override
   public void onHostDestroy() {
+    // warm-ups and detector tasks still queued find their detectors released and do nothing
+    mDestroyed = true;
     if (mFaceDetector != null) {
       mFaceDetector.release();
     }
@@ -480,7 +809,8 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
     if (mTextRecognizer != null) {
       mTextRecognizer.release();
     }
-    mMultiFormatReader = null;
+    mBarCodeFormatSelector = null;
+    mFrameScheduler.clear();
     stop();
     mThemedReactContext.removeLifecycleEventListener(this);
   }
@@ -493,4 +823,21 @@ public class RNCameraView extends CameraView implements LifecycleEventListener,
       return true;
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Where the preview sits in the view, captured on the UI thread for the frame workers.
+   */
+  private static final class PreviewLayout {
+    final Rect mPreviewRect;
+    final int mViewWidth;
+    final int mViewHeight;
+    final float mDensity;
+
+    PreviewLayout(Rect previewRect, int viewWidth, int viewHeight, float density) {
+      mPreviewRect = previewRect;
+      mViewWidth = viewWidth;
+      mViewHeight = viewHeight;
+      mDensity = density;
+    }
+  }
+}
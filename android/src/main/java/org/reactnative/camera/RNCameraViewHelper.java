@@ -20,11 +20,14 @@ import com.google.android.gms.vision.text.TextBlock;
 import com.google.zxing.Result;
 import org.reactnative.camera.events.*;
 import org.reactnative.camera.utils.ImageDimensions;
+import org.reactnative.camera.utils.TextBlockTracker;
 import org.reactnative.barcodedetector.RNBarcodeDetector;
+import org.reactnative.barcodescanner.FrameTransform;
 import org.reactnative.facedetector.RNFaceDetector;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.List;
 
 public class RNCameraViewHelper {
 
@@ -236,8 +239,23 @@ public class RNCameraViewHelper {
 
   // Bar code read event
 
-  public static void emitBarCodeReadEvent(ViewGroup view, Result barCode) {
-    BarCodeReadEvent event = BarCodeReadEvent.obtain(view.getId(), barCode);
+  public static void emitBarCodeReadEvent(ViewGroup view, Result barCode, boolean isRepeat, FrameTransform transform) {
+    BarCodeReadEvent event = BarCodeReadEvent.obtain(view.getId(), barCode, isRepeat, transform);
+    ReactContext reactContext = (ReactContext) view.getContext();
+    reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher().dispatchEvent(event);
+  }
+
+  public static void emitBarCodesReadEvent(ViewGroup view, List<Result> barCodes, boolean[] repeats,
+                                           FrameTransform transform) {
+    BarCodeReadEvent event = BarCodeReadEvent.obtain(view.getId(), barCodes, repeats, transform);
+    ReactContext reactContext = (ReactContext) view.getContext();
+    reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher().dispatchEvent(event);
+  }
+
+  // Detectors ready event
+
+  public static void emitDetectorsReadyEvent(ViewGroup view, WritableMap detectors) {
+    DetectorsReadyEvent event = DetectorsReadyEvent.obtain(view.getId(), detectors);
     ReactContext reactContext = (ReactContext) view.getContext();
     reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher().dispatchEvent(event);
   }
@@ -265,6 +283,27 @@ public class RNCameraViewHelper {
     reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher().dispatchEvent(event);
   }
 
+  public static void emitTextBlockChangesEvent(
+      ViewGroup view,
+      TextBlockTracker.Changes changes,
+      ImageDimensions dimensions) {
+    float density = view.getResources().getDisplayMetrics().density;
+
+    double scaleX = (double) view.getWidth() / (dimensions.getWidth() * density);
+    double scaleY = (double) view.getHeight() / (dimensions.getHeight() * density);
+
+    TextRecognizedEvent event = TextRecognizedEvent.obtain(
+        view.getId(),
+        changes,
+        dimensions,
+        scaleX,
+        scaleY
+    );
+
+    ReactContext reactContext = (ReactContext) view.getContext();
+    reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher().dispatchEvent(event);
+  }
+
   // Utilities
 
   public static int getCorrectCameraRotation(int rotation, int facing) {
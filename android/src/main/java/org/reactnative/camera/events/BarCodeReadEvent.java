@@ -11,28 +11,60 @@ import com.facebook.react.uimanager.events.RCTEventEmitter;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 
+import org.reactnative.barcodescanner.FrameTransform;
+
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 public class BarCodeReadEvent extends Event<BarCodeReadEvent> {
   private static final Pools.SynchronizedPool<BarCodeReadEvent> EVENTS_POOL =
       new Pools.SynchronizedPool<>(3);
 
   private Result mBarCode;
+  private boolean mRepeat;
+  private List<Result> mBarCodes;
+  private boolean[] mRepeats;
+  private FrameTransform mTransform;
 
   private BarCodeReadEvent() {}
 
-  public static BarCodeReadEvent obtain(int viewTag, Result barCode) {
+  /**
+   * @param isRepeat  whether the code was reported before and is still in view, see
+   *                  {@link org.reactnative.barcodescanner.BarCodeDeduplicator}
+   * @param transform maps the points into the view for {@code viewBounds}, null leaves them out
+   */
+  public static BarCodeReadEvent obtain(int viewTag, Result barCode, boolean isRepeat, FrameTransform transform) {
     BarCodeReadEvent event = EVENTS_POOL.acquire();
     if (event == null) {
       event = new BarCodeReadEvent();
     }
-    event.init(viewTag, barCode);
+    event.init(viewTag, barCode, isRepeat, null, null, transform);
     return event;
   }
 
-  private void init(int viewTag, Result barCode) {
+  /**
+   * Event for all barcodes found in a frame. The first one is also reported at the top level,
+   * like single barcode events.
+   */
+  public static BarCodeReadEvent obtain(int viewTag, List<Result> barCodes, boolean[] repeats,
+                                        FrameTransform transform) {
+    BarCodeReadEvent event = EVENTS_POOL.acquire();
+    if (event == null) {
+      event = new BarCodeReadEvent();
+    }
+    event.init(viewTag, barCodes.get(0), repeats[0], barCodes, repeats, transform);
+    return event;
+  }
+
+  private void init(int viewTag, Result barCode, boolean isRepeat, List<Result> barCodes, boolean[] repeats,
+                    FrameTransform transform) {
     super.init(viewTag);
     mBarCode = barCode;
+    mRepeat = isRepeat;
+    mBarCodes = barCodes;
+    mRepeats = repeats;
+    mTransform = transform;
   }
 
   /**
@@ -44,8 +76,11 @@ public class BarCodeReadEvent extends Event<BarCodeReadEvent> {
    */
   @Override
   public short getCoalescingKey() {
-    int hashCode = mBarCode.getText().hashCode() % Short.MAX_VALUE;
-    return (short) hashCode;
+    int hashCode = 0;
+    for (Result barCode : mBarCodes != null ? mBarCodes : Collections.singletonList(mBarCode)) {
+      hashCode = 31 * hashCode + barCode.getText().hashCode();
+    }
+    return (short) (hashCode % Short.MAX_VALUE);
   }
 
   @Override
@@ -59,22 +94,51 @@ public class BarCodeReadEvent extends Event<BarCodeReadEvent> {
   }
 
   private WritableMap serializeEventData() {
-    WritableMap event = Arguments.createMap();
-
+    WritableMap event = serializeBarCode(mBarCode, mRepeat, mTransform);
     event.putInt("target", getViewTag());
-    event.putString("data", mBarCode.getText());
-    event.putString("type", mBarCode.getBarcodeFormat().toString());
-    WritableArray resultPoints = Arguments.createArray();
-    ResultPoint[] points = mBarCode.getResultPoints();
-    for (ResultPoint point: points) {
-      if(point!=null) {
-        WritableMap newPoint = Arguments.createMap();
-        newPoint.putString("x", String.valueOf(point.getX()));
-        newPoint.putString("y", String.valueOf(point.getY()));
-        resultPoints.pushMap(newPoint);
+    if (mBarCodes != null) {
+      WritableArray barCodes = Arguments.createArray();
+      for (int i = 0; i < mBarCodes.size(); i++) {
+        barCodes.pushMap(serializeBarCode(mBarCodes.get(i), mRepeats[i], mTransform));
       }
+      event.putArray("barcodes", barCodes);
     }
-    event.putArray("bounds",resultPoints);
     return event;
   }
+
+  /**
+   * {@code bounds} are always in frame pixels; {@code viewBounds} are the same points in dp of the
+   * camera view, when the transform is known.
+   */
+  private static WritableMap serializeBarCode(Result barCode, boolean isRepeat, FrameTransform transform) {
+    WritableMap map = Arguments.createMap();
+    map.putString("data", barCode.getText());
+    map.putString("type", barCode.getBarcodeFormat().toString());
+    map.putBoolean("isRepeat", isRepeat);
+    WritableArray resultPoints = Arguments.createArray();
+    WritableArray viewPoints = Arguments.createArray();
+    ResultPoint[] points = barCode.getResultPoints();
+    if (points != null) {
+      for (ResultPoint point: points) {
+        if(point!=null) {
+          resultPoints.pushMap(serializePoint(point));
+          if (transform != null) {
+            viewPoints.pushMap(serializePoint(transform.frameToView(point.getX(), point.getY())));
+          }
+        }
+      }
+    }
+    map.putArray("bounds",resultPoints);
+    if (transform != null) {
+      map.putArray("viewBounds", viewPoints);
+    }
+    return map;
+  }
+
+  private static WritableMap serializePoint(ResultPoint point) {
+    WritableMap newPoint = Arguments.createMap();
+    newPoint.putString("x", String.valueOf(point.getX()));
+    newPoint.putString("y", String.valueOf(point.getY()));
+    return newPoint;
+  }
 }
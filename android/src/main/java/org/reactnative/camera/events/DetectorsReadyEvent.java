@@ -0,0 +1,54 @@
+package org.reactnative.camera.events;
+
+import android.support.v4.util.Pools;
+
+import org.reactnative.camera.CameraViewManager;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.events.Event;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+
+public class DetectorsReadyEvent extends Event<DetectorsReadyEvent> {
+  private static final Pools.SynchronizedPool<DetectorsReadyEvent> EVENTS_POOL = new Pools.SynchronizedPool<>(3);
+
+  private WritableMap mDetectors;
+
+  private DetectorsReadyEvent() {}
+
+  public static DetectorsReadyEvent obtain(int viewTag, WritableMap detectors) {
+    DetectorsReadyEvent event = EVENTS_POOL.acquire();
+    if (event == null) {
+      event = new DetectorsReadyEvent();
+    }
+    event.init(viewTag, detectors);
+    return event;
+  }
+
+  private void init(int viewTag, WritableMap detectors) {
+    super.init(viewTag);
+    mDetectors = detectors;
+  }
+
+  @Override
+  public short getCoalescingKey() {
+    return 0;
+  }
+
+  @Override
+  public String getEventName() {
+    return CameraViewManager.Events.EVENT_ON_DETECTORS_READY.toString();
+  }
+
+  @Override
+  public void dispatch(RCTEventEmitter rctEventEmitter) {
+    rctEventEmitter.receiveEvent(getViewTag(), getEventName(), serializeEventData());
+  }
+
+  private WritableMap serializeEventData() {
+    WritableMap event = Arguments.createMap();
+    event.putString("type", "detectorsReady");
+    event.putMap("detectors", mDetectors);
+    event.putInt("target", getViewTag());
+    return event;
+  }
+}
@@ -16,6 +16,7 @@ import com.google.android.gms.vision.text.Text;
 import com.google.android.gms.vision.text.TextBlock;
 import org.reactnative.camera.CameraViewManager;
 import org.reactnative.camera.utils.ImageDimensions;
+import org.reactnative.camera.utils.TextBlockTracker;
 import org.reactnative.facedetector.FaceDetectorUtils;
 
 
@@ -28,6 +29,7 @@ public class TextRecognizedEvent extends Event<TextRecognizedEvent> {
   private double mScaleX;
   private double mScaleY;
   private SparseArray<TextBlock> mTextBlocks;
+  private TextBlockTracker.Changes mChanges;
   private ImageDimensions mImageDimensions;
 
   private TextRecognizedEvent() {}
@@ -42,23 +44,48 @@ public class TextRecognizedEvent extends Event<TextRecognizedEvent> {
     if (event == null) {
       event = new TextRecognizedEvent();
     }
-    event.init(viewTag, textBlocks, dimensions, scaleX, scaleY);
+    event.init(viewTag, textBlocks, null, dimensions, scaleX, scaleY);
+    return event;
+  }
+
+  /**
+   * Event carrying only the blocks that were added, changed or removed since the previous one.
+   */
+  public static TextRecognizedEvent obtain(
+      int viewTag,
+      TextBlockTracker.Changes changes,
+      ImageDimensions dimensions,
+      double scaleX,
+      double scaleY) {
+    TextRecognizedEvent event = EVENTS_POOL.acquire();
+    if (event == null) {
+      event = new TextRecognizedEvent();
+    }
+    event.init(viewTag, null, changes, dimensions, scaleX, scaleY);
     return event;
   }
 
   private void init(
       int viewTag,
       SparseArray<TextBlock> textBlocks,
+      TextBlockTracker.Changes changes,
       ImageDimensions dimensions,
       double scaleX,
       double scaleY) {
     super.init(viewTag);
     mTextBlocks = textBlocks;
+    mChanges = changes;
     mImageDimensions = dimensions;
     mScaleX = scaleX;
     mScaleY = scaleY;
   }
 
+  @Override
+  public boolean canCoalesce() {
+    // a change set only makes sense on top of the previous one, none may be dropped
+    return mChanges == null;
+  }
+
   @Override
   public String getEventName() {
     return CameraViewManager.Events.EVENT_ON_TEXT_RECOGNIZED.toString();
@@ -70,14 +97,13 @@ public class TextRecognizedEvent extends Event<TextRecognizedEvent> {
   }
 
   private WritableMap serializeEventData() {
+    if (mChanges != null) {
+      return serializeChanges();
+    }
+
     WritableArray textBlocksList = Arguments.createArray();
     for (int i = 0; i < mTextBlocks.size(); ++i) {
-      TextBlock textBlock = mTextBlocks.valueAt(i);
-      WritableMap serializedTextBlock = serializeText(textBlock);
-      if (mImageDimensions.getFacing() == CameraView.FACING_FRONT) {
-        serializedTextBlock = rotateTextX(serializedTextBlock);
-      }
-      textBlocksList.pushMap(serializedTextBlock);
+      textBlocksList.pushMap(serializeTextBlock(mTextBlocks.valueAt(i)));
     }
 
     WritableMap event = Arguments.createMap();
@@ -87,6 +113,39 @@ public class TextRecognizedEvent extends Event<TextRecognizedEvent> {
     return event;
   }
 
+  private WritableMap serializeChanges() {
+    WritableArray removed = Arguments.createArray();
+    for (Integer id : mChanges.getRemoved()) {
+      removed.pushInt(id);
+    }
+
+    WritableMap event = Arguments.createMap();
+    event.putString("type", "textBlockChanges");
+    event.putArray("added", serializeTrackedTextBlocks(mChanges.getAdded()));
+    event.putArray("changed", serializeTrackedTextBlocks(mChanges.getChanged()));
+    event.putArray("removed", removed);
+    event.putInt("target", getViewTag());
+    return event;
+  }
+
+  private WritableArray serializeTrackedTextBlocks(SparseArray<TextBlock> textBlocks) {
+    WritableArray textBlocksList = Arguments.createArray();
+    for (int i = 0; i < textBlocks.size(); ++i) {
+      WritableMap serializedTextBlock = serializeTextBlock(textBlocks.valueAt(i));
+      serializedTextBlock.putInt("id", textBlocks.keyAt(i));
+      textBlocksList.pushMap(serializedTextBlock);
+    }
+    return textBlocksList;
+  }
+
+  private WritableMap serializeTextBlock(TextBlock textBlock) {
+    WritableMap serializedTextBlock = serializeText(textBlock);
+    if (mImageDimensions.getFacing() == CameraView.FACING_FRONT) {
+      serializedTextBlock = rotateTextX(serializedTextBlock);
+    }
+    return serializedTextBlock;
+  }
+
   private WritableMap serializeText(Text text) {
     WritableMap encodedText = Arguments.createMap();
 
@@ -1,87 +1,124 @@
 package org.reactnative.camera.tasks;
 
-import com.google.zxing.BinaryBitmap;
-import com.google.zxing.MultiFormatReader;
+import com.google.zxing.LuminanceSource;
 import com.google.zxing.NotFoundException;
-import com.google.zxing.PlanarYUVLuminanceSource;
 import com.google.zxing.Result;
-import com.google.zxing.common.HybridBinarizer;
 
-public class BarCodeScannerAsyncTask extends android.os.AsyncTask<Void, Void, Result> {
+import org.reactnative.barcodescanner.BarCodeBinarizerStrategy;
+import org.reactnative.barcodescanner.BarCodeFormatSelector;
+import org.reactnative.barcodescanner.BarCodeOrientationStrategy;
+import org.reactnative.barcodescanner.DecodeWorkspace;
+import org.reactnative.barcodescanner.FrameRegion;
+import org.reactnative.barcodescanner.FrameTransform;
+import org.reactnative.barcodescanner.MultiBarCodeScanner;
+
+import java.util.Collections;
+import java.util.List;
+
+public class BarCodeScannerAsyncTask extends android.os.AsyncTask<Void, Void, List<Result>> {
   private byte[] mImageData;
   private int mWidth;
   private int mHeight;
   private BarCodeScannerAsyncTaskDelegate mDelegate;
-  private final MultiFormatReader mMultiFormatReader;
+  private final BarCodeFormatSelector mFormatSelector;
+  private final FrameRegion mScanRegion;
+  private final FrameTransform mTransform;
+  private final BarCodeOrientationStrategy mOrientationStrategy;
+  private final BarCodeBinarizerStrategy mBinarizerStrategy;
+  private final MultiBarCodeScanner mMultiBarCodeScanner;
 
   //  note(sjchmiela): From my short research it's ok to ignore rotation of the image.
   public BarCodeScannerAsyncTask(
       BarCodeScannerAsyncTaskDelegate delegate,
-      MultiFormatReader multiFormatReader,
+      BarCodeFormatSelector formatSelector,
       byte[] imageData,
       int width,
-      int height
+      int height,
+      FrameRegion scanRegion,
+      FrameTransform transform,
+      BarCodeOrientationStrategy orientationStrategy,
+      BarCodeBinarizerStrategy binarizerStrategy,
+      MultiBarCodeScanner multiBarCodeScanner
   ) {
     mImageData = imageData;
     mWidth = width;
     mHeight = height;
     mDelegate = delegate;
-    mMultiFormatReader = multiFormatReader;
+    mFormatSelector = formatSelector;
+    mScanRegion = scanRegion;
+    mTransform = transform;
+    mOrientationStrategy = orientationStrategy;
+    mBinarizerStrategy = binarizerStrategy;
+    mMultiBarCodeScanner = multiBarCodeScanner;
   }
 
   @Override
-  protected Result doInBackground(Void... ignored) {
+  protected List<Result> doInBackground(Void... ignored) {
+    DetectorExecutors.applyThreadPriority();
     if (isCancelled() || mDelegate == null) {
       return null;
     }
 
-    Result result = null;
+    BarCodeFormatSelector.Selection selection = mFormatSelector.next();
+    try {
+      for (int orientation : mOrientationStrategy.nextOrientations()) {
+        List<Result> results = decode(orientation, selection);
+        mOrientationStrategy.onDecodeFinished(orientation, !results.isEmpty());
+        if (!results.isEmpty()) {
+          mFormatSelector.onDecoded(results);
+          return results;
+        }
+      }
+      return null;
+    } finally {
+      selection.getReader().reset();
+    }
+  }
+
+  /**
+   * Decodes the scan region, or the whole frame, in the given orientation. Result points are
+   * always in frame pixels of the unrotated frame, whatever the region and orientation.
+   */
+  private List<Result> decode(int orientation, BarCodeFormatSelector.Selection selection) {
+    int left = 0;
+    int top = 0;
+    int width = mWidth;
+    int height = mHeight;
+    if (mScanRegion != null) {
+      left = mScanRegion.getLeft();
+      top = mScanRegion.getTop();
+      width = mScanRegion.getWidth();
+      height = mScanRegion.getHeight();
+    }
+
+    if (mMultiBarCodeScanner != null) {
+      return mMultiBarCodeScanner.decode(mImageData, mWidth, mHeight, left, top, width, height, orientation,
+          selection.getHints());
+    }
 
     try {
-      BinaryBitmap bitmap = generateBitmapFromImageData(mImageData, mWidth, mHeight);
-      result = mMultiFormatReader.decodeWithState(bitmap);
+      LuminanceSource source = DecodeWorkspace.get()
+          .createSource(mImageData, mWidth, mHeight, left, top, width, height, orientation);
+      Result result = mBinarizerStrategy.decode(selection.getReader(), source);
+      return Collections.singletonList(BarCodeOrientationStrategy.toFramePoints(result, orientation, left, top, height));
     } catch (NotFoundException e) {
-      BinaryBitmap bitmap = generateBitmapFromImageData(rotateImage(mImageData,mWidth, mHeight),mHeight,mWidth);
-      try {
-        result = mMultiFormatReader.decodeWithState(bitmap);
-      } catch (NotFoundException e1) {
-        //no barcode Found
-      }
+      //no barcode Found
     } catch (Throwable t) {
       t.printStackTrace();
     }
-
-    return result;
-  }
-  private byte[] rotateImage(byte[]imageData,int width, int height) {
-    byte[] rotated = new byte[imageData.length];
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        rotated[x * height + height - y - 1] = imageData[x + y * width];
-      }
-    }
-    return rotated;
+    return Collections.emptyList();
   }
+
   @Override
-  protected void onPostExecute(Result result) {
-    super.onPostExecute(result);
-    if (result != null) {
-      mDelegate.onBarCodeRead(result);
+  protected void onPostExecute(List<Result> results) {
+    super.onPostExecute(results);
+    if (results != null && !results.isEmpty()) {
+      if (mMultiBarCodeScanner != null) {
+        mDelegate.onBarCodesRead(results, mTransform);
+      } else {
+        mDelegate.onBarCodeRead(results.get(0), mTransform);
+      }
     }
     mDelegate.onBarCodeScanningTaskCompleted();
   }
-
-  private BinaryBitmap generateBitmapFromImageData(byte[] imageData, int width, int height) {
-    PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(
-        imageData, // byte[] yuvData
-        width, // int dataWidth
-        height, // int dataHeight
-        0, // int left
-        0, // int top
-        width, // int width
-        height, // int height
-        false // boolean reverseHorizontal
-    );
-    return new BinaryBitmap(new HybridBinarizer(source));
-  }
 }
@@ -2,7 +2,16 @@ package org.reactnative.camera.tasks;
 
 import com.google.zxing.Result;
 
+import org.reactnative.barcodescanner.FrameTransform;
+
+import java.util.List;
+
 public interface BarCodeScannerAsyncTaskDelegate {
-  void onBarCodeRead(Result barCode);
+  /**
+   * @param transform maps the result points, in frame pixels, into the view, or null if the
+   *                  view was not laid out yet
+   */
+  void onBarCodeRead(Result barCode, FrameTransform transform);
+  void onBarCodesRead(List<Result> barCodes, FrameTransform transform);
   void onBarCodeScanningTaskCompleted();
 }
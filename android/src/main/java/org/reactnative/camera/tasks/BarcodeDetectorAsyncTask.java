@@ -2,13 +2,13 @@ package org.reactnative.camera.tasks;
 
 import android.util.SparseArray;
 import com.google.android.gms.vision.barcode.Barcode;
+import org.reactnative.frame.PreviewBuffer;
 import org.reactnative.frame.RNFrame;
-import org.reactnative.frame.RNFrameFactory;
 import org.reactnative.barcodedetector.RNBarcodeDetector;
 
 public class BarcodeDetectorAsyncTask extends android.os.AsyncTask<Void, Void, SparseArray<Barcode>> {
 
-  private byte[] mImageData;
+  private PreviewBuffer mFrame;
   private int mWidth;
   private int mHeight;
   private int mRotation;
@@ -18,26 +18,27 @@ public class BarcodeDetectorAsyncTask extends android.os.AsyncTask<Void, Void, S
   public BarcodeDetectorAsyncTask(
       BarcodeDetectorAsyncTaskDelegate delegate,
       RNBarcodeDetector barcodeDetector,
-      byte[] imageData,
-      int width,
-      int height,
-      int rotation
+      PreviewBuffer frame
   ) {
-    mImageData = imageData;
-    mWidth = width;
-    mHeight = height;
-    mRotation = rotation;
+    mFrame = frame;
+    mWidth = frame.getWidth();
+    mHeight = frame.getHeight();
+    mRotation = frame.getRotation();
     mDelegate = delegate;
     mBarcodeDetector = barcodeDetector;
   }
 
   @Override
   protected SparseArray<Barcode> doInBackground(Void... ignored) {
-    if (isCancelled() || mDelegate == null || mBarcodeDetector == null || !mBarcodeDetector.isOperational()) {
+    DetectorExecutors.applyThreadPriority();
+    if (isCancelled() || mDelegate == null || mBarcodeDetector == null) {
       return null;
     }
 
-    RNFrame frame = RNFrameFactory.buildFrame(mImageData, mWidth, mHeight, mRotation);
+    RNFrame frame = mFrame.getFrame();
+    if (!mBarcodeDetector.isOperational(frame)) {
+      return null;
+    }
     return mBarcodeDetector.detect(frame);
   }
 
@@ -0,0 +1,104 @@
+package org.reactnative.camera.tasks;
+
+import android.os.Process;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the frame detectors, one per detector type and shared by every camera view.
+ * Running detectors on {@code AsyncTask.execute()} serialized them with each other and with
+ * every other AsyncTask in the app; separate pools let them run concurrently.
+ * <p>
+ * A frame detector executor whose queue is full rejects the task with a
+ * {@link java.util.concurrent.RejectedExecutionException}, which {@link org.reactnative.frame.FrameScheduler}
+ * counts as a dropped frame. Running it on the caller instead would run detectors on the UI thread.
+ */
+
+public class DetectorExecutors {
+  // a view never has more than one frame per detector in flight, so more threads would not help it
+  private static final int FRAME_THREAD_COUNT = 1;
+  private static final int MAX_THREAD_COUNT = 4;
+  private static final int QUEUE_CAPACITY = 8;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private static volatile int sThreadPriority = Process.THREAD_PRIORITY_BACKGROUND;
+
+  public static final ThreadPoolExecutor BAR_CODE_SCANNER = createFrameExecutor("BarCodeScanner");
+  public static final ThreadPoolExecutor FACE_DETECTOR = createFrameExecutor("FaceDetector");
+  public static final ThreadPoolExecutor BARCODE_DETECTOR = createFrameExecutor("BarcodeDetector");
+  public static final ThreadPoolExecutor TEXT_RECOGNIZER = createFrameExecutor("TextRecognizer");
+
+  /**
+   * Decodes the tiles of multi barcode scanning, sized to the number of cores. Tiles are submitted from a detector thread, which decodes a tile
+   * itself when the queue is full.
+   */
+  public static final ThreadPoolExecutor BAR_CODE_TILES = createExecutor("BarCodeTiles", new ThreadPoolExecutor.CallerRunsPolicy(),
+      Math.max(1, Math.min(MAX_THREAD_COUNT, Runtime.getRuntime().availableProcessors())));
+
+  /**
+   * Scans image files for barcodes, shared by every scanBarcodesFromImages call and likewise sized to the
+   * number of cores.
+   */
+  public static final ThreadPoolExecutor IMAGE_BAR_CODE_SCANNER = createExecutor("ImageBarCodeScanner", new ThreadPoolExecutor.CallerRunsPolicy(),
+      Math.max(1, Math.min(MAX_THREAD_COUNT, Runtime.getRuntime().availableProcessors())));
+
+  /**
+   * Detects faces in image files, shared by every detectFacesInImages call and likewise sized to the
+   * number of cores.
+   */
+  public static final ThreadPoolExecutor IMAGE_FACE_DETECTOR = createExecutor("ImageFaceDetector", new ThreadPoolExecutor.CallerRunsPolicy(),
+      Math.max(1, Math.min(MAX_THREAD_COUNT, Runtime.getRuntime().availableProcessors())));
+
+  /**
+   * Sets the Linux thread priority detector tasks run with, see {@link Process#setThreadPriority(int)}.
+   * Applied at the start of every task, so it also affects threads that are already running. The
+   * executors are shared by every camera view, so this is a module setting rather than a view prop.
+   */
+  public static void setThreadPriority(int threadPriority) {
+    sThreadPriority = Math.max(Process.THREAD_PRIORITY_URGENT_AUDIO,
+        Math.min(Process.THREAD_PRIORITY_LOWEST, threadPriority));
+  }
+
+  /**
+   * Applies the priority set by {@link #setThreadPriority(int)} to the calling thread. AsyncTask
+   * sets {@code THREAD_PRIORITY_BACKGROUND} when its body starts, after the executor applied the
+   * priority, so detector AsyncTasks call this first thing in {@code doInBackground}.
+   */
+  public static void applyThreadPriority() {
+    Process.setThreadPriority(sThreadPriority);
+  }
+
+  private static ThreadPoolExecutor createFrameExecutor(String name) {
+    return createExecutor(name, new ThreadPoolExecutor.AbortPolicy(), FRAME_THREAD_COUNT);
+  }
+
+  private static ThreadPoolExecutor createExecutor(final String name, RejectedExecutionHandler rejectedHandler,
+      int threadCount) {
+    ThreadFactory threadFactory = new ThreadFactory() {
+      private final AtomicInteger mCount = new AtomicInteger(1);
+
+      @Override
+      public Thread newThread(Runnable runnable) {
+        return new Thread(runnable, "RNCamera-" + name + "-" + mCount.getAndIncrement());
+      }
+    };
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+        KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY),
+        threadFactory, rejectedHandler) {
+      @Override
+      protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        // runs on the worker thread itself, for plain runnables; AsyncTasks call applyThreadPriority()
+        applyThreadPriority();
+      }
+    };
+    // every view keeps at most one task per detector in flight, so idle pools can shrink to zero
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+}
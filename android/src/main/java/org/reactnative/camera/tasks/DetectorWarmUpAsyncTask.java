@@ -0,0 +1,73 @@
+package org.reactnative.camera.tasks;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.reactnative.frame.RNFrame;
+import org.reactnative.frame.RNFrameFactory;
+
+/**
+ * Builds a Google Vision detector and runs a blank frame through it, so that loading its native
+ * code and models does not delay the first preview frame. Run it on the executor of the detector,
+ * ahead of its frames.
+ */
+
+public class DetectorWarmUpAsyncTask extends android.os.AsyncTask<Void, Void, Boolean> {
+  private static final String TAG = "DetectorWarmUp";
+
+  public interface WarmUp {
+    /**
+     * @return whether the detector is operational
+     */
+    boolean warmUp(RNFrame frame);
+  }
+
+  private final DetectorWarmUpAsyncTaskDelegate mDelegate;
+  private final String mDetector;
+  private final WarmUp mWarmUp;
+  private final int mWidth;
+  private final int mHeight;
+  private final int mRotation;
+  private long mDurationMs;
+
+  /**
+   * The blank frame has the given dimensions, those of the preview frames if known, so that the
+   * detector built for it is the one preview frames use.
+   */
+  public DetectorWarmUpAsyncTask(
+      DetectorWarmUpAsyncTaskDelegate delegate,
+      String detector,
+      WarmUp warmUp,
+      int width,
+      int height,
+      int rotation
+  ) {
+    mDelegate = delegate;
+    mDetector = detector;
+    mWarmUp = warmUp;
+    mWidth = width;
+    mHeight = height;
+    mRotation = rotation;
+  }
+
+  @Override
+  protected Boolean doInBackground(Void... ignored) {
+    DetectorExecutors.applyThreadPriority();
+    long start = SystemClock.elapsedRealtime();
+    try {
+      RNFrame frame = RNFrameFactory.buildFrame(new byte[mWidth * mHeight * 3 / 2], mWidth, mHeight, mRotation);
+      return mWarmUp.warmUp(frame);
+    } catch (RuntimeException e) {
+      Log.w(TAG, "Warming up " + mDetector + " failed.", e);
+      return false;
+    } finally {
+      mDurationMs = SystemClock.elapsedRealtime() - start;
+    }
+  }
+
+  @Override
+  protected void onPostExecute(Boolean operational) {
+    super.onPostExecute(operational);
+    mDelegate.onDetectorWarmedUp(mDetector, operational, mDurationMs);
+  }
+}
@@ -0,0 +1,5 @@
+package org.reactnative.camera.tasks;
+
+public interface DetectorWarmUpAsyncTaskDelegate {
+  void onDetectorWarmedUp(String detector, boolean operational, long durationMs);
+}
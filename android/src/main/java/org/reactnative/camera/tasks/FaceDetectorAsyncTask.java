@@ -2,42 +2,60 @@ package org.reactnative.camera.tasks;
 
 import android.util.SparseArray;
 import com.google.android.gms.vision.face.Face;
+import org.reactnative.frame.PreviewBuffer;
 import org.reactnative.frame.RNFrame;
-import org.reactnative.frame.RNFrameFactory;
+import org.reactnative.facedetector.FaceTracker;
 import org.reactnative.facedetector.RNFaceDetector;
 
 public class FaceDetectorAsyncTask extends android.os.AsyncTask<Void, Void, SparseArray<Face>> {
-  private byte[] mImageData;
+  private PreviewBuffer mFrame;
   private int mWidth;
   private int mHeight;
   private int mRotation;
   private RNFaceDetector mFaceDetector;
+  private FaceTracker mFaceTracker;
   private FaceDetectorAsyncTaskDelegate mDelegate;
 
   public FaceDetectorAsyncTask(
       FaceDetectorAsyncTaskDelegate delegate,
       RNFaceDetector faceDetector,
-      byte[] imageData,
-      int width,
-      int height,
-      int rotation
+      FaceTracker faceTracker,
+      PreviewBuffer frame
   ) {
-    mImageData = imageData;
-    mWidth = width;
-    mHeight = height;
-    mRotation = rotation;
+    mFrame = frame;
+    mWidth = frame.getWidth();
+    mHeight = frame.getHeight();
+    mRotation = frame.getRotation();
     mDelegate = delegate;
     mFaceDetector = faceDetector;
+    mFaceTracker = faceTracker;
   }
 
   @Override
   protected SparseArray<Face> doInBackground(Void... ignored) {
-    if (isCancelled() || mDelegate == null || mFaceDetector == null || !mFaceDetector.isOperational()) {
+    DetectorExecutors.applyThreadPriority();
+    if (isCancelled() || mDelegate == null || mFaceDetector == null) {
       return null;
     }
 
-    RNFrame frame = RNFrameFactory.buildFrame(mImageData, mWidth, mHeight, mRotation);
-    return mFaceDetector.detect(frame);
+    if (mFaceTracker != null && !mFaceTracker.shouldDetect(mWidth, mHeight, mRotation)) {
+      SparseArray<Face> trackedFaces = mFaceTracker.track(mFrame.getData(), mWidth, mHeight, mRotation);
+      if (trackedFaces != null) {
+        return trackedFaces;
+      }
+      // a face got lost, fall back to the detector for this frame
+    }
+
+    RNFrame frame = mFrame.getFrame();
+    if (!mFaceDetector.isOperational(frame)) {
+      return null;
+    }
+
+    SparseArray<Face> faces = mFaceDetector.detect(frame);
+    if (mFaceTracker != null) {
+      mFaceTracker.onDetected(faces, mFrame.getData(), mWidth, mHeight, mRotation);
+    }
+    return faces;
   }
 
   @Override
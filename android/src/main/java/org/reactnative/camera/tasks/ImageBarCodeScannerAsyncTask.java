@@ -0,0 +1,264 @@
+package org.reactnative.camera.tasks;
+
+import android.content.Context;
+import android.graphics.Point;
+import android.util.Log;
+import android.util.SparseArray;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.google.android.gms.vision.barcode.Barcode;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+
+import org.reactnative.barcodedetector.BarcodeFormatUtils;
+import org.reactnative.barcodedetector.RNBarcodeDetector;
+import org.reactnative.barcodescanner.ImageBarCodeScanner;
+import org.reactnative.camera.utils.SampledImage;
+import org.reactnative.frame.RNFrameFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Scans a list of images for barcodes, at most maxConcurrency images at a time, and resolves
+ * with one entry per image in the order given. An image that cannot be read gets an error entry
+ * instead of failing the whole batch.
+ */
+
+public class ImageBarCodeScannerAsyncTask extends android.os.AsyncTask<Void, Void, WritableArray> {
+  private static final String ERROR_TAG = "E_BARCODE_SCANNING_FAILED";
+
+  private final Context mContext;
+  private final List<String> mUris;
+  private final ImageBarCodeScanner mScanner;
+  private final int mMaxConcurrency;
+  private final boolean mUseGoogleVision;
+  private final Promise mPromise;
+  // guards mRunningTasks and mAborted, detectors are only released once no task can still use one
+  private final Object mTaskLock = new Object();
+  private int mRunningTasks;
+  private boolean mAborted;
+
+  public ImageBarCodeScannerAsyncTask(Context context, List<String> uris, ImageBarCodeScanner scanner,
+                                      int maxConcurrency, boolean useGoogleVision, Promise promise) {
+    mContext = context;
+    mUris = uris;
+    mScanner = scanner;
+    mMaxConcurrency = maxConcurrency;
+    mUseGoogleVision = useGoogleVision;
+    mPromise = promise;
+  }
+
+  @Override
+  protected WritableArray doInBackground(Void... ignored) {
+    int concurrency = Math.max(1, Math.min(Math.min(mMaxConcurrency, mUris.size()),
+        DetectorExecutors.IMAGE_BAR_CODE_SCANNER.getMaximumPoolSize()));
+    // Google Vision detectors are not thread safe, one per image in flight
+    BlockingQueue<RNBarcodeDetector> detectors = null;
+    if (mUseGoogleVision) {
+      detectors = new ArrayBlockingQueue<>(concurrency);
+      for (int i = 0; i < concurrency; i++) {
+        detectors.add(new RNBarcodeDetector(mContext));
+      }
+    }
+
+    CompletionService<Integer> completionService = new ExecutorCompletionService<>(DetectorExecutors.IMAGE_BAR_CODE_SCANNER);
+    // each image writes its own slot, published to this thread by the completion service
+    WritableMap[] results = new WritableMap[mUris.size()];
+    List<Future<Integer>> futures = new ArrayList<>(mUris.size());
+    boolean finished = false;
+    try {
+      int submitted = 0;
+      int completed = 0;
+      while (completed < mUris.size()) {
+        // keep at most concurrency decoded images in memory
+        while (submitted < mUris.size() && submitted - completed < concurrency) {
+          futures.add(completionService.submit(new ScanTask(submitted, results, detectors)));
+          submitted++;
+        }
+        completionService.take().get();
+        completed++;
+      }
+      finished = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      Log.e(ERROR_TAG, "Scanning images failed.", e);
+      return null;
+    } finally {
+      if (!finished) {
+        abortTasks(futures);
+      }
+      if (detectors != null) {
+        for (RNBarcodeDetector detector : detectors) {
+          detector.release();
+        }
+      }
+    }
+
+    WritableArray images = Arguments.createArray();
+    for (WritableMap result : results) {
+      images.pushMap(result);
+    }
+    return images;
+  }
+
+  @Override
+  protected void onPostExecute(WritableArray images) {
+    super.onPostExecute(images);
+    if (images == null) {
+      mPromise.reject(ERROR_TAG, "Scanning images for barcodes failed.");
+    } else {
+      mPromise.resolve(images);
+    }
+  }
+
+  /**
+   * Cancels the images not started yet and waits for the running ones, which may hold a detector.
+   * Cancelled futures are done right away, even while their task still runs, so waiting on them
+   * would not do.
+   */
+  private void abortTasks(List<Future<Integer>> futures) {
+    synchronized (mTaskLock) {
+      mAborted = true;
+    }
+    for (Future<Integer> future : futures) {
+      future.cancel(true);
+    }
+    // wait uninterruptibly, the caller may have been interrupted already
+    boolean interrupted = Thread.interrupted();
+    synchronized (mTaskLock) {
+      while (mRunningTasks > 0) {
+        try {
+          mTaskLock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private class ScanTask implements Callable<Integer> {
+    private final int mIndex;
+    private final WritableMap[] mResults;
+    private final BlockingQueue<RNBarcodeDetector> mDetectors;
+
+    ScanTask(int index, WritableMap[] results, BlockingQueue<RNBarcodeDetector> detectors) {
+      mIndex = index;
+      mResults = results;
+      mDetectors = detectors;
+    }
+
+    @Override
+    public Integer call() throws InterruptedException {
+      synchronized (mTaskLock) {
+        if (mAborted) {
+          return mIndex;
+        }
+        mRunningTasks++;
+      }
+      try {
+        return scan();
+      } finally {
+        synchronized (mTaskLock) {
+          mRunningTasks--;
+          mTaskLock.notifyAll();
+        }
+      }
+    }
+
+    private Integer scan() throws InterruptedException {
+      String uri = mUris.get(mIndex);
+      WritableMap result = Arguments.createMap();
+      result.putString("uri", uri);
+      try {
+        SampledImage image = mScanner.load(uri);
+        try {
+          result.putInt("width", image.getWidth());
+          result.putInt("height", image.getHeight());
+          WritableArray barcodes = Arguments.createArray();
+          List<Result> barCodes = mScanner.scan(image);
+          for (Result barCode : barCodes) {
+            barcodes.pushMap(serializeBarCode(barCode));
+          }
+          if (barCodes.isEmpty() && mDetectors != null) {
+            RNBarcodeDetector detector = mDetectors.take();
+            try {
+              SparseArray<Barcode> detected = detector.detect(RNFrameFactory.buildFrame(image.getBitmap()));
+              for (int i = 0; i < detected.size(); i++) {
+                barcodes.pushMap(serializeBarcode(detected.valueAt(i), image.getScale()));
+              }
+            } finally {
+              // offer, unlike put, cannot be interrupted and lose the detector; there is always room
+              mDetectors.offer(detector);
+            }
+          }
+          result.putArray("barcodes", barcodes);
+        } finally {
+          image.getBitmap().recycle();
+        }
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) {
+          throw (InterruptedException) e;
+        }
+        Log.w(ERROR_TAG, "Scanning `" + uri + "` failed.", e);
+        result.putString("error", e.getMessage() != null ? e.getMessage() : e.toString());
+      }
+      mResults[mIndex] = result;
+      return mIndex;
+    }
+  }
+
+  private static WritableMap serializeBarCode(Result barCode) {
+    WritableMap map = Arguments.createMap();
+    map.putString("data", barCode.getText());
+    map.putString("type", barCode.getBarcodeFormat().toString());
+    WritableArray bounds = Arguments.createArray();
+    ResultPoint[] points = barCode.getResultPoints();
+    if (points != null) {
+      for (ResultPoint point : points) {
+        if (point != null) {
+          bounds.pushMap(serializePoint(point.getX(), point.getY()));
+        }
+      }
+    }
+    map.putArray("bounds", bounds);
+    return map;
+  }
+
+  private static WritableMap serializeBarcode(Barcode barcode, float scale) {
+    WritableMap map = Arguments.createMap();
+    map.putString("data", barcode.displayValue);
+    map.putString("type", BarcodeFormatUtils.get(barcode.format));
+    WritableArray bounds = Arguments.createArray();
+    if (barcode.cornerPoints != null) {
+      for (Point point : barcode.cornerPoints) {
+        bounds.pushMap(serializePoint(point.x * scale, point.y * scale));
+      }
+    }
+    map.putArray("bounds", bounds);
+    return map;
+  }
+
+  // strings, the way BarCodeReadEvent reports them
+  private static WritableMap serializePoint(float x, float y) {
+    WritableMap point = Arguments.createMap();
+    point.putString("x", String.valueOf(x));
+    point.putString("y", String.valueOf(y));
+    return point;
+  }
+}
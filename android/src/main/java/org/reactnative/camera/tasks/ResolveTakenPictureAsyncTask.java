@@ -8,8 +8,11 @@ import android.net.Uri;
 import android.os.AsyncTask;
 import android.support.media.ExifInterface;
 import android.util.Base64;
+import android.util.Base64OutputStream;
 
 import org.reactnative.camera.RNCameraViewHelper;
+import org.reactnative.camera.utils.Base64Utils;
+import org.reactnative.camera.utils.JpegExifUtils;
 import org.reactnative.camera.utils.RNFileUtils;
 
 import com.facebook.react.bridge.Arguments;
@@ -17,11 +20,15 @@ import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableMap;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, WritableMap> {
     private static final String ERROR_TAG = "E_TAKING_PICTURE_FAILED";
@@ -30,6 +37,9 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
     private ReadableMap mOptions;
     private File mCacheDirectory;
     private Bitmap mBitmap;
+    // bytes of the bitmaps alive at the moment and at most during this capture
+    private long mBitmapBytes;
+    private long mPeakBitmapBytes;
     private PictureSavedDelegate mPictureSavedDelegate;
 
     public ResolveTakenPictureAsyncTask(byte[] imageData, Promise promise, ReadableMap options, File cacheDirectory, PictureSavedDelegate delegate) {
@@ -74,9 +84,26 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
             return response;
         }
 
+        // Without pixel changes the camera's JPEG is kept as is, neither losing quality nor time
+        // to a decode and re-encode
+        if (!needsPixelChanges()) {
+            try {
+                if (resolveLossless(response)) {
+                    return response;
+                }
+            } catch (Resources.NotFoundException e) {
+                mPromise.reject(ERROR_TAG, "Documents directory of the app could not be found.", e);
+                e.printStackTrace();
+                return null;
+            } catch (IOException e) {
+                mPromise.reject(ERROR_TAG, "An unknown I/O exception has occurred.", e);
+                e.printStackTrace();
+                return null;
+            }
+        }
+
         // we need the stream only for photos from a device
         if (mBitmap == null) {
-            mBitmap = BitmapFactory.decodeByteArray(mImageData, 0, mImageData.length);
             inputStream = new ByteArrayInputStream(mImageData);
         }
 
@@ -86,19 +113,20 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
                 // Get orientation of the image from mImageData via inputStream
                 int orientation = exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION,
                         ExifInterface.ORIENTATION_UNDEFINED);
+                boolean fixOrientation = mOptions.hasKey("fixOrientation") && mOptions.getBoolean("fixOrientation")
+                        && orientation != ExifInterface.ORIENTATION_UNDEFINED;
 
-                // Rotate the bitmap to the proper orientation if needed
-                if (mOptions.hasKey("fixOrientation") && mOptions.getBoolean("fixOrientation") && orientation != ExifInterface.ORIENTATION_UNDEFINED) {
-                    mBitmap = rotateBitmap(mBitmap, getImageRotation(orientation));
+                mBitmap = decodeBitmap(mOptions.hasKey("width") ? mOptions.getInt("width") : 0,
+                        fixOrientation ? getImageRotation(orientation) : 0);
+                if (mBitmap == null) {
+                    throw new IOException("The picture could not be decoded.");
                 }
+                trackBitmap(mBitmap);
 
-                if (mOptions.hasKey("width")) {
-                    mBitmap = resizeBitmap(mBitmap, mOptions.getInt("width"));
-                }
-
-                if (mOptions.hasKey("mirrorImage") && mOptions.getBoolean("mirrorImage")) {
-                    mBitmap = flipHorizontally(mBitmap);
-                }
+                // Rotate the bitmap to the proper orientation, resize and mirror it, as needed, in one go
+                mBitmap = transformBitmap(mBitmap, fixOrientation ? getImageRotation(orientation) : 0,
+                        mOptions.hasKey("width") ? mOptions.getInt("width") : 0,
+                        mOptions.hasKey("mirrorImage") && mOptions.getBoolean("mirrorImage"));
 
                 // Write Exif data to the response if requested
                 if (mOptions.hasKey("exif") && mOptions.getBoolean("exif")) {
@@ -111,25 +139,44 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
             response.putInt("width", mBitmap.getWidth());
             response.putInt("height", mBitmap.getHeight());
 
-            // Cache compressed image in imageStream
-            ByteArrayOutputStream imageStream = new ByteArrayOutputStream();
-            mBitmap.compress(Bitmap.CompressFormat.JPEG, getQuality(), imageStream);
+            // Compress straight into the file in cache directory unless otherwise specified. The
+            // base64 string is encoded once the bitmap is gone, from the file or, without one, from
+            // the compressed bytes, so the bitmap and the encoding are never in memory together
+            boolean save = !mOptions.hasKey("doNotSave") || !mOptions.getBoolean("doNotSave");
+            boolean base64 = mOptions.hasKey("base64") && mOptions.getBoolean("base64");
+            File imageFile = null;
+            ByteArrayOutputStream jpegBytes = null;
+            OutputStream imageStream = null;
+            if (save) {
+                imageFile = new File(RNFileUtils.getOutputFilePath(mCacheDirectory, ".jpg"));
+                imageStream = new BufferedOutputStream(new FileOutputStream(imageFile));
+            } else if (base64) {
+                jpegBytes = new ByteArrayOutputStream();
+                imageStream = jpegBytes;
+            }
+            if (imageStream != null) {
+                try {
+                    if (!mBitmap.compress(Bitmap.CompressFormat.JPEG, getQuality(), imageStream)) {
+                        throw new IOException("The picture could not be encoded.");
+                    }
+                } finally {
+                    imageStream.close();
+                }
+            }
+            recycleBitmap(mBitmap);
+            mBitmap = null;
+            putPeakBitmapBytes(response);
 
-            // Write compressed image to file in cache directory unless otherwise specified
-            if (!mOptions.hasKey("doNotSave") || !mOptions.getBoolean("doNotSave")) {
-                String filePath = writeStreamToFile(imageStream);
-                File imageFile = new File(filePath);
-                String fileUri = Uri.fromFile(imageFile).toString();
-                response.putString("uri", fileUri);
+            if (imageFile != null) {
+                response.putString("uri", Uri.fromFile(imageFile).toString());
             }
 
             // Write base64-encoded image to the response if requested
-            if (mOptions.hasKey("base64") && mOptions.getBoolean("base64")) {
-                response.putString("base64", Base64.encodeToString(imageStream.toByteArray(), Base64.NO_WRAP));
+            if (base64) {
+                response.putString("base64", imageFile != null ? encodeBase64(imageFile) : encodeBase64(jpegBytes));
             }
 
             // Cleanup
-            imageStream.close();
             if (inputStream != null) {
                 inputStream.close();
                 inputStream = null;
@@ -143,6 +190,10 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
             mPromise.reject(ERROR_TAG, "An unknown I/O exception has occurred.", e);
             e.printStackTrace();
         } finally {
+            if (mBitmap != null) {
+                recycleBitmap(mBitmap);
+                mBitmap = null;
+            }
             try {
                 if (inputStream != null) {
                     inputStream.close();
@@ -156,24 +207,153 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
         return null;
     }
 
-    private Bitmap rotateBitmap(Bitmap source, int angle) {
-        Matrix matrix = new Matrix();
-        matrix.postRotate(angle);
-        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    private boolean needsPixelChanges() {
+        return mOptions.hasKey("width")
+                || (mOptions.hasKey("mirrorImage") && mOptions.getBoolean("mirrorImage"))
+                || getQuality() < 100;
     }
 
-    private Bitmap resizeBitmap(Bitmap bm, int newWidth) {
-        int width = bm.getWidth();
-        int height = bm.getHeight();
-        float scaleRatio = (float) newWidth / (float) width;
+    /**
+     * Writes the camera's JPEG unchanged, except that its EXIF and XMP metadata is left out like a
+     * re-encoded picture leaves it out, so no GPS location, thumbnail or orientation tag is kept
+     * that the old output did not have. Turning the pixels
+     * upright losslessly would take rotating the JPEG's DCT blocks (as jpegtran does), which
+     * Android has no API for, so a picture that needs fixOrientation to rotate it still goes through
+     * a bitmap.
+     *
+     * @return false if the picture has to be decoded after all
+     */
+    private boolean resolveLossless(WritableMap response) throws IOException {
+        ExifInterface exifInterface = new ExifInterface(new ByteArrayInputStream(mImageData));
+        int orientation = exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                ExifInterface.ORIENTATION_UNDEFINED);
+        if (mOptions.hasKey("fixOrientation") && mOptions.getBoolean("fixOrientation")
+                && getImageRotation(orientation) != 0) {
+            return false;
+        }
+        int[] metadataSegments = JpegExifUtils.findMetadataSegments(mImageData);
+        if (metadataSegments == null) {
+            return false;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(mImageData, 0, mImageData.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return false;
+        }
+        response.putInt("width", options.outWidth);
+        response.putInt("height", options.outHeight);
+
+        if (mOptions.hasKey("exif") && mOptions.getBoolean("exif")) {
+            response.putMap("exif", RNCameraViewHelper.getExifData(exifInterface));
+        }
+
+        if (!mOptions.hasKey("doNotSave") || !mOptions.getBoolean("doNotSave")) {
+            File imageFile = new File(RNFileUtils.getOutputFilePath(mCacheDirectory, ".jpg"));
+            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(imageFile));
+            try {
+                JpegExifUtils.write(mImageData, metadataSegments, outputStream);
+            } finally {
+                outputStream.close();
+            }
+            response.putString("uri", Uri.fromFile(imageFile).toString());
+        }
+
+        if (mOptions.hasKey("base64") && mOptions.getBoolean("base64")) {
+            ByteArrayOutputStream base64Bytes =
+                    Base64Utils.newBuffer(JpegExifUtils.getWrittenLength(mImageData, metadataSegments));
+            OutputStream base64Stream = new Base64OutputStream(base64Bytes, Base64.NO_WRAP);
+            try {
+                JpegExifUtils.write(mImageData, metadataSegments, base64Stream);
+            } finally {
+                // closing the encoder flushes its last bytes
+                base64Stream.close();
+            }
+            response.putString("base64", base64Bytes.toString("US-ASCII"));
+        }
+        putPeakBitmapBytes(response);
+        return true;
+    }
 
-        return Bitmap.createScaledBitmap(bm, newWidth, (int) (height * scaleRatio), true);
+    /**
+     * Decodes the picture subsampled, by a power of two, as far as it stays at least targetWidth wide
+     * once rotated, so that a small width never takes the full resolution bitmap in memory. The exact
+     * width is scaled to afterwards.
+     *
+     * @param targetWidth 0 decodes the full resolution
+     */
+    private Bitmap decodeBitmap(int targetWidth, int rotation) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        if (targetWidth > 0) {
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(mImageData, 0, mImageData.length, options);
+            int width = rotation == 90 || rotation == 270 ? options.outHeight : options.outWidth;
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = 1;
+            while (width / (options.inSampleSize * 2) >= targetWidth) {
+                options.inSampleSize *= 2;
+            }
+        }
+        return BitmapFactory.decodeByteArray(mImageData, 0, mImageData.length, options);
     }
 
-    private Bitmap flipHorizontally(Bitmap source) {
+    /**
+     * Rotates, then scales to targetWidth, then mirrors the bitmap with a single matrix, so that no
+     * full size intermediate bitmap is created for every step. The source is recycled.
+     *
+     * @param targetWidth 0 keeps the size
+     */
+    private Bitmap transformBitmap(Bitmap source, int rotation, int targetWidth, boolean mirror) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean swapped = rotation == 90 || rotation == 270;
+        float rotatedWidth = swapped ? height : width;
+        float rotatedHeight = swapped ? width : height;
+
         Matrix matrix = new Matrix();
-        matrix.preScale(-1.0f, 1.0f);
-        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+        if (rotation != 0) {
+            matrix.postRotate(rotation);
+        }
+        if (targetWidth > 0 && targetWidth != rotatedWidth) {
+            float scaleX = targetWidth / rotatedWidth;
+            // same rounding as resizing to (targetWidth, (int) (rotatedHeight * scaleX)) did
+            float scaleY = Math.max(1, (int) (rotatedHeight * scaleX)) / rotatedHeight;
+            matrix.postScale(scaleX, scaleY);
+        }
+        if (mirror) {
+            matrix.postScale(-1.0f, 1.0f);
+        }
+        if (matrix.isIdentity()) {
+            return source;
+        }
+
+        Bitmap transformed = Bitmap.createBitmap(source, 0, 0, width, height, matrix, true);
+        if (transformed != source) {
+            trackBitmap(transformed);
+            recycleBitmap(source);
+        }
+        return transformed;
+    }
+
+    /**
+     * Writes the most bitmap memory the capture held at once to the response if requested, 0 for a
+     * picture that was never decoded.
+     */
+    private void putPeakBitmapBytes(WritableMap response) {
+        if (mOptions.hasKey("peakBitmapBytes") && mOptions.getBoolean("peakBitmapBytes")) {
+            response.putDouble("peakBitmapBytes", mPeakBitmapBytes);
+        }
+    }
+
+    private void trackBitmap(Bitmap bitmap) {
+        mBitmapBytes += bitmap.getByteCount();
+        mPeakBitmapBytes = Math.max(mPeakBitmapBytes, mBitmapBytes);
+    }
+
+    private void recycleBitmap(Bitmap bitmap) {
+        mBitmapBytes -= bitmap.getByteCount();
+        bitmap.recycle();
     }
 
     // Get rotation degrees from Exif orientation enum
@@ -194,35 +374,6 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
         return rotationDegrees;
     }
 
-    private String writeStreamToFile(ByteArrayOutputStream inputStream) throws IOException {
-        String outputPath = null;
-        IOException exception = null;
-        FileOutputStream outputStream = null;
-
-        try {
-            outputPath = RNFileUtils.getOutputFilePath(mCacheDirectory, ".jpg");
-            outputStream = new FileOutputStream(outputPath);
-            inputStream.writeTo(outputStream);
-        } catch (IOException e) {
-            e.printStackTrace();
-            exception = e;
-        } finally {
-            try {
-                if (outputStream != null) {
-                    outputStream.close();
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-
-        if (exception != null) {
-            throw exception;
-        }
-
-        return outputPath;
-    }
-
     @Override
     protected void onPostExecute(WritableMap response) {
         super.onPostExecute(response);
@@ -240,4 +391,35 @@ public class ResolveTakenPictureAsyncTask extends AsyncTask<Void, Void, Writable
         }
     }
 
+    private static String encodeBase64(File file) throws IOException {
+        ByteArrayOutputStream base64Bytes = Base64Utils.newBuffer(file.length());
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            OutputStream base64Stream = new Base64OutputStream(base64Bytes, Base64.NO_WRAP);
+            try {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    base64Stream.write(buffer, 0, read);
+                }
+            } finally {
+                // closing the encoder flushes its last bytes
+                base64Stream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+        return base64Bytes.toString("US-ASCII");
+    }
+
+    private static String encodeBase64(ByteArrayOutputStream bytes) throws IOException {
+        ByteArrayOutputStream base64Bytes = Base64Utils.newBuffer(bytes.size());
+        OutputStream base64Stream = new Base64OutputStream(base64Bytes, Base64.NO_WRAP);
+        try {
+            bytes.writeTo(base64Stream);
+        } finally {
+            base64Stream.close();
+        }
+        return base64Bytes.toString("US-ASCII");
+    }
 }
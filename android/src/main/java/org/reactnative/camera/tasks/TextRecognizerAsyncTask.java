@@ -3,44 +3,40 @@ package org.reactnative.camera.tasks;
 import android.util.SparseArray;
 
 import com.google.android.gms.vision.text.TextBlock;
-import com.google.android.gms.vision.text.TextRecognizer;
-import org.reactnative.frame.RNFrame;
-import org.reactnative.frame.RNFrameFactory;
+import org.reactnative.frame.PreviewBuffer;
+import org.reactnative.textrecognizer.RNTextRecognizer;
 
 
 public class TextRecognizerAsyncTask extends android.os.AsyncTask<Void, Void, SparseArray<TextBlock>> {
 
   private TextRecognizerAsyncTaskDelegate mDelegate;
-  private TextRecognizer mTextRecognizer;
-  private byte[] mImageData;
+  private RNTextRecognizer mTextRecognizer;
+  private PreviewBuffer mFrame;
   private int mWidth;
   private int mHeight;
   private int mRotation;
 
   public TextRecognizerAsyncTask(
       TextRecognizerAsyncTaskDelegate delegate,
-      TextRecognizer textRecognizer,
-      byte[] imageData,
-      int width,
-      int height,
-      int rotation
+      RNTextRecognizer textRecognizer,
+      PreviewBuffer frame
   ) {
     mDelegate = delegate;
     mTextRecognizer = textRecognizer;
-    mImageData = imageData;
-    mWidth = width;
-    mHeight = height;
-    mRotation = rotation;
+    mFrame = frame;
+    mWidth = frame.getWidth();
+    mHeight = frame.getHeight();
+    mRotation = frame.getRotation();
   }
 
   @Override
   protected SparseArray<TextBlock> doInBackground(Void... ignored) {
+    DetectorExecutors.applyThreadPriority();
     if (isCancelled() || mDelegate == null || mTextRecognizer == null || !mTextRecognizer.isOperational()) {
       return null;
     }
 
-    RNFrame frame = RNFrameFactory.buildFrame(mImageData, mWidth, mHeight, mRotation);
-    return mTextRecognizer.detect(frame.getFrame());
+    return mTextRecognizer.detect(mFrame.getFrame());
   }
 
   @Override
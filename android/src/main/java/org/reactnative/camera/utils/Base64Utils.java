@@ -0,0 +1,30 @@
+package org.reactnative.camera.utils;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Sizes the buffers base64 strings are encoded into. A buffer of the exact encoded size never
+ * grows, so the encoding is held once in it and once more in the resulting string, rather than in
+ * the discarded arrays of a growing buffer as well.
+ */
+
+public class Base64Utils {
+
+    /**
+     * @return the length of the unwrapped, padded base64 encoding of byteCount bytes
+     */
+    public static int encodedLength(long byteCount) {
+        long length = (byteCount + 2) / 3 * 4;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too large to encode: " + byteCount + " bytes.");
+        }
+        return (int) length;
+    }
+
+    /**
+     * @return a buffer for the unwrapped base64 encoding of byteCount bytes
+     */
+    public static ByteArrayOutputStream newBuffer(long byteCount) {
+        return new ByteArrayOutputStream(encodedLength(byteCount));
+    }
+}
@@ -0,0 +1,184 @@
+package org.reactnative.camera.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matches the blocks of consecutive recognitions, so that a block keeps its id while it stays
+ * in view and only the blocks that appeared, disappeared or changed have to be reported.
+ * A block matches a previous one with the same text that overlaps it, or one it mostly overlaps
+ * when the recognized text changed. Blocks are read through an {@link Adapter}, so any block type
+ * can be tracked.
+ */
+
+public class BlockTracker<B> {
+  // overlap (intersection over union) above which a block with other text is still the same block
+  private static final float MATCH_OVERLAP = 0.5f;
+  // overlap above which a block with the same text counts as not moved
+  private static final float UNCHANGED_OVERLAP = 0.9f;
+
+  // ids are unique across trackers, so a block of a new tracker never reuses the id of an old one
+  private static final AtomicInteger sNextId = new AtomicInteger();
+
+  public interface Adapter<B> {
+    String getText(B block);
+
+    /**
+     * @return the bounds as left, top, right and bottom, or null if unknown
+     */
+    int[] getBounds(B block);
+  }
+
+  /**
+   * Blocks are keyed by their stable id, in the order they were recognized.
+   */
+  public static class Changes<B> {
+    private final Map<Integer, B> mAdded = new LinkedHashMap<>();
+    private final Map<Integer, B> mChanged = new LinkedHashMap<>();
+    private final List<Integer> mRemoved = new ArrayList<>();
+
+    public Map<Integer, B> getAdded() {
+      return mAdded;
+    }
+
+    public Map<Integer, B> getChanged() {
+      return mChanged;
+    }
+
+    public List<Integer> getRemoved() {
+      return mRemoved;
+    }
+
+    public boolean isEmpty() {
+      return mAdded.isEmpty() && mChanged.isEmpty() && mRemoved.isEmpty();
+    }
+  }
+
+  private static class Match {
+    final int previousIndex;
+    final int currentIndex;
+    final float score;
+
+    Match(int previousIndex, int currentIndex, float score) {
+      this.previousIndex = previousIndex;
+      this.currentIndex = currentIndex;
+      this.score = score;
+    }
+  }
+
+  private final Adapter<B> mAdapter;
+  // the blocks as last reported, and their ids
+  private List<Integer> mIds = new ArrayList<>();
+  private List<B> mBlocks = new ArrayList<>();
+
+  public BlockTracker(Adapter<B> adapter) {
+    mAdapter = adapter;
+  }
+
+  public synchronized Changes<B> update(List<B> blocks) {
+    int previousCount = mBlocks.size();
+    int currentCount = blocks.size();
+
+    List<Match> matches = new ArrayList<>();
+    for (int i = 0; i < previousCount; i++) {
+      B previous = mBlocks.get(i);
+      for (int j = 0; j < currentCount; j++) {
+        B current = blocks.get(j);
+        float overlap = overlap(mAdapter.getBounds(previous), mAdapter.getBounds(current));
+        boolean sameText = sameText(previous, current);
+        if ((sameText && overlap > 0) || overlap >= MATCH_OVERLAP) {
+          // same text beats any overlap
+          matches.add(new Match(i, j, sameText ? 1 + overlap : overlap));
+        }
+      }
+    }
+    Collections.sort(matches, new Comparator<Match>() {
+      @Override
+      public int compare(Match a, Match b) {
+        return Float.compare(b.score, a.score);
+      }
+    });
+
+    Changes<B> changes = new Changes<>();
+    List<Integer> ids = new ArrayList<>(currentCount);
+    List<B> tracked = new ArrayList<>(currentCount);
+    boolean[] previousMatched = new boolean[previousCount];
+    boolean[] currentMatched = new boolean[currentCount];
+    for (Match match : matches) {
+      if (previousMatched[match.previousIndex] || currentMatched[match.currentIndex]) {
+        continue;
+      }
+      previousMatched[match.previousIndex] = true;
+      currentMatched[match.currentIndex] = true;
+      int id = mIds.get(match.previousIndex);
+      B current = blocks.get(match.currentIndex);
+      ids.add(id);
+      if (match.score < 1 + UNCHANGED_OVERLAP) {
+        tracked.add(current);
+        changes.mChanged.put(id, current);
+      } else {
+        // keep comparing with the reported position, so that slow drift adds up and gets reported
+        tracked.add(mBlocks.get(match.previousIndex));
+      }
+    }
+    for (int i = 0; i < previousCount; i++) {
+      if (!previousMatched[i]) {
+        changes.mRemoved.add(mIds.get(i));
+      }
+    }
+    for (int j = 0; j < currentCount; j++) {
+      if (!currentMatched[j]) {
+        int id = sNextId.getAndIncrement();
+        B current = blocks.get(j);
+        ids.add(id);
+        tracked.add(current);
+        changes.mAdded.put(id, current);
+      }
+    }
+
+    mIds = ids;
+    mBlocks = tracked;
+    return changes;
+  }
+
+  /**
+   * Forgets every block.
+   *
+   * @return the removal of every block reported so far
+   */
+  public synchronized Changes<B> reset() {
+    Changes<B> changes = new Changes<>();
+    changes.mRemoved.addAll(mIds);
+    mIds = new ArrayList<>();
+    mBlocks = new ArrayList<>();
+    return changes;
+  }
+
+  private boolean sameText(B a, B b) {
+    String value = mAdapter.getText(a);
+    return value != null && value.equals(mAdapter.getText(b));
+  }
+
+  private static float overlap(int[] a, int[] b) {
+    if (a == null || b == null) {
+      return 0;
+    }
+    int width = Math.min(a[2], b[2]) - Math.max(a[0], b[0]);
+    int height = Math.min(a[3], b[3]) - Math.max(a[1], b[1]);
+    if (width <= 0 || height <= 0) {
+      return 0;
+    }
+    float intersection = (float) width * height;
+    float union = area(a) + area(b) - intersection;
+    return union > 0 ? intersection / union : 0;
+  }
+
+  private static float area(int[] bounds) {
+    return (float) (bounds[2] - bounds[0]) * (bounds[3] - bounds[1]);
+  }
+}
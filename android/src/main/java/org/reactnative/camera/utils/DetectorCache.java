@@ -0,0 +1,115 @@
+package org.reactnative.camera.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a few built Google Vision detectors keyed by image dimensions and configuration, so that
+ * switching back and forth between rotations, resolutions or settings does not rebuild a detector
+ * each time. Building one takes hundreds of milliseconds. The least recently used detector is
+ * released when the cache is full.
+ */
+
+public class DetectorCache<D> {
+  public interface Builder<D> {
+    D build();
+
+    /**
+     * Called once for every detector that leaves the cache, when evicted or cleared.
+     */
+    void release(D detector);
+  }
+
+  private final int mCapacity;
+  private final Builder<D> mBuilder;
+  private long mBuildCount;
+  private long mBuildTimeNanos;
+
+  // access ordered, so the eldest entry is the least recently used detector
+  private final LinkedHashMap<Key, D> mDetectors = new LinkedHashMap<Key, D>(4, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, D> eldest) {
+      if (size() > mCapacity) {
+        mBuilder.release(eldest.getValue());
+        return true;
+      }
+      return false;
+    }
+  };
+
+  public DetectorCache(int capacity, Builder<D> builder) {
+    mCapacity = capacity;
+    mBuilder = builder;
+  }
+
+  /**
+   * @param dimensions null for a detector shared by frames of any dimensions
+   * @param configuration compared with equals, must describe everything the builder is set up with
+   */
+  public synchronized D get(ImageDimensions dimensions, Object configuration) {
+    Key key = new Key(dimensions, configuration);
+    D detector = mDetectors.get(key);
+    if (detector == null) {
+      long start = System.nanoTime();
+      detector = mBuilder.build();
+      mBuildTimeNanos += System.nanoTime() - start;
+      mBuildCount++;
+      mDetectors.put(key, detector);
+    }
+    return detector;
+  }
+
+  /**
+   * @return the most recently used detector, or null when the cache is empty
+   */
+  public synchronized D getMostRecent() {
+    D detector = null;
+    for (D cached : mDetectors.values()) {
+      detector = cached;
+    }
+    return detector;
+  }
+
+  public synchronized void clear() {
+    Iterator<D> iterator = mDetectors.values().iterator();
+    while (iterator.hasNext()) {
+      D detector = iterator.next();
+      iterator.remove();
+      mBuilder.release(detector);
+    }
+  }
+
+  public synchronized long getBuildCount() {
+    return mBuildCount;
+  }
+
+  public synchronized double getBuildTimeMs() {
+    return mBuildTimeNanos / 1e6;
+  }
+
+  static final class Key {
+    private final ImageDimensions mDimensions;
+    private final Object mConfiguration;
+
+    Key(ImageDimensions dimensions, Object configuration) {
+      mDimensions = dimensions;
+      mConfiguration = configuration;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return (mDimensions == null ? other.mDimensions == null : mDimensions.equals(other.mDimensions))
+          && mConfiguration.equals(other.mConfiguration);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (mDimensions == null ? 0 : mDimensions.hashCode()) + mConfiguration.hashCode();
+    }
+  }
+}
@@ -61,4 +61,13 @@ public class ImageDimensions {
       return super.equals(obj);
     }
   }
+
+  @Override
+  public int hashCode() {
+    int result = getWidth();
+    result = 31 * result + getHeight();
+    result = 31 * result + getFacing();
+    result = 31 * result + getRotation();
+    return result;
+  }
 }
@@ -0,0 +1,84 @@
+package org.reactnative.camera.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Removes the metadata of a JPEG without decoding or re-encoding the image.
+ */
+
+public class JpegExifUtils {
+    private static final int MARKER_SOI = 0xd8;
+    private static final int MARKER_SOS = 0xda;
+    private static final int MARKER_APP1 = 0xe1;
+
+    /**
+     * Finds the APP1 segments, which hold the EXIF data, with its thumbnail and GPS location, and
+     * the XMP data. A JPEG encoded from a bitmap has none of them.
+     *
+     * @return start and end offsets of every APP1 segment, in pairs, or null if the JPEG could not
+     * be parsed
+     */
+    public static int[] findMetadataSegments(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xff) != 0xff || (jpeg[1] & 0xff) != MARKER_SOI) {
+            return null;
+        }
+        int[] segments = new int[0];
+        int offset = 2;
+        while (offset + 4 <= jpeg.length) {
+            if ((jpeg[offset] & 0xff) != 0xff) {
+                return null;
+            }
+            int marker = jpeg[offset + 1] & 0xff;
+            if (marker == 0xff) {
+                // fill byte
+                offset++;
+                continue;
+            }
+            if (marker == MARKER_SOS) {
+                // metadata comes before the image data
+                return segments;
+            }
+            int length = readShort(jpeg, offset + 2);
+            if (length < 2 || offset + 2 + length > jpeg.length) {
+                return null;
+            }
+            if (marker == MARKER_APP1) {
+                int[] grown = new int[segments.length + 2];
+                System.arraycopy(segments, 0, grown, 0, segments.length);
+                grown[segments.length] = offset;
+                grown[segments.length + 1] = offset + 2 + length;
+                segments = grown;
+            }
+            offset += 2 + length;
+        }
+        return null;
+    }
+
+    /**
+     * Writes the JPEG without the given segments, as returned by {@link #findMetadataSegments}.
+     */
+    public static void write(byte[] jpeg, int[] skippedSegments, OutputStream outputStream) throws IOException {
+        int offset = 0;
+        for (int i = 0; i < skippedSegments.length; i += 2) {
+            outputStream.write(jpeg, offset, skippedSegments[i] - offset);
+            offset = skippedSegments[i + 1];
+        }
+        outputStream.write(jpeg, offset, jpeg.length - offset);
+    }
+
+    /**
+     * @return the number of bytes {@link #write} writes for the given segments
+     */
+    public static int getWrittenLength(byte[] jpeg, int[] skippedSegments) {
+        int length = jpeg.length;
+        for (int i = 0; i < skippedSegments.length; i += 2) {
+            length -= skippedSegments[i + 1] - skippedSegments[i];
+        }
+        return length;
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 8) | (data[offset + 1] & 0xff);
+    }
+}
@@ -1,5 +1,6 @@
 package org.reactnative.camera.utils;
 
+import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
 
@@ -31,4 +32,46 @@ public class RNFileUtils {
         return Uri.fromFile(file);
     }
 
+    /**
+     * Checks that an image given from JS may be read. Content URIs are left to the content
+     * resolver and its permissions, files are checked with {@link #getSafeFile}.
+     *
+     * @return the URI to open with the content resolver
+     */
+    public static Uri toReadableUri(Context context, String uri) throws IOException {
+        Uri parsedUri = Uri.parse(uri);
+        if (ContentResolver.SCHEME_CONTENT.equals(parsedUri.getScheme())) {
+            return parsedUri;
+        }
+        return Uri.fromFile(getSafeFile(context, uri));
+    }
+
+    /**
+     * Checks that a file URI or plain path given from JS is in the app's cache or files directory.
+     */
+    public static File getSafeFile(Context context, String uri) throws IOException {
+        Uri parsedUri = Uri.parse(uri);
+        String scheme = parsedUri.getScheme();
+        String path;
+        if (scheme == null) {
+            path = uri;
+        } else if (ContentResolver.SCHEME_FILE.equals(scheme) && parsedUri.getPath() != null) {
+            path = parsedUri.getPath();
+        } else {
+            throw new IOException("Invalid URI provided: `" + uri + "`.");
+        }
+
+        // resolves "..", so a path cannot climb out of the safe directories
+        File file = new File(path).getCanonicalFile();
+        if (!isInDirectory(file, context.getCacheDir()) && !isInDirectory(file, context.getFilesDir())) {
+            throw new IOException("The image has to be in the local app's directories.");
+        }
+        return file;
+    }
+
+    private static boolean isInDirectory(File file, File directory) throws IOException {
+        String directoryPath = directory.getCanonicalPath() + File.separator;
+        return file.getPath().startsWith(directoryPath);
+    }
+
 }
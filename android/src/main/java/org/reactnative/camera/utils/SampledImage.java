@@ -0,0 +1,91 @@
+package org.reactnative.camera.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An image decoded downsampled, by a power of two, so that its longer side does not exceed a
+ * maximum size, along with the size of the original.
+ */
+
+public class SampledImage {
+  private final Bitmap mBitmap;
+  private final int mWidth;
+  private final int mHeight;
+
+  private SampledImage(Bitmap bitmap, int width, int height) {
+    mBitmap = bitmap;
+    mWidth = width;
+    mHeight = height;
+  }
+
+  /**
+   * Decodes the image at uri, a content or file URI or a plain path, see
+   * {@link RNFileUtils#toReadableUri} for the files that may be read.
+   */
+  public static SampledImage load(Context context, String uri, int maxImageSize,
+                                  Bitmap.Config config) throws IOException {
+    Uri parsedUri = RNFileUtils.toReadableUri(context, uri);
+    ContentResolver contentResolver = context.getContentResolver();
+
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    decodeStream(contentResolver, parsedUri, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      throw new IOException("Not a decodable image: `" + uri + "`.");
+    }
+    int width = options.outWidth;
+    int height = options.outHeight;
+
+    options.inJustDecodeBounds = false;
+    options.inSampleSize = 1;
+    while (Math.max(width, height) / options.inSampleSize > maxImageSize) {
+      options.inSampleSize *= 2;
+    }
+    options.inPreferredConfig = config;
+    Bitmap bitmap = decodeStream(contentResolver, parsedUri, options);
+    if (bitmap == null) {
+      throw new IOException("Not a decodable image: `" + uri + "`.");
+    }
+    return new SampledImage(bitmap, width, height);
+  }
+
+  private static Bitmap decodeStream(ContentResolver contentResolver, Uri uri, BitmapFactory.Options options)
+      throws IOException {
+    InputStream stream = contentResolver.openInputStream(uri);
+    if (stream == null) {
+      throw new FileNotFoundException("Cannot open `" + uri + "`.");
+    }
+    try {
+      return BitmapFactory.decodeStream(stream, null, options);
+    } finally {
+      stream.close();
+    }
+  }
+
+  public Bitmap getBitmap() {
+    return mBitmap;
+  }
+
+  public int getWidth() {
+    return mWidth;
+  }
+
+  public int getHeight() {
+    return mHeight;
+  }
+
+  /**
+   * @return the factor from bitmap to original image coordinates
+   */
+  public float getScale() {
+    return mWidth / (float) mBitmap.getWidth();
+  }
+}
@@ -0,0 +1,88 @@
+package org.reactnative.camera.utils;
+
+import android.graphics.Rect;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.text.TextBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks Google Vision text blocks across recognitions with a {@link BlockTracker}, matching on
+ * their value and bounding box.
+ */
+
+public class TextBlockTracker {
+  private static final BlockTracker.Adapter<TextBlock> ADAPTER = new BlockTracker.Adapter<TextBlock>() {
+    @Override
+    public String getText(TextBlock block) {
+      return block.getValue();
+    }
+
+    @Override
+    public int[] getBounds(TextBlock block) {
+      Rect box = block.getBoundingBox();
+      return box == null ? null : new int[]{box.left, box.top, box.right, box.bottom};
+    }
+  };
+
+  private final BlockTracker<TextBlock> mTracker = new BlockTracker<>(ADAPTER);
+
+  /**
+   * Blocks are keyed by their stable id.
+   */
+  public static class Changes {
+    private final SparseArray<TextBlock> mAdded;
+    private final SparseArray<TextBlock> mChanged;
+    private final List<Integer> mRemoved;
+
+    private Changes(BlockTracker.Changes<TextBlock> changes) {
+      mAdded = toSparseArray(changes.getAdded());
+      mChanged = toSparseArray(changes.getChanged());
+      mRemoved = changes.getRemoved();
+    }
+
+    public SparseArray<TextBlock> getAdded() {
+      return mAdded;
+    }
+
+    public SparseArray<TextBlock> getChanged() {
+      return mChanged;
+    }
+
+    public List<Integer> getRemoved() {
+      return mRemoved;
+    }
+
+    public boolean isEmpty() {
+      return mAdded.size() == 0 && mChanged.size() == 0 && mRemoved.isEmpty();
+    }
+  }
+
+  public Changes update(SparseArray<TextBlock> textBlocks) {
+    List<TextBlock> blocks = new ArrayList<>(textBlocks.size());
+    for (int i = 0; i < textBlocks.size(); i++) {
+      blocks.add(textBlocks.valueAt(i));
+    }
+    return new Changes(mTracker.update(blocks));
+  }
+
+  /**
+   * Forgets every block.
+   *
+   * @return the removal of every block reported so far
+   */
+  public Changes reset() {
+    return new Changes(mTracker.reset());
+  }
+
+  private static SparseArray<TextBlock> toSparseArray(Map<Integer, TextBlock> blocks) {
+    SparseArray<TextBlock> array = new SparseArray<>(blocks.size());
+    for (Map.Entry<Integer, TextBlock> entry : blocks.entrySet()) {
+      array.put(entry.getKey(), entry.getValue());
+    }
+    return array;
+  }
+}
@@ -1,14 +1,21 @@
 package org.reactnative.facedetector;
 
+import android.os.AsyncTask;
+
+import org.reactnative.camera.tasks.DetectorExecutors;
 import org.reactnative.facedetector.tasks.FileFaceDetectionAsyncTask;
+import org.reactnative.facedetector.tasks.ImagesFaceDetectionAsyncTask;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -71,4 +78,28 @@ private static ReactApplicationContext mScopedContext;
   public void detectFaces(ReadableMap options, final Promise promise) {
     new FileFaceDetectionAsyncTask(mScopedContext, options, promise).execute();
   }
+
+  @ReactMethod
+  public void detectFacesInImages(ReadableArray uris, ReadableMap options, final Promise promise) {
+    List<String> imageUris = new ArrayList<>(uris.size());
+    for (int i = 0; i < uris.size(); i++) {
+      imageUris.add(uris.getString(i));
+    }
+
+    int maxImageSize = options.hasKey("maxImageSize") ? options.getInt("maxImageSize") : 1024;
+    int maxConcurrency = options.hasKey("maxConcurrency")
+        ? options.getInt("maxConcurrency")
+        : DetectorExecutors.IMAGE_FACE_DETECTOR.getMaximumPoolSize();
+    String batchId = options.hasKey("batchId") ? options.getString("batchId") : null;
+
+    // the task waits for the images, keep it off the serial executor other tasks queue on
+    new ImagesFaceDetectionAsyncTask(getReactApplicationContext(), imageUris, options, Math.max(1, maxImageSize),
+        maxConcurrency, batchId, promise).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+  }
+
+  @Override
+  public void onCatalystInstanceDestroy() {
+    super.onCatalystInstanceDestroy();
+    RNFaceDetectorPool.clear();
+  }
 }
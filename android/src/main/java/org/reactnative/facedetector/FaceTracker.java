@@ -0,0 +1,296 @@
+package org.reactnative.facedetector;
+
+import android.graphics.PointF;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carries the faces of the last detection forward between detections.
+ * Every face keeps a small luma template sampled when it was detected, later frames are searched
+ * for the best matching offset around its last position. The full detector only runs every
+ * {@code detectionInterval} frames, or right away once a face no longer matches its template.
+ *
+ * Positions are in upright frame coordinates, like the ones reported by the face detector.
+ */
+
+public class FaceTracker {
+  // the template samples a GRID_SIZE x GRID_SIZE grid over the face box
+  private static final int GRID_SIZE = 16;
+  private static final int GRID_SAMPLES = GRID_SIZE * GRID_SIZE;
+  // the coarse search only compares every COARSE_STRIDE-th row and column of the grid
+  private static final int COARSE_STRIDE = 2;
+  private static final int COARSE_SAMPLES = (GRID_SIZE / COARSE_STRIDE) * (GRID_SIZE / COARSE_STRIDE);
+  // how far a face may move between two frames, relative to its width
+  private static final float SEARCH_RANGE = 0.25f;
+  // mean absolute luma difference, brightness compensated, above which a face counts as lost
+  private static final int LOST_THRESHOLD = 24;
+
+  private int mDetectionInterval = 1;
+  private int mFramesSinceDetection = 0;
+  private boolean mLost = true;
+  private int mFrameWidth;
+  private int mFrameHeight;
+  private int mFrameRotation;
+  private final List<TrackedFace> mFaces = new ArrayList<>();
+  private final int[] mPatch = new int[GRID_SAMPLES];
+  private long mDetectedFrames = 0;
+  private long mTrackedFrames = 0;
+
+  /**
+   * @param detectionInterval run the detector on one of every {@code detectionInterval} frames,
+   *                          1 or less detects on every frame and turns tracking off
+   */
+  public synchronized void setDetectionInterval(int detectionInterval) {
+    mDetectionInterval = Math.max(1, detectionInterval);
+    mLost = true;
+  }
+
+  public synchronized boolean shouldDetect(int width, int height, int rotation) {
+    return mDetectionInterval <= 1 || mLost || mFramesSinceDetection >= mDetectionInterval - 1
+        || width != mFrameWidth || height != mFrameHeight || rotation != mFrameRotation;
+  }
+
+  public synchronized void onDetected(SparseArray<Face> faces, byte[] data, int width, int height, int rotation) {
+    mDetectedFrames++;
+    mFaces.clear();
+    mFramesSinceDetection = 0;
+    mFrameWidth = width;
+    mFrameHeight = height;
+    mFrameRotation = rotation;
+    mLost = false;
+    if (mDetectionInterval <= 1) {
+      return;
+    }
+    LumaPlane plane = new LumaPlane(data, width, height, rotation);
+    for (int i = 0; i < faces.size(); i++) {
+      Face face = faces.valueAt(i);
+      if (face.getWidth() < 1 || face.getHeight() < 1) {
+        continue;
+      }
+      int[] template = new int[GRID_SAMPLES];
+      int[] coarseTemplate = new int[COARSE_SAMPLES];
+      PointF position = face.getPosition();
+      plane.sample(position.x, position.y, face.getWidth(), face.getHeight(), 1, template);
+      plane.sample(position.x, position.y, face.getWidth(), face.getHeight(), COARSE_STRIDE, coarseTemplate);
+      mFaces.add(new TrackedFace(face, template, coarseTemplate));
+    }
+  }
+
+  /**
+   * Moves the last detected faces to the given frame.
+   *
+   * @return the moved faces, or null when a face was lost and the frame has to go through the detector
+   */
+  public synchronized SparseArray<Face> track(byte[] data, int width, int height, int rotation) {
+    LumaPlane plane = new LumaPlane(data, width, height, rotation);
+    SparseArray<Face> faces = new SparseArray<>();
+    for (TrackedFace trackedFace : mFaces) {
+      if (!trackedFace.track(plane, mPatch)) {
+        mLost = true;
+        return null;
+      }
+      Face face = trackedFace.toFace();
+      faces.put(face.getId(), face);
+    }
+    mFramesSinceDetection++;
+    mTrackedFrames++;
+    return faces;
+  }
+
+  public synchronized void reset() {
+    mFaces.clear();
+    mLost = true;
+  }
+
+  public synchronized long getDetectedFrameCount() {
+    return mDetectedFrames;
+  }
+
+  public synchronized long getTrackedFrameCount() {
+    return mTrackedFrames;
+  }
+
+  private static class TrackedFace {
+    private final Face mFace;
+    private final int[] mTemplate;
+    private final int[] mCoarseTemplate;
+    // offset from the detected position
+    private float mOffsetX = 0;
+    private float mOffsetY = 0;
+
+    TrackedFace(Face face, int[] template, int[] coarseTemplate) {
+      mFace = face;
+      mTemplate = template;
+      mCoarseTemplate = coarseTemplate;
+    }
+
+    /**
+     * Coarse to fine search for the offset matching the template best. The coarse pass compares
+     * 64 samples at each of the 9 x 9 offsets, about 5k samples. The refinement compares all 256
+     * samples at 8 offsets per halving of the step, 2k samples per level, with one level for every
+     * doubling of the face width beyond 16 pixels.
+     *
+     * @return false when even the best match is too far off
+     */
+    boolean track(LumaPlane plane, int[] patch) {
+      PointF position = mFace.getPosition();
+      float width = mFace.getWidth();
+      float height = mFace.getHeight();
+      float step = Math.max(1f, width / GRID_SIZE);
+      float range = Math.max(step, width * SEARCH_RANGE);
+
+      float bestX = mOffsetX;
+      float bestY = mOffsetY;
+      int bestCoarseDifference = Integer.MAX_VALUE;
+      for (float dy = -range; dy <= range; dy += step) {
+        for (float dx = -range; dx <= range; dx += step) {
+          int difference = difference(plane, position.x + mOffsetX + dx, position.y + mOffsetY + dy, width, height,
+              COARSE_STRIDE, mCoarseTemplate, patch, bestCoarseDifference);
+          if (difference < bestCoarseDifference) {
+            bestCoarseDifference = difference;
+            bestX = mOffsetX + dx;
+            bestY = mOffsetY + dy;
+          }
+        }
+      }
+
+      int bestDifference = difference(plane, position.x + bestX, position.y + bestY, width, height,
+          1, mTemplate, patch, Integer.MAX_VALUE);
+
+      while (step > 1f) {
+        step = Math.max(1f, step / 2);
+        float centerX = bestX;
+        float centerY = bestY;
+        for (int j = -1; j <= 1; j++) {
+          for (int i = -1; i <= 1; i++) {
+            if (i == 0 && j == 0) {
+              continue;
+            }
+            float x = centerX + i * step;
+            float y = centerY + j * step;
+            int difference = difference(plane, position.x + x, position.y + y, width, height,
+                1, mTemplate, patch, bestDifference);
+            if (difference < bestDifference) {
+              bestDifference = difference;
+              bestX = x;
+              bestY = y;
+            }
+          }
+        }
+      }
+
+      if (bestDifference > LOST_THRESHOLD * GRID_SAMPLES || !plane.contains(position.x + bestX,
+          position.y + bestY, width, height)) {
+        return false;
+      }
+      mOffsetX = bestX;
+      mOffsetY = bestY;
+      return true;
+    }
+
+    private static int difference(LumaPlane plane, float left, float top, float width, float height, int stride,
+                                  int[] template, int[] patch, int limit) {
+      plane.sample(left, top, width, height, stride, patch);
+      int difference = 0;
+      for (int i = 0; i < template.length; i++) {
+        difference += Math.abs(patch[i] - template[i]);
+        if (difference >= limit) {
+          break;
+        }
+      }
+      return difference;
+    }
+
+    Face toFace() {
+      PointF position = mFace.getPosition();
+      List<Landmark> landmarks = mFace.getLandmarks();
+      Landmark[] movedLandmarks = new Landmark[landmarks.size()];
+      for (int i = 0; i < movedLandmarks.length; i++) {
+        Landmark landmark = landmarks.get(i);
+        PointF landmarkPosition = landmark.getPosition();
+        movedLandmarks[i] = new Landmark(
+            new PointF(landmarkPosition.x + mOffsetX, landmarkPosition.y + mOffsetY), landmark.getType());
+      }
+      return new Face(mFace.getId(), new PointF(position.x + mOffsetX, position.y + mOffsetY),
+          mFace.getWidth(), mFace.getHeight(), mFace.getEulerY(), mFace.getEulerZ(), movedLandmarks,
+          mFace.getIsLeftEyeOpenProbability(), mFace.getIsRightEyeOpenProbability(),
+          mFace.getIsSmilingProbability());
+    }
+  }
+
+  /**
+   * Y plane of an NV21 frame, addressed in upright coordinates.
+   */
+  private static class LumaPlane {
+    private final byte[] mData;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mRotation;
+    private final int mUprightWidth;
+    private final int mUprightHeight;
+
+    LumaPlane(byte[] data, int width, int height, int rotation) {
+      mData = data;
+      mWidth = width;
+      mHeight = height;
+      mRotation = rotation;
+      boolean swapped = rotation == 90 || rotation == 270;
+      mUprightWidth = swapped ? height : width;
+      mUprightHeight = swapped ? width : height;
+    }
+
+    boolean contains(float left, float top, float width, float height) {
+      // faces partially out of the frame are still reported by the detector, so only require the center
+      float centerX = left + width / 2;
+      float centerY = top + height / 2;
+      return centerX >= 0 && centerY >= 0 && centerX < mUprightWidth && centerY < mUprightHeight;
+    }
+
+    /**
+     * Samples every {@code stride}-th row and column of the grid over the given box into
+     * {@code out}, with the mean brightness removed.
+     */
+    void sample(float left, float top, float width, float height, int stride, int[] out) {
+      float cellWidth = width / GRID_SIZE;
+      float cellHeight = height / GRID_SIZE;
+      int size = GRID_SIZE / stride;
+      int sum = 0;
+      for (int j = 0; j < size; j++) {
+        int v = clamp((int) (top + (j * stride + 0.5f) * cellHeight), mUprightHeight);
+        for (int i = 0; i < size; i++) {
+          int u = clamp((int) (left + (i * stride + 0.5f) * cellWidth), mUprightWidth);
+          int luma = mData[offset(u, v)] & 0xff;
+          out[j * size + i] = luma;
+          sum += luma;
+        }
+      }
+      int samples = size * size;
+      int mean = sum / samples;
+      for (int i = 0; i < samples; i++) {
+        out[i] -= mean;
+      }
+    }
+
+    private int offset(int u, int v) {
+      switch (mRotation) {
+        case 90:
+          return (mHeight - 1 - u) * mWidth + v;
+        case 180:
+          return (mHeight - 1 - v) * mWidth + (mWidth - 1 - u);
+        case 270:
+          return u * mWidth + (mWidth - 1 - v);
+        default:
+          return v * mWidth + u;
+      }
+    }
+
+    private static int clamp(int value, int size) {
+      return value < 0 ? 0 : value >= size ? size - 1 : value;
+    }
+  }
+}
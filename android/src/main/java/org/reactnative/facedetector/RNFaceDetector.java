@@ -3,11 +3,14 @@ package org.reactnative.facedetector;
 import android.content.Context;
 import android.util.SparseArray;
 
+import org.reactnative.camera.utils.DetectorCache;
 import org.reactnative.camera.utils.ImageDimensions;
 import com.google.android.gms.vision.face.Face;
 import com.google.android.gms.vision.face.FaceDetector;
 import org.reactnative.frame.RNFrame;
 
+import java.util.Arrays;
+
 public class RNFaceDetector {
   public static int ALL_CLASSIFICATIONS = FaceDetector.ALL_CLASSIFICATIONS;
   public static int NO_CLASSIFICATIONS = FaceDetector.NO_CLASSIFICATIONS;
@@ -16,14 +19,19 @@ public class RNFaceDetector {
   public static int ACCURATE_MODE = FaceDetector.ACCURATE_MODE;
   public static int FAST_MODE = FaceDetector.FAST_MODE;
 
-  private FaceDetector mFaceDetector = null;
-  private ImageDimensions mPreviousDimensions;
+  // detectors kept for alternating dimensions or settings
+  private static final int CACHE_CAPACITY = 3;
+
   private FaceDetector.Builder mBuilder = null;
+  private final DetectorCache<FaceDetector> mDetectorCache;
 
   private int mClassificationType = NO_CLASSIFICATIONS;
   private int mLandmarkType = NO_LANDMARKS;
   private float mMinFaceSize = 0.15f;
   private int mMode = FAST_MODE;
+  private boolean mTrackingEnabled = true;
+  // set by release(), so that a task still holding this detector does not build a new one
+  private boolean mReleased;
 
   public RNFaceDetector(Context context) {
     mBuilder = new FaceDetector.Builder(context);
@@ -31,83 +39,112 @@ public class RNFaceDetector {
     mBuilder.setMode(mMode);
     mBuilder.setLandmarkType(mLandmarkType);
     mBuilder.setClassificationType(mClassificationType);
+    mBuilder.setTrackingEnabled(mTrackingEnabled);
+    mDetectorCache = new DetectorCache<>(CACHE_CAPACITY, new DetectorCache.Builder<FaceDetector>() {
+      @Override
+      public FaceDetector build() {
+        return mBuilder.build();
+      }
+
+      @Override
+      public void release(FaceDetector detector) {
+        detector.release();
+      }
+    });
   }
 
   // Public API
 
-  public boolean isOperational() {
-    if (mFaceDetector == null) {
-      createFaceDetector();
+  /**
+   * Asks the most recently used detector. Without one, a detector is built just to answer and
+   * released right away, no frame would ever use it.
+   */
+  public synchronized boolean isOperational() {
+    if (mReleased) {
+      return false;
+    }
+    FaceDetector faceDetector = mDetectorCache.getMostRecent();
+    if (faceDetector != null) {
+      return faceDetector.isOperational();
     }
 
-    return mFaceDetector.isOperational();
+    FaceDetector probe = mBuilder.build();
+    try {
+      return probe.isOperational();
+    } finally {
+      probe.release();
+    }
   }
 
-  public SparseArray<Face> detect(RNFrame frame) {
-    // If the frame has different dimensions, create another face detector.
-    // Otherwise we will get nasty "inconsistent image dimensions" error from detector
-    // and no face will be detected.
-    if (!frame.getDimensions().equals(mPreviousDimensions)) {
-      releaseFaceDetector();
-    }
+  /**
+   * Asks the detector that {@link #detect(RNFrame)} uses for the frame, building it if needed.
+   */
+  public synchronized boolean isOperational(RNFrame frame) {
+    return !mReleased && getDetector(frame).isOperational();
+  }
 
-    if (mFaceDetector == null) {
-      createFaceDetector();
-      mPreviousDimensions = frame.getDimensions();
+  public synchronized SparseArray<Face> detect(RNFrame frame) {
+    if (mReleased) {
+      return new SparseArray<>();
     }
-
-    return mFaceDetector.detect(frame.getFrame());
+    return getDetector(frame).detect(frame.getFrame());
   }
 
-  public void setTracking(boolean trackingEnabled) {
-    release();
-    mBuilder.setTrackingEnabled(trackingEnabled);
+  public synchronized void setTracking(boolean trackingEnabled) {
+    setTrackingEnabled(trackingEnabled);
   }
 
-  public void setClassificationType(int classificationType) {
+  public synchronized void setClassificationType(int classificationType) {
     if (classificationType != mClassificationType) {
-      release();
       mBuilder.setClassificationType(classificationType);
       mClassificationType = classificationType;
     }
   }
 
-  public void setLandmarkType(int landmarkType) {
+  public synchronized void setLandmarkType(int landmarkType) {
     if (landmarkType != mLandmarkType) {
-      release();
       mBuilder.setLandmarkType(landmarkType);
       mLandmarkType = landmarkType;
     }
   }
 
-  public void setMode(int mode) {
+  public synchronized void setMode(int mode) {
     if (mode != mMode) {
-      release();
       mBuilder.setMode(mode);
       mMode = mode;
     }
   }
 
-  public void setTrackingEnabled(boolean tracking) {
-    release();
-    mBuilder.setTrackingEnabled(tracking);
+  public synchronized void setTrackingEnabled(boolean tracking) {
+    if (tracking != mTrackingEnabled) {
+      mBuilder.setTrackingEnabled(tracking);
+      mTrackingEnabled = tracking;
+    }
+  }
+
+  public long getBuildCount() {
+    return mDetectorCache.getBuildCount();
   }
 
-  public void release() {
-    releaseFaceDetector();
-    mPreviousDimensions = null;
+  public double getBuildTimeMs() {
+    return mDetectorCache.getBuildTimeMs();
   }
 
-  // Lifecycle methods
+  public synchronized void release() {
+    mReleased = true;
+    mDetectorCache.clear();
+  }
 
-  private void releaseFaceDetector() {
-    if (mFaceDetector != null) {
-      mFaceDetector.release();
-      mFaceDetector = null;
-    }
+  private FaceDetector getDetector(RNFrame frame) {
+    // A tracking detector only works on frames of the dimensions it first saw, otherwise we get
+    // nasty "inconsistent image dimensions" errors and no face is detected. Keep one per dimensions.
+    // Without tracking every frame stands alone, so images of any size share one detector.
+    ImageDimensions dimensions = mTrackingEnabled ? frame.getDimensions() : null;
+    return mDetectorCache.get(dimensions, getConfiguration());
   }
 
-  private void createFaceDetector() {
-    mFaceDetector = mBuilder.build();
+  // settings that take a new detector to change, equal for detectors that detect alike
+  Object getConfiguration() {
+    return Arrays.asList(mMode, mLandmarkType, mClassificationType, mTrackingEnabled, mMinFaceSize);
   }
 }
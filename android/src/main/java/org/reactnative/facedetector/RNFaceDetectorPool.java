@@ -0,0 +1,62 @@
+package org.reactnative.facedetector;
+
+import android.content.Context;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Idle face detectors for image detection, kept by their settings so that detecting faces in one
+ * image after another does not build and release a detector every time. A detector is used by one
+ * image at a time, it has to be released back before somebody else gets it.
+ */
+
+public class RNFaceDetectorPool {
+  // idle detectors kept per settings, as many as images may be in flight
+  private static final int MAX_IDLE_DETECTORS = 4;
+
+  private static final Map<Object, ArrayDeque<RNFaceDetector>> sIdleDetectors = new HashMap<>();
+
+  public static synchronized RNFaceDetector acquire(Context context, int mode, int landmarkType,
+                                                    int classificationType) {
+    RNFaceDetector detector = new RNFaceDetector(context.getApplicationContext());
+    detector.setTrackingEnabled(false);
+    detector.setMode(mode);
+    detector.setLandmarkType(landmarkType);
+    detector.setClassificationType(classificationType);
+
+    ArrayDeque<RNFaceDetector> idleDetectors = sIdleDetectors.get(detector.getConfiguration());
+    if (idleDetectors != null && !idleDetectors.isEmpty()) {
+      // nothing was built yet, the new one is simply dropped
+      return idleDetectors.pop();
+    }
+    return detector;
+  }
+
+  public static synchronized void release(RNFaceDetector detector) {
+    Object configuration = detector.getConfiguration();
+    ArrayDeque<RNFaceDetector> idleDetectors = sIdleDetectors.get(configuration);
+    if (idleDetectors == null) {
+      idleDetectors = new ArrayDeque<>();
+      sIdleDetectors.put(configuration, idleDetectors);
+    }
+    if (idleDetectors.size() < MAX_IDLE_DETECTORS) {
+      idleDetectors.push(detector);
+    } else {
+      detector.release();
+    }
+  }
+
+  /**
+   * Releases every idle detector.
+   */
+  public static synchronized void clear() {
+    for (ArrayDeque<RNFaceDetector> idleDetectors : sIdleDetectors.values()) {
+      for (RNFaceDetector detector : idleDetectors) {
+        detector.release();
+      }
+    }
+    sIdleDetectors.clear();
+  }
+}
@@ -4,12 +4,13 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.support.media.ExifInterface;
-import android.net.Uri;
 import android.os.AsyncTask;
 import android.util.Log;
 import android.util.SparseArray;
 
+import org.reactnative.camera.utils.RNFileUtils;
 import org.reactnative.facedetector.RNFaceDetector;
+import org.reactnative.facedetector.RNFaceDetectorPool;
 import org.reactnative.frame.RNFrame;
 import org.reactnative.frame.RNFrameFactory;
 import org.reactnative.facedetector.FaceDetectorUtils;
@@ -55,21 +56,11 @@ public class FileFaceDetectionAsyncTask extends AsyncTask<Void, Void, SparseArra
       return;
     }
 
-    Uri uri = Uri.parse(mUri);
-    mPath = uri.getPath();
-
-    if (mPath == null) {
-      mPromise.reject(ERROR_TAG, "Invalid URI provided: `" + mUri + "`.");
-      cancel(true);
-      return;
-    }
-
     // We have to check if the requested image is in a directory safely accessible by our app.
-    boolean fileIsInSafeDirectories =
-          mPath.startsWith(mContext.getCacheDir().getPath()) || mPath.startsWith(mContext.getFilesDir().getPath());
-
-    if (!fileIsInSafeDirectories) {
-      mPromise.reject(ERROR_TAG, "The image has to be in the local app's directories.");
+    try {
+      mPath = RNFileUtils.getSafeFile(mContext, mUri).getPath();
+    } catch (IOException e) {
+      mPromise.reject(ERROR_TAG, e.getMessage());
       cancel(true);
       return;
     }
@@ -109,11 +100,7 @@ public class FileFaceDetectionAsyncTask extends AsyncTask<Void, Void, SparseArra
     WritableArray facesArray = Arguments.createArray();
 
     for(int i = 0; i < faces.size(); i++) {
-      Face face = faces.valueAt(i);
-      WritableMap encodedFace = FaceDetectorUtils.serializeFace(face);
-      encodedFace.putDouble("yawAngle", (-encodedFace.getDouble("yawAngle") + 360) % 360);
-      encodedFace.putDouble("rollAngle", (-encodedFace.getDouble("rollAngle") + 360) % 360);
-      facesArray.pushMap(encodedFace);
+      facesArray.pushMap(serializeImageFace(faces.valueAt(i), 1));
     }
 
     result.putArray("faces", facesArray);
@@ -125,26 +112,23 @@ public class FileFaceDetectionAsyncTask extends AsyncTask<Void, Void, SparseArra
     image.putString("uri", mUri);
     result.putMap("image", image);
 
-    mRNFaceDetector.release();
+    RNFaceDetectorPool.release(mRNFaceDetector);
     mPromise.resolve(result);
   }
 
-  private static RNFaceDetector detectorForOptions(ReadableMap options, Context context) {
-    RNFaceDetector detector = new RNFaceDetector(context);
-    detector.setTrackingEnabled(false);
-
-    if(options.hasKey(MODE_OPTION_KEY)) {
-      detector.setMode(options.getInt(MODE_OPTION_KEY));
-    }
-
-    if(options.hasKey(RUN_CLASSIFICATIONS_OPTION_KEY)) {
-      detector.setClassificationType(options.getInt(RUN_CLASSIFICATIONS_OPTION_KEY));
-    }
-
-    if(options.hasKey(DETECT_LANDMARKS_OPTION_KEY)) {
-      detector.setLandmarkType(options.getInt(DETECT_LANDMARKS_OPTION_KEY));
-    }
+  static WritableMap serializeImageFace(Face face, double scale) {
+    WritableMap encodedFace = FaceDetectorUtils.serializeFace(face, scale, scale);
+    encodedFace.putDouble("yawAngle", (-encodedFace.getDouble("yawAngle") + 360) % 360);
+    encodedFace.putDouble("rollAngle", (-encodedFace.getDouble("rollAngle") + 360) % 360);
+    return encodedFace;
+  }
 
-    return detector;
+  static RNFaceDetector detectorForOptions(ReadableMap options, Context context) {
+    int mode = options.hasKey(MODE_OPTION_KEY) ? options.getInt(MODE_OPTION_KEY) : RNFaceDetector.FAST_MODE;
+    int classificationType = options.hasKey(RUN_CLASSIFICATIONS_OPTION_KEY)
+        ? options.getInt(RUN_CLASSIFICATIONS_OPTION_KEY) : RNFaceDetector.NO_CLASSIFICATIONS;
+    int landmarkType = options.hasKey(DETECT_LANDMARKS_OPTION_KEY)
+        ? options.getInt(DETECT_LANDMARKS_OPTION_KEY) : RNFaceDetector.NO_LANDMARKS;
+    return RNFaceDetectorPool.acquire(context, mode, landmarkType, classificationType);
   }
 }
@@ -0,0 +1,260 @@
+package org.reactnative.facedetector.tasks;
+
+import android.graphics.Bitmap;
+import android.support.media.ExifInterface;
+import android.util.Log;
+import android.util.SparseArray;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.google.android.gms.vision.face.Face;
+
+import org.reactnative.camera.tasks.DetectorExecutors;
+import org.reactnative.camera.utils.RNFileUtils;
+import org.reactnative.camera.utils.SampledImage;
+import org.reactnative.facedetector.RNFaceDetector;
+import org.reactnative.facedetector.RNFaceDetectorPool;
+import org.reactnative.frame.RNFrameFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Detects the faces in a list of images, at most maxConcurrency images at a time, and resolves
+ * with one entry per image in the order given. Every finished image is also sent right away as a
+ * progress event. An image that cannot be read gets an error entry instead of failing the whole batch.
+ */
+
+public class ImagesFaceDetectionAsyncTask extends android.os.AsyncTask<Void, Void, WritableArray> {
+  public static final String PROGRESS_EVENT_NAME = "RNFaceDetector.imageFacesDetected";
+
+  private static final String ERROR_TAG = "E_FACE_DETECTION_FAILED";
+
+  private final ReactContext mContext;
+  private final List<String> mUris;
+  private final ReadableMap mOptions;
+  private final int mMaxImageSize;
+  private final int mMaxConcurrency;
+  private final String mBatchId;
+  private final Promise mPromise;
+  // guards mRunningTasks and mAborted, detectors are only released once no task can still use one
+  private final Object mTaskLock = new Object();
+  private int mRunningTasks;
+  private boolean mAborted;
+
+  public ImagesFaceDetectionAsyncTask(ReactContext context, List<String> uris, ReadableMap options,
+                                      int maxImageSize, int maxConcurrency, String batchId, Promise promise) {
+    mContext = context;
+    mUris = uris;
+    mOptions = options;
+    mMaxImageSize = maxImageSize;
+    mMaxConcurrency = maxConcurrency;
+    mBatchId = batchId;
+    mPromise = promise;
+  }
+
+  @Override
+  protected WritableArray doInBackground(Void... ignored) {
+    int concurrency = Math.max(1, Math.min(Math.min(mMaxConcurrency, mUris.size()),
+        DetectorExecutors.IMAGE_FACE_DETECTOR.getMaximumPoolSize()));
+    // face detectors are not thread safe, one per image in flight
+    BlockingQueue<RNFaceDetector> detectors = new ArrayBlockingQueue<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      detectors.add(FileFaceDetectionAsyncTask.detectorForOptions(mOptions, mContext));
+    }
+
+    CompletionService<Integer> completionService = new ExecutorCompletionService<>(DetectorExecutors.IMAGE_FACE_DETECTOR);
+    // each image writes its own slot, published to this thread by the completion service
+    WritableMap[] results = new WritableMap[mUris.size()];
+    List<Future<Integer>> futures = new ArrayList<>(mUris.size());
+    boolean finished = false;
+    try {
+      int submitted = 0;
+      int completed = 0;
+      while (completed < mUris.size()) {
+        // keep at most concurrency decoded images in memory
+        while (submitted < mUris.size() && submitted - completed < concurrency) {
+          futures.add(completionService.submit(new DetectionTask(submitted, results, detectors)));
+          submitted++;
+        }
+        int index = completionService.take().get();
+        completed++;
+        emitProgress(index, completed, results[index]);
+      }
+      finished = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      Log.e(ERROR_TAG, "Detecting faces in images failed.", e);
+      return null;
+    } finally {
+      if (!finished) {
+        abortTasks(futures);
+      }
+      for (RNFaceDetector detector : detectors) {
+        RNFaceDetectorPool.release(detector);
+      }
+    }
+
+    WritableArray images = Arguments.createArray();
+    for (WritableMap result : results) {
+      images.pushMap(result);
+    }
+    return images;
+  }
+
+  @Override
+  protected void onPostExecute(WritableArray images) {
+    super.onPostExecute(images);
+    if (images == null) {
+      mPromise.reject(ERROR_TAG, "Detecting faces in images failed.");
+    } else {
+      mPromise.resolve(images);
+    }
+  }
+
+  /**
+   * Cancels the images not started yet and waits for the running ones, which may hold a detector.
+   * Cancelled futures are done right away, even while their task still runs, so waiting on them
+   * would not do.
+   */
+  private void abortTasks(List<Future<Integer>> futures) {
+    synchronized (mTaskLock) {
+      mAborted = true;
+    }
+    for (Future<Integer> future : futures) {
+      future.cancel(true);
+    }
+    // wait uninterruptibly, the caller may have been interrupted already
+    boolean interrupted = Thread.interrupted();
+    synchronized (mTaskLock) {
+      while (mRunningTasks > 0) {
+        try {
+          mTaskLock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void emitProgress(int index, int completed, WritableMap result) {
+    if (mBatchId == null || !mContext.hasActiveCatalystInstance()) {
+      return;
+    }
+    WritableMap image = Arguments.createMap();
+    image.merge(result);
+
+    WritableMap event = Arguments.createMap();
+    event.putString("batchId", mBatchId);
+    event.putInt("index", index);
+    event.putInt("completed", completed);
+    event.putInt("total", mUris.size());
+    event.putMap("image", image);
+    mContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(PROGRESS_EVENT_NAME, event);
+  }
+
+  private class DetectionTask implements Callable<Integer> {
+    private final int mIndex;
+    private final WritableMap[] mResults;
+    private final BlockingQueue<RNFaceDetector> mDetectors;
+
+    DetectionTask(int index, WritableMap[] results, BlockingQueue<RNFaceDetector> detectors) {
+      mIndex = index;
+      mResults = results;
+      mDetectors = detectors;
+    }
+
+    @Override
+    public Integer call() throws InterruptedException {
+      synchronized (mTaskLock) {
+        if (mAborted) {
+          return mIndex;
+        }
+        mRunningTasks++;
+      }
+      try {
+        return detect();
+      } finally {
+        synchronized (mTaskLock) {
+          mRunningTasks--;
+          mTaskLock.notifyAll();
+        }
+      }
+    }
+
+    private Integer detect() throws InterruptedException {
+      String uri = mUris.get(mIndex);
+      WritableMap result = Arguments.createMap();
+      result.putString("uri", uri);
+      try {
+        SampledImage image = SampledImage.load(mContext, uri, mMaxImageSize,
+            Bitmap.Config.ARGB_8888);
+        try {
+          result.putInt("width", image.getWidth());
+          result.putInt("height", image.getHeight());
+          result.putInt("orientation", readOrientation(uri));
+          SparseArray<Face> faces;
+          RNFaceDetector detector = mDetectors.take();
+          try {
+            faces = detector.detect(RNFrameFactory.buildFrame(image.getBitmap()));
+          } finally {
+            // offer, unlike put, cannot be interrupted and lose the detector; there is always room
+            mDetectors.offer(detector);
+          }
+          WritableArray facesArray = Arguments.createArray();
+          for (int i = 0; i < faces.size(); i++) {
+            facesArray.pushMap(FileFaceDetectionAsyncTask.serializeImageFace(faces.valueAt(i), image.getScale()));
+          }
+          result.putArray("faces", facesArray);
+        } finally {
+          image.getBitmap().recycle();
+        }
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) {
+          throw (InterruptedException) e;
+        }
+        Log.w(ERROR_TAG, "Detecting faces in `" + uri + "` failed.", e);
+        result.putString("error", e.getMessage() != null ? e.getMessage() : e.toString());
+      }
+      mResults[mIndex] = result;
+      return mIndex;
+    }
+  }
+
+  private int readOrientation(String uri) {
+    try {
+      InputStream stream = mContext.getContentResolver().openInputStream(RNFileUtils.toReadableUri(mContext, uri));
+      if (stream == null) {
+        return ExifInterface.ORIENTATION_UNDEFINED;
+      }
+      try {
+        return new ExifInterface(stream).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+            ExifInterface.ORIENTATION_UNDEFINED);
+      } finally {
+        stream.close();
+      }
+    } catch (IOException e) {
+      Log.w(ERROR_TAG, "Reading orientation from `" + uri + "` failed.", e);
+      return ExifInterface.ORIENTATION_UNDEFINED;
+    }
+  }
+}
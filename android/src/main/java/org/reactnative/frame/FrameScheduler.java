@@ -0,0 +1,145 @@
+package org.reactnative.frame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands preview frames to detectors without ever queueing more than one frame per detector.
+ * Every detector gets a {@link Lane} holding a "latest frame wins" mailbox and an atomic busy flag.
+ * A frame that arrives while the detector is busy replaces the pending one, which is counted as
+ * dropped, and the pending frame is dispatched as soon as the detector reports completion.
+ */
+
+public class FrameScheduler {
+  public interface Worker {
+    /**
+     * Starts processing the frame. Implementations must call {@link Lane#complete()} once done,
+     * from any thread, whether processing succeeded or not. A {@link RejectedExecutionException}
+     * thrown from here drops the frame instead.
+     */
+    void process(PreviewBuffer frame);
+  }
+
+  public static class Lane {
+    private final String mName;
+    private final Worker mWorker;
+    private final AtomicReference<PreviewBuffer> mPending = new AtomicReference<>();
+    private final AtomicBoolean mBusy = new AtomicBoolean(false);
+    private final AtomicLong mProcessedCount = new AtomicLong();
+    private final AtomicLong mDroppedCount = new AtomicLong();
+    // only written by the thread that won mBusy
+    private volatile PreviewBuffer mCurrent;
+
+    private Lane(String name, Worker worker) {
+      mName = name;
+      mWorker = worker;
+    }
+
+    public String getName() {
+      return mName;
+    }
+
+    public long getProcessedCount() {
+      return mProcessedCount.get();
+    }
+
+    public long getDroppedCount() {
+      return mDroppedCount.get();
+    }
+
+    public boolean isBusy() {
+      return mBusy.get();
+    }
+
+    /**
+     * Offers a frame to the lane. The lane retains its own reference to the frame.
+     */
+    public void offer(PreviewBuffer frame) {
+      PreviewBuffer replaced = mPending.getAndSet(frame.retain());
+      if (replaced != null) {
+        replaced.release();
+        mDroppedCount.incrementAndGet();
+      }
+      dispatch();
+    }
+
+    /**
+     * Marks the in-flight frame as processed and dispatches the pending one, if any.
+     */
+    public void complete() {
+      PreviewBuffer current = mCurrent;
+      mCurrent = null;
+      if (current != null) {
+        current.release();
+        mProcessedCount.incrementAndGet();
+      }
+      mBusy.set(false);
+      dispatch();
+    }
+
+    /**
+     * Drops the pending frame, e.g. when the detector gets disabled.
+     * A frame that is already being processed is released by {@link #complete()}.
+     */
+    public void clear() {
+      PreviewBuffer pending = mPending.getAndSet(null);
+      if (pending != null) {
+        pending.release();
+        mDroppedCount.incrementAndGet();
+      }
+    }
+
+    private void dispatch() {
+      // re-check the mailbox after winning the flag, another thread may have taken the frame
+      while (mPending.get() != null && mBusy.compareAndSet(false, true)) {
+        PreviewBuffer frame = mPending.getAndSet(null);
+        if (frame == null) {
+          mBusy.set(false);
+          continue;
+        }
+        mCurrent = frame;
+        try {
+          mWorker.process(frame);
+        } catch (RejectedExecutionException e) {
+          // the detector executor is saturated, drop the frame and free the lane
+          mCurrent = null;
+          frame.release();
+          mDroppedCount.incrementAndGet();
+          mBusy.set(false);
+          continue;
+        } catch (RuntimeException e) {
+          complete();
+          throw e;
+        }
+        return;
+      }
+    }
+  }
+
+  private final Map<String, Lane> mLanes = Collections.synchronizedMap(new LinkedHashMap<String, Lane>());
+
+  public Lane addLane(String name, Worker worker) {
+    Lane lane = new Lane(name, worker);
+    mLanes.put(name, lane);
+    return lane;
+  }
+
+  public Collection<Lane> getLanes() {
+    synchronized (mLanes) {
+      return new ArrayList<>(mLanes.values());
+    }
+  }
+
+  public void clear() {
+    for (Lane lane : getLanes()) {
+      lane.clear();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.reactnative.frame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counted handle to a preview frame buffer.
+ * The buffer is handed to its {@link Recycler} once every consumer released it,
+ * so a pooled buffer is never refilled while a detector is still reading it.
+ * The Google Vision frame wrapping the buffer is built once, by the first detector asking
+ * for it, and shared by every other one.
+ */
+
+public class PreviewBuffer {
+  public interface Recycler {
+    /**
+     * Called exactly once, by whichever thread released the last reference.
+     */
+    void recycle(byte[] data);
+  }
+
+  private final Recycler mRecycler;
+  private final byte[] mData;
+  private final int mWidth;
+  private final int mHeight;
+  private final int mRotation;
+  private final AtomicInteger mReferenceCount = new AtomicInteger(1);
+  private volatile RNFrame mFrame;
+
+  /**
+   * The buffer starts out with one reference, held by the caller.
+   */
+  public PreviewBuffer(Recycler recycler, byte[] data, int width, int height, int rotation) {
+    mRecycler = recycler;
+    mData = data;
+    mWidth = width;
+    mHeight = height;
+    mRotation = rotation;
+  }
+
+  public byte[] getData() {
+    return mData;
+  }
+
+  public int getWidth() {
+    return mWidth;
+  }
+
+  public int getHeight() {
+    return mHeight;
+  }
+
+  public int getRotation() {
+    return mRotation;
+  }
+
+  /**
+   * Only valid while a reference to the buffer is held.
+   */
+  public RNFrame getFrame() {
+    RNFrame frame = mFrame;
+    if (frame == null) {
+      synchronized (this) {
+        frame = mFrame;
+        if (frame == null) {
+          frame = buildFrame();
+          mFrame = frame;
+        }
+      }
+    }
+    return frame;
+  }
+
+  protected RNFrame buildFrame() {
+    return RNFrameFactory.buildFrame(mData, mWidth, mHeight, mRotation);
+  }
+
+  public PreviewBuffer retain() {
+    mReferenceCount.incrementAndGet();
+    return this;
+  }
+
+  public void release() {
+    if (mReferenceCount.decrementAndGet() == 0) {
+      mRecycler.recycle(mData);
+    }
+  }
+}
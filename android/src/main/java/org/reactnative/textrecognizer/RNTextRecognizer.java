@@ -0,0 +1,41 @@
+package org.reactnative.textrecognizer;
+
+import android.content.Context;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.text.TextBlock;
+import com.google.android.gms.vision.text.TextRecognizer;
+import org.reactnative.frame.RNFrame;
+
+/**
+ * A text recognizer that can be released while a detector thread still holds it. Detection and
+ * release are serialized, and a released recognizer detects nothing instead of touching freed
+ * native state.
+ */
+
+public class RNTextRecognizer {
+  private final TextRecognizer mTextRecognizer;
+  private boolean mReleased;
+
+  public RNTextRecognizer(Context context) {
+    mTextRecognizer = new TextRecognizer.Builder(context).build();
+  }
+
+  public synchronized boolean isOperational() {
+    return !mReleased && mTextRecognizer.isOperational();
+  }
+
+  public synchronized SparseArray<TextBlock> detect(RNFrame frame) {
+    if (mReleased) {
+      return new SparseArray<>();
+    }
+    return mTextRecognizer.detect(frame.getFrame());
+  }
+
+  public synchronized void release() {
+    if (!mReleased) {
+      mReleased = true;
+      mTextRecognizer.release();
+    }
+  }
+}
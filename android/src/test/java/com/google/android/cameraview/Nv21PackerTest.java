@@ -0,0 +1,141 @@
+package com.google.android.cameraview;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Nv21PackerTest {
+    private static final byte STALE = 0x5a;
+
+    /**
+      * YUV_420_888 planes as a camera hands them out: rows padded to the row stride, chroma samples
+      * pixelStride apart, with U and V interleaved in one allocation for a pixel stride of 2.
+      */
+    private static class Planes {
+        final int mWidth;
+        final int mHeight;
+        final int mYRowStride;
+        final int mChromaRowStride;
+        final int mChromaPixelStride;
+        final ByteBuffer mY;
+        final ByteBuffer mU;
+        final ByteBuffer mV;
+
+        Planes(int width, int height, int yPadding, int chromaPadding, int chromaPixelStride, Random random) {
+            mWidth = width;
+            mHeight = height;
+            mYRowStride = width + yPadding;
+            int chromaWidth = (width + 1) / 2;
+            int chromaHeight = (height + 1) / 2;
+            mChromaRowStride = chromaWidth * chromaPixelStride + chromaPadding;
+            mChromaPixelStride = chromaPixelStride;
+
+            // the last row of a plane ends right after its last sample
+            byte[] y = new byte[(height - 1) * mYRowStride + width];
+            random.nextBytes(y);
+            mY = ByteBuffer.wrap(y);
+            int chromaLength = (chromaHeight - 1) * mChromaRowStride + (chromaWidth - 1) * chromaPixelStride + 1;
+            if (chromaPixelStride == 2) {
+                byte[] vu = new byte[chromaLength + 1];
+                random.nextBytes(vu);
+                mV = slice(vu, 0, chromaLength);
+                mU = slice(vu, 1, chromaLength);
+            } else {
+                byte[] u = new byte[chromaLength];
+                byte[] v = new byte[chromaLength];
+                random.nextBytes(u);
+                random.nextBytes(v);
+                mU = ByteBuffer.wrap(u);
+                mV = ByteBuffer.wrap(v);
+            }
+        }
+
+        private static ByteBuffer slice(byte[] data, int offset, int length) {
+            return ByteBuffer.wrap(data, offset, length).slice();
+        }
+
+        byte[] pack(Nv21Packer packer, byte[] out, boolean lumaOnly) {
+            packer.pack(mWidth, mHeight, mY, mYRowStride, mU, mV, mChromaRowStride, mChromaPixelStride, out, lumaOnly);
+            return out;
+        }
+
+        /**
+          * Reads every sample on its own, the way the packer's output is defined.
+          */
+        byte[] packNaively() {
+            int chromaWidth = (mWidth + 1) / 2;
+            int chromaHeight = (mHeight + 1) / 2;
+            byte[] out = new byte[mWidth * mHeight + 2 * chromaWidth * chromaHeight];
+            for (int row = 0; row < mHeight; row++) {
+                for (int col = 0; col < mWidth; col++) {
+                    out[row * mWidth + col] = mY.get(row * mYRowStride + col);
+                }
+            }
+            int offset = mWidth * mHeight;
+            for (int row = 0; row < chromaHeight; row++) {
+                for (int col = 0; col < chromaWidth; col++) {
+                    int index = row * mChromaRowStride + col * mChromaPixelStride;
+                    out[offset++] = mV.get(index);
+                    out[offset++] = mU.get(index);
+                }
+            }
+            return out;
+        }
+    }
+
+    @Test
+    public void matchesNaivePackingForPaddedRows() {
+        Random random = new Random(11);
+        int[][] sizes = {{64, 48}, {320, 240}, {37, 21}, {1, 1}, {2, 3}};
+        int[] pixelStrides = {1, 2};
+        int[][] paddings = {{0, 0}, {16, 8}, {3, 5}};
+        for (int[] size : sizes) {
+            for (int pixelStride : pixelStrides) {
+                for (int[] padding : paddings) {
+                    Planes planes = new Planes(size[0], size[1], padding[0], padding[1], pixelStride, random);
+                    byte[] out = new byte[Nv21Packer.getBufferSize(size[0], size[1])];
+                    assertArrayEquals(size[0] + "x" + size[1] + " pixel stride " + pixelStride + " padding "
+                                    + Arrays.toString(padding),
+                            planes.packNaively(), planes.pack(new Nv21Packer(), out, false));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void oddDimensionsGetAChromaSampleForTheLastColumnAndRow() {
+        assertEquals(5 * 3 + 2 * 3 * 2, Nv21Packer.getBufferSize(5, 3));
+        assertEquals(640 * 480 * 3 / 2, Nv21Packer.getBufferSize(640, 480));
+    }
+
+    @Test
+    public void reusedPackerHandlesGrowingFrames() {
+        Random random = new Random(5);
+        Nv21Packer packer = new Nv21Packer();
+        for (int[] size : new int[][]{{16, 16}, {320, 240}, {64, 48}}) {
+            Planes planes = new Planes(size[0], size[1], 8, 8, 2, random);
+            byte[] out = new byte[Nv21Packer.getBufferSize(size[0], size[1])];
+            assertArrayEquals(planes.packNaively(), planes.pack(packer, out, false));
+        }
+    }
+
+    @Test
+    public void lumaOnlyLeavesTheChromaOfAReusedBufferAlone() {
+        Planes planes = new Planes(33, 17, 7, 3, 2, new Random(3));
+        byte[] out = new byte[Nv21Packer.getBufferSize(33, 17)];
+        Arrays.fill(out, STALE);
+        planes.pack(new Nv21Packer(), out, true);
+
+        byte[] expected = planes.packNaively();
+        int lumaSize = 33 * 17;
+        assertArrayEquals(Arrays.copyOf(expected, lumaSize), Arrays.copyOf(out, lumaSize));
+        for (int i = lumaSize; i < out.length; i++) {
+            assertEquals(STALE, out[i]);
+        }
+    }
+}
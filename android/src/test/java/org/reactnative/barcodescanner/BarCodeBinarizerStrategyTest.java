@@ -0,0 +1,158 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BarCodeBinarizerStrategyTest {
+  private static final int WIDTH = 320;
+  private static final int HEIGHT = 240;
+  private static final String TEXT = "binarizer";
+
+  // luminance of the light modules on the left and right edge, percentage left for dark modules
+  private static final int[] EVEN = {200, 200, 40};
+  private static final int[] SHADED = {100, 190, 60};
+  private static final int[] UNEVEN = {30, 255, 40};
+  private static final int[][] LIGHTINGS = {EVEN, SHADED, UNEVEN};
+  private static final String[] LIGHTING_NAMES = {"even", "shaded", "uneven"};
+
+  @Test
+  public void autoDecodesEvenlyLitCodeWithGlobalPass() throws Exception {
+    byte[] frame = createFrame(EVEN);
+    assertFalse(BarCodeBinarizerStrategy.isUnevenlyLit(source(frame), DecodeWorkspace.get()));
+
+    BarCodeBinarizerStrategy strategy = new BarCodeBinarizerStrategy();
+    strategy.setMode(BarCodeBinarizerStrategy.MODE_AUTO);
+    assertEquals(TEXT, decode(strategy, new MultiFormatReader(), frame).getText());
+    assertEquals(1, strategy.getGlobalDecodeCount());
+    assertEquals(0, strategy.getHybridDecodeCount());
+  }
+
+  @Test
+  public void autoDecodesUnevenlyLitCodeWithHybridPass() throws Exception {
+    byte[] frame = createFrame(UNEVEN);
+    assertTrue(BarCodeBinarizerStrategy.isUnevenlyLit(source(frame), DecodeWorkspace.get()));
+
+    BarCodeBinarizerStrategy strategy = new BarCodeBinarizerStrategy();
+    strategy.setMode(BarCodeBinarizerStrategy.MODE_AUTO);
+    assertEquals(TEXT, decode(strategy, new MultiFormatReader(), frame).getText());
+    assertEquals(0, strategy.getGlobalDecodeCount());
+    assertEquals(1, strategy.getHybridDecodeCount());
+  }
+
+  @Test
+  public void autoFallsBackToHybridWhenGlobalFindsNothing() throws Exception {
+    // lit unevenly enough to defeat a single threshold, but not enough to skip the global pass
+    byte[] frame = createFrame(SHADED);
+    assertFalse(BarCodeBinarizerStrategy.isUnevenlyLit(source(frame), DecodeWorkspace.get()));
+    BarCodeBinarizerStrategy global = new BarCodeBinarizerStrategy();
+    global.setMode(BarCodeBinarizerStrategy.MODE_GLOBAL);
+    assertNotFound(global, frame);
+
+    BarCodeBinarizerStrategy strategy = new BarCodeBinarizerStrategy();
+    strategy.setMode(BarCodeBinarizerStrategy.MODE_AUTO);
+    assertEquals(TEXT, decode(strategy, new MultiFormatReader(), frame).getText());
+    assertEquals(0, strategy.getGlobalDecodeCount());
+    assertEquals(1, strategy.getHybridDecodeCount());
+  }
+
+  @Test
+  public void hybridDecodesEveryLighting() throws Exception {
+    BarCodeBinarizerStrategy strategy = new BarCodeBinarizerStrategy();
+    for (int[] lighting : LIGHTINGS) {
+      assertEquals(TEXT, decode(strategy, new MultiFormatReader(), createFrame(lighting)).getText());
+    }
+    assertEquals(0, strategy.getGlobalDecodeCount());
+    assertEquals(LIGHTINGS.length, strategy.getHybridDecodeCount());
+  }
+
+  /**
+   * Reports the decode latency of each mode, for comparing the tiers on the build machine.
+   */
+  @Test
+  public void decodeLatencyPerMode() throws Exception {
+    String[] modes = {BarCodeBinarizerStrategy.MODE_HYBRID, BarCodeBinarizerStrategy.MODE_GLOBAL,
+        BarCodeBinarizerStrategy.MODE_AUTO};
+    int iterations = 50;
+    for (String mode : modes) {
+      BarCodeBinarizerStrategy strategy = new BarCodeBinarizerStrategy();
+      strategy.setMode(mode);
+      MultiFormatReader reader = new MultiFormatReader();
+      for (int lighting = 0; lighting < LIGHTINGS.length; lighting++) {
+        byte[] frame = createFrame(LIGHTINGS[lighting]);
+        int decoded = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+          try {
+            decode(strategy, reader, frame);
+            decoded++;
+          } catch (NotFoundException e) {
+            // counted as a miss
+          }
+        }
+        long micros = (System.nanoTime() - start) / 1000 / iterations;
+        System.out.println("binarizer " + mode + ", " + LIGHTING_NAMES[lighting] + " lighting: "
+            + decoded + "/" + iterations + " decoded, " + micros + " us per decode");
+        if (!BarCodeBinarizerStrategy.MODE_GLOBAL.equals(mode)) {
+          assertEquals(iterations, decoded);
+        }
+      }
+    }
+  }
+
+  private static void assertNotFound(BarCodeBinarizerStrategy strategy, byte[] frame) {
+    try {
+      decode(strategy, new MultiFormatReader(), frame);
+      fail("expected NotFoundException");
+    } catch (NotFoundException e) {
+      // expected
+    }
+  }
+
+  private static Result decode(BarCodeBinarizerStrategy strategy, MultiFormatReader reader, byte[] frame)
+      throws NotFoundException {
+    try {
+      return strategy.decode(reader, source(frame));
+    } finally {
+      reader.reset();
+    }
+  }
+
+  private static LuminanceSource source(byte[] frame) {
+    return DecodeWorkspace.get().createSource(frame, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT,
+        BarCodeOrientationStrategy.ORIENTATION_NORMAL);
+  }
+
+  /**
+   * A QR code in the middle of a luma plane, lit by a left to right gradient.
+   */
+  private static byte[] createFrame(int[] lighting) throws WriterException {
+    BitMatrix code = new QRCodeWriter().encode(TEXT, BarcodeFormat.QR_CODE, 120, 120);
+    int codeLeft = (WIDTH - code.getWidth()) / 2;
+    int codeTop = (HEIGHT - code.getHeight()) / 2;
+    byte[] frame = new byte[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        int light = lighting[0] + (lighting[1] - lighting[0]) * x / WIDTH;
+        int codeX = x - codeLeft;
+        int codeY = y - codeTop;
+        boolean dark = codeX >= 0 && codeX < code.getWidth() && codeY >= 0 && codeY < code.getHeight()
+            && code.get(codeX, codeY);
+        frame[y * WIDTH + x] = (byte) (dark ? light * lighting[2] / 100 : light);
+      }
+    }
+    return frame;
+  }
+}
@@ -0,0 +1,99 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.reactnative.barcodescanner.BarCodeDeduplicator.READ_NEW;
+import static org.reactnative.barcodescanner.BarCodeDeduplicator.READ_REPEAT;
+import static org.reactnative.barcodescanner.BarCodeDeduplicator.READ_SUPPRESSED;
+
+public class BarCodeDeduplicatorTest {
+  private static final Result CODE = new Result("code", null, null, BarcodeFormat.QR_CODE);
+  private static final Result OTHER_CODE = new Result("other", null, null, BarcodeFormat.QR_CODE);
+
+  private long mNow;
+  private BarCodeDeduplicator mDeduplicator;
+
+  @Before
+  public void setUp() {
+    mNow = 1000;
+    mDeduplicator = new BarCodeDeduplicator(new BarCodeDeduplicator.Clock() {
+      @Override
+      public long now() {
+        return mNow;
+      }
+    });
+  }
+
+  @Test
+  public void reportsEveryReadWithoutWindow() {
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    assertEquals(2, mDeduplicator.getEmittedCount());
+  }
+
+  @Test
+  public void suppressesCodeHeldInView() {
+    mDeduplicator.setWindowMs(500);
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    for (int i = 0; i < 10; i++) {
+      mNow += 100;
+      assertEquals(READ_SUPPRESSED, mDeduplicator.check(CODE));
+    }
+    // other codes are tracked on their own
+    assertEquals(READ_NEW, mDeduplicator.check(OTHER_CODE));
+    assertEquals(2, mDeduplicator.getEmittedCount());
+    assertEquals(10, mDeduplicator.getSuppressedCount());
+  }
+
+  @Test
+  public void repeatsAtPositionUpdateInterval() {
+    mDeduplicator.setWindowMs(500);
+    mDeduplicator.setPositionUpdateIntervalMs(250);
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    mNow += 100;
+    assertEquals(READ_SUPPRESSED, mDeduplicator.check(CODE));
+    mNow += 150;
+    assertEquals(READ_REPEAT, mDeduplicator.check(CODE));
+    mNow += 100;
+    assertEquals(READ_SUPPRESSED, mDeduplicator.check(CODE));
+    mNow += 150;
+    assertEquals(READ_REPEAT, mDeduplicator.check(CODE));
+  }
+
+  @Test
+  public void reportsCodeAsNewAfterWindowExpires() {
+    mDeduplicator.setWindowMs(500);
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    mNow += 499;
+    assertEquals(READ_SUPPRESSED, mDeduplicator.check(CODE));
+    // out of view for the whole window
+    mNow += 500;
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+  }
+
+  @Test
+  public void everyReadRestartsWindow() {
+    mDeduplicator.setWindowMs(500);
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    // seen again just before the window ends, so it never expires while held in view
+    for (int i = 0; i < 5; i++) {
+      mNow += 400;
+      assertEquals(READ_SUPPRESSED, mDeduplicator.check(CODE));
+    }
+    mNow += 500;
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+  }
+
+  @Test
+  public void setWindowForgetsCodes() {
+    mDeduplicator.setWindowMs(500);
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+    mDeduplicator.setWindowMs(500);
+    assertEquals(READ_NEW, mDeduplicator.check(CODE));
+  }
+}
@@ -0,0 +1,140 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.Result;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BarCodeFormatSelectorTest {
+  private static final Set<BarcodeFormat> FORMATS = EnumSet.of(BarcodeFormat.QR_CODE, BarcodeFormat.EAN_13);
+
+  @Test
+  public void alwaysScansAllFormatsByDefault() {
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(FORMATS);
+    BarCodeFormatSelector.Selection full = selector.next();
+    selector.onDecoded(Collections.singletonList(result(BarcodeFormat.QR_CODE)));
+    for (int i = 0; i < 5; i++) {
+      assertSame(full, selector.next());
+    }
+    assertEquals(6, selector.getFullScanCount());
+    assertEquals(0, selector.getNarrowScanCount());
+  }
+
+  @Test
+  public void scansAllFormatsUntilOneDecodes() {
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(FORMATS);
+    selector.setFullScanInterval(3);
+    BarCodeFormatSelector.Selection full = selector.next();
+    for (int i = 0; i < 5; i++) {
+      assertSame(full, selector.next());
+    }
+  }
+
+  @Test
+  public void narrowsToDecodedFormatsWithFullScanEveryNthFrame() {
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(FORMATS);
+    selector.setFullScanInterval(3);
+    BarCodeFormatSelector.Selection full = selector.next();
+    selector.onDecoded(Collections.singletonList(result(BarcodeFormat.QR_CODE)));
+
+    // every 3rd frame is full, the others are narrow
+    for (int frame = 2; frame <= 9; frame++) {
+      BarCodeFormatSelector.Selection selection = selector.next();
+      if (frame % 3 == 0) {
+        assertSame("frame " + frame, full, selection);
+      } else {
+        assertNotSame("frame " + frame, full, selection);
+        assertEquals(EnumSet.of(BarcodeFormat.QR_CODE), selection.getHints().get(DecodeHintType.POSSIBLE_FORMATS));
+      }
+    }
+    assertEquals(4, selector.getFullScanCount());
+    assertEquals(5, selector.getNarrowScanCount());
+  }
+
+  @Test
+  public void stopsNarrowingOnceEveryFormatDecoded() {
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(FORMATS);
+    selector.setFullScanInterval(3);
+    BarCodeFormatSelector.Selection full = selector.next();
+    selector.onDecoded(Collections.singletonList(result(BarcodeFormat.QR_CODE)));
+    assertNotSame(full, selector.next());
+    selector.onDecoded(Collections.singletonList(result(BarcodeFormat.EAN_13)));
+    for (int i = 0; i < 5; i++) {
+      assertSame(full, selector.next());
+    }
+  }
+
+  @Test
+  public void emptyFormatsReadEveryFormat() throws WriterException, NotFoundException {
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(EnumSet.noneOf(BarcodeFormat.class));
+    selector.setFullScanInterval(3);
+    BarCodeFormatSelector.Selection full = selector.next();
+    Result decoded = full.getReader().decodeWithState(qrCode("all formats"));
+    assertEquals(BarcodeFormat.QR_CODE, decoded.getBarcodeFormat());
+
+    // learns from the decodes like with explicit formats
+    selector.onDecoded(Collections.singletonList(decoded));
+    BarCodeFormatSelector.Selection narrow = selector.next();
+    assertNotSame(full, narrow);
+    assertEquals("all formats", narrow.getReader().decodeWithState(qrCode("all formats")).getText());
+  }
+
+  @Test
+  public void newFormatsStartOver() {
+    // changing barCodeTypes replaces the selector, which forgets what it learned
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(FORMATS);
+    selector.setFullScanInterval(3);
+    selector.next();
+    selector.onDecoded(Collections.singletonList(result(BarcodeFormat.QR_CODE)));
+
+    BarCodeFormatSelector changed = new BarCodeFormatSelector(EnumSet.of(BarcodeFormat.QR_CODE, BarcodeFormat.CODE_128));
+    changed.setFullScanInterval(3);
+    BarCodeFormatSelector.Selection full = changed.next();
+    assertEquals(EnumSet.of(BarcodeFormat.QR_CODE, BarcodeFormat.CODE_128),
+        full.getHints().get(DecodeHintType.POSSIBLE_FORMATS));
+    assertSame(full, changed.next());
+  }
+
+  @Test
+  public void setFullScanIntervalRestartsCount() {
+    BarCodeFormatSelector selector = new BarCodeFormatSelector(FORMATS);
+    selector.setFullScanInterval(3);
+    BarCodeFormatSelector.Selection full = selector.next();
+    selector.onDecoded(Collections.singletonList(result(BarcodeFormat.QR_CODE)));
+    selector.next();
+    selector.setFullScanInterval(2);
+    assertNotSame(full, selector.next());
+    assertSame(full, selector.next());
+  }
+
+  private static Result result(BarcodeFormat format) {
+    return new Result("code", null, null, format);
+  }
+
+  private static BinaryBitmap qrCode(String text) throws WriterException {
+    BitMatrix bits = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, 120, 120);
+    int[] pixels = new int[bits.getWidth() * bits.getHeight()];
+    for (int y = 0; y < bits.getHeight(); y++) {
+      for (int x = 0; x < bits.getWidth(); x++) {
+        pixels[y * bits.getWidth() + x] = bits.get(x, y) ? 0xff000000 : 0xffffffff;
+      }
+    }
+    return new BinaryBitmap(new HybridBinarizer(new RGBLuminanceSource(bits.getWidth(), bits.getHeight(), pixels)));
+  }
+}
@@ -0,0 +1,115 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.reactnative.barcodescanner.BarCodeOrientationStrategy.ORIENTATION_NORMAL;
+import static org.reactnative.barcodescanner.BarCodeOrientationStrategy.ORIENTATION_ROTATED;
+
+public class BarCodeOrientationStrategyTest {
+  private static final int[] NORMAL_FIRST = {ORIENTATION_NORMAL, ORIENTATION_ROTATED};
+  private static final int[] ROTATED_FIRST = {ORIENTATION_ROTATED, ORIENTATION_NORMAL};
+
+  @Test
+  public void bothTriesNormalThenRotated() {
+    BarCodeOrientationStrategy strategy = new BarCodeOrientationStrategy();
+    for (int i = 0; i < 3; i++) {
+      assertArrayEquals(NORMAL_FIRST, strategy.nextOrientations());
+      strategy.onDecodeFinished(ORIENTATION_NORMAL, false);
+      strategy.onDecodeFinished(ORIENTATION_ROTATED, false);
+    }
+  }
+
+  @Test
+  public void bothTriesLastSuccessfulOrientationFirst() {
+    BarCodeOrientationStrategy strategy = new BarCodeOrientationStrategy();
+    strategy.setMode(BarCodeOrientationStrategy.MODE_BOTH);
+    strategy.nextOrientations();
+    strategy.onDecodeFinished(ORIENTATION_NORMAL, false);
+    strategy.onDecodeFinished(ORIENTATION_ROTATED, true);
+    assertArrayEquals(ROTATED_FIRST, strategy.nextOrientations());
+    assertArrayEquals(ROTATED_FIRST, strategy.nextOrientations());
+
+    // the code turned back upright
+    strategy.onDecodeFinished(ORIENTATION_ROTATED, false);
+    strategy.onDecodeFinished(ORIENTATION_NORMAL, true);
+    assertArrayEquals(NORMAL_FIRST, strategy.nextOrientations());
+  }
+
+  @Test
+  public void bothForgetsPreferenceWhenCodeIsLost() {
+    BarCodeOrientationStrategy strategy = new BarCodeOrientationStrategy();
+    strategy.onDecodeFinished(ORIENTATION_ROTATED, true);
+    // a frame without any code in either orientation
+    strategy.onDecodeFinished(ORIENTATION_ROTATED, false);
+    strategy.onDecodeFinished(ORIENTATION_NORMAL, false);
+    assertArrayEquals(NORMAL_FIRST, strategy.nextOrientations());
+  }
+
+  @Test
+  public void alternateTakesTurns() {
+    BarCodeOrientationStrategy strategy = new BarCodeOrientationStrategy();
+    strategy.setMode(BarCodeOrientationStrategy.MODE_ALTERNATE);
+    for (int i = 0; i < 4; i++) {
+      int[] orientations = strategy.nextOrientations();
+      assertArrayEquals(new int[]{i % 2 == 0 ? ORIENTATION_NORMAL : ORIENTATION_ROTATED}, orientations);
+      strategy.onDecodeFinished(orientations[0], false);
+    }
+  }
+
+  @Test
+  public void alternateSticksToLastSuccessfulOrientation() {
+    BarCodeOrientationStrategy strategy = new BarCodeOrientationStrategy();
+    strategy.setMode(BarCodeOrientationStrategy.MODE_ALTERNATE);
+    strategy.onDecodeFinished(strategy.nextOrientations()[0], false);
+    int[] orientations = strategy.nextOrientations();
+    assertArrayEquals(new int[]{ORIENTATION_ROTATED}, orientations);
+    strategy.onDecodeFinished(ORIENTATION_ROTATED, true);
+
+    for (int i = 0; i < 3; i++) {
+      assertArrayEquals(new int[]{ORIENTATION_ROTATED}, strategy.nextOrientations());
+      strategy.onDecodeFinished(ORIENTATION_ROTATED, true);
+    }
+
+    // lost it: the other orientation comes next, then they alternate again
+    strategy.onDecodeFinished(strategy.nextOrientations()[0], false);
+    assertArrayEquals(new int[]{ORIENTATION_NORMAL}, strategy.nextOrientations());
+    strategy.onDecodeFinished(ORIENTATION_NORMAL, false);
+    assertArrayEquals(new int[]{ORIENTATION_ROTATED}, strategy.nextOrientations());
+  }
+
+  @Test
+  public void setModeForgetsPreference() {
+    BarCodeOrientationStrategy strategy = new BarCodeOrientationStrategy();
+    strategy.setMode(BarCodeOrientationStrategy.MODE_ALTERNATE);
+    strategy.onDecodeFinished(ORIENTATION_ROTATED, true);
+    strategy.setMode(BarCodeOrientationStrategy.MODE_ALTERNATE);
+    assertArrayEquals(new int[]{ORIENTATION_NORMAL}, strategy.nextOrientations());
+  }
+
+  @Test
+  public void toFramePointsMapsRotatedPointsBack() {
+    // region (left 10, top 20, width 30, height 40); rotated, it is 40 wide and 30 high
+    int left = 10;
+    int top = 20;
+    int height = 40;
+    int frameX = 15;
+    int frameY = 25;
+    ResultPoint rotated = new ResultPoint(height - 1 - (frameY - top), frameX - left);
+    Result result = new Result("code", null, new ResultPoint[]{rotated, null}, BarcodeFormat.QR_CODE);
+
+    BarCodeOrientationStrategy.toFramePoints(result, ORIENTATION_ROTATED, left, top, height);
+    assertEquals(frameX, result.getResultPoints()[0].getX(), 0);
+    assertEquals(frameY, result.getResultPoints()[0].getY(), 0);
+
+    Result normal = new Result("code", null, new ResultPoint[]{new ResultPoint(5, 5)}, BarcodeFormat.QR_CODE);
+    BarCodeOrientationStrategy.toFramePoints(normal, ORIENTATION_NORMAL, left, top, height);
+    assertEquals(left + 5, normal.getResultPoints()[0].getX(), 0);
+    assertEquals(top + 5, normal.getResultPoints()[0].getY(), 0);
+  }
+}
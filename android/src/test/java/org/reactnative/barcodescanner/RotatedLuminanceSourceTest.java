@@ -0,0 +1,122 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.LuminanceSource;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RotatedLuminanceSourceTest {
+  // regions smaller and larger than a transpose tile, with sizes that are not tile multiples
+  private static final int[][] REGIONS = {
+      // dataWidth, dataHeight, left, top, width, height
+      {8, 6, 0, 0, 8, 6},
+      {13, 11, 2, 3, 7, 5},
+      {70, 45, 5, 4, 61, 33},
+      {100, 80, 31, 17, 1, 40},
+      {100, 80, 0, 79, 100, 1},
+  };
+
+  @Test
+  public void getRowMatchesNaiveRotation() {
+    Random random = new Random(7);
+    for (int[] r : REGIONS) {
+      byte[] frame = createFrame(r[0], r[1], random);
+      byte[] expected = rotate(frame, r[0], r[2], r[3], r[4], r[5]);
+      LuminanceSource source = new RotatedLuminanceSource(frame, r[0], r[1], r[2], r[3], r[4], r[5]);
+      assertEquals(r[5], source.getWidth());
+      assertEquals(r[4], source.getHeight());
+      for (int y = 0; y < source.getHeight(); y++) {
+        byte[] row = source.getRow(y, null);
+        for (int x = 0; x < source.getWidth(); x++) {
+          assertEquals("row " + y + " column " + x, expected[y * r[5] + x], row[x]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void getMatrixMatchesNaiveRotation() {
+    Random random = new Random(11);
+    for (int[] r : REGIONS) {
+      byte[] frame = createFrame(r[0], r[1], random);
+      byte[] expected = rotate(frame, r[0], r[2], r[3], r[4], r[5]);
+      assertArrayEquals(expected,
+          new RotatedLuminanceSource(frame, r[0], r[1], r[2], r[3], r[4], r[5]).getMatrix());
+    }
+  }
+
+  @Test
+  public void getMatrixFillsLargeEnoughBuffer() {
+    byte[] frame = createFrame(13, 11, new Random(3));
+    byte[] expected = rotate(frame, 13, 2, 3, 7, 5);
+    byte[] buffer = new byte[expected.length + 10];
+    byte[] matrix = new RotatedLuminanceSource(frame, 13, 11, 2, 3, 7, 5, buffer).getMatrix();
+    assertSame(buffer, matrix);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], matrix[i]);
+    }
+  }
+
+  @Test
+  public void cropMatchesNaiveCropOfRotation() {
+    Random random = new Random(5);
+    int dataWidth = 70;
+    int dataHeight = 45;
+    int left = 5;
+    int top = 4;
+    int width = 61;
+    int height = 33;
+    byte[] frame = createFrame(dataWidth, dataHeight, random);
+    byte[] rotated = rotate(frame, dataWidth, left, top, width, height);
+    LuminanceSource source = new RotatedLuminanceSource(frame, dataWidth, dataHeight, left, top, width, height);
+    for (int i = 0; i < 20; i++) {
+      int cropLeft = random.nextInt(source.getWidth());
+      int cropTop = random.nextInt(source.getHeight());
+      int cropWidth = 1 + random.nextInt(source.getWidth() - cropLeft);
+      int cropHeight = 1 + random.nextInt(source.getHeight() - cropTop);
+      LuminanceSource cropped = source.crop(cropLeft, cropTop, cropWidth, cropHeight);
+
+      byte[] expected = new byte[cropWidth * cropHeight];
+      for (int y = 0; y < cropHeight; y++) {
+        System.arraycopy(rotated, (cropTop + y) * source.getWidth() + cropLeft, expected, y * cropWidth, cropWidth);
+      }
+      assertEquals(cropWidth, cropped.getWidth());
+      assertEquals(cropHeight, cropped.getHeight());
+      assertArrayEquals(expected, cropped.getMatrix());
+      for (int y = 0; y < cropHeight; y++) {
+        byte[] row = cropped.getRow(y, new byte[cropWidth]);
+        for (int x = 0; x < cropWidth; x++) {
+          assertEquals(expected[y * cropWidth + x], row[x]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Rotates the region of the luma plane by 90 degrees clockwise, pixel by pixel.
+   */
+  private static byte[] rotate(byte[] frame, int dataWidth, int left, int top, int width, int height) {
+    byte[] rotated = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        // clockwise: the bottom row of the region becomes the left column
+        rotated[x * height + (height - 1 - y)] = frame[(top + y) * dataWidth + left + x];
+      }
+    }
+    return rotated;
+  }
+
+  /**
+   * A random NV21 frame; only the luma plane is read by the source.
+   */
+  private static byte[] createFrame(int width, int height, Random random) {
+    byte[] frame = new byte[width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2)];
+    random.nextBytes(frame);
+    return frame;
+  }
+}
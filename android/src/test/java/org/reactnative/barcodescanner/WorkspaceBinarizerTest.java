@@ -0,0 +1,166 @@
+package org.reactnative.barcodescanner;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WorkspaceBinarizerTest {
+  // frame sizes, including ones that are not multiples of the block size and ones too small for
+  // hybrid thresholding
+  private static final int[][] SIZES = {{640, 480}, {333, 217}, {41, 40}, {39, 100}, {16, 16}};
+
+  @Test
+  public void hybridMatchesZXing() throws NotFoundException {
+    Random random = new Random(42);
+    for (int[] size : SIZES) {
+      for (int i = 0; i < 4; i++) {
+        byte[] frame = createFrame(size[0], size[1], random);
+        assertSameBits(new HybridBinarizer(planar(frame, size[0], size[1])),
+            WorkspaceBinarizer.hybrid(planar(frame, size[0], size[1]), DecodeWorkspace.get()));
+      }
+    }
+  }
+
+  @Test
+  public void globalMatchesZXing() throws NotFoundException {
+    Random random = new Random(7);
+    for (int[] size : SIZES) {
+      for (int i = 0; i < 4; i++) {
+        byte[] frame = createFrame(size[0], size[1], random);
+        assertSameBits(new GlobalHistogramBinarizer(planar(frame, size[0], size[1])),
+            WorkspaceBinarizer.global(planar(frame, size[0], size[1]), DecodeWorkspace.get()));
+      }
+    }
+  }
+
+  @Test
+  public void workspaceSourcesMatchZXing() throws NotFoundException {
+    Random random = new Random(3);
+    int dataWidth = 320;
+    int dataHeight = 240;
+    byte[] frame = createFrame(dataWidth, dataHeight, random);
+    int[][] regions = {{0, 0, dataWidth, dataHeight}, {17, 9, 200, 150}, {100, 40, 64, 64}};
+    int[] orientations = {BarCodeOrientationStrategy.ORIENTATION_NORMAL, BarCodeOrientationStrategy.ORIENTATION_ROTATED};
+    for (int[] region : regions) {
+      for (int orientation : orientations) {
+        DecodeWorkspace workspace = DecodeWorkspace.get();
+        LuminanceSource source = workspace.createSource(frame, dataWidth, dataHeight,
+            region[0], region[1], region[2], region[3], orientation);
+        BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+        assertEquals(expected, WorkspaceBinarizer.hybrid(source, workspace).getBlackMatrix());
+        workspace.endDecode();
+      }
+    }
+  }
+
+  @Test
+  public void endDecodeForgetsTheFrame() {
+    byte[] frame = createFrame(64, 48, new Random(5));
+    DecodeWorkspace workspace = DecodeWorkspace.get();
+    LuminanceSource source = workspace.createSource(frame, 64, 48, 0, 0, 64, 48,
+        BarCodeOrientationStrategy.ORIENTATION_NORMAL);
+    assertSame(frame, workspace.getLuminances(source));
+    workspace.endDecode();
+    assertNotSame(frame, workspace.getLuminances(source));
+  }
+
+  @Test
+  public void steadyStateDoesNotAllocateBuffers() throws NotFoundException {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    int width = 640;
+    int height = 480;
+    byte[] frame = createFrame(width, height, new Random(1));
+    DecodeWorkspace workspace = DecodeWorkspace.get();
+    for (int i = 0; i < 50; i++) {
+      binarize(workspace, frame, width, height);
+    }
+
+    int iterations = 100;
+    long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; i++) {
+      binarize(workspace, frame, width, height);
+    }
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    // a stock binarizer allocates a bit matrix of width * height / 8 bytes and a luminance copy
+    // per frame, what is left are the source and binarizer objects themselves
+    long perFrame = allocated / iterations;
+    assertTrue("allocated " + perFrame + " bytes per frame", perFrame < 1024);
+  }
+
+  private static void binarize(DecodeWorkspace workspace, byte[] frame, int width, int height)
+      throws NotFoundException {
+    LuminanceSource source = workspace.createSource(frame, width, height, 0, 0, width, height,
+        BarCodeOrientationStrategy.ORIENTATION_NORMAL);
+    WorkspaceBinarizer.hybrid(source, workspace).getBlackMatrix();
+    WorkspaceBinarizer.global(source, workspace).getBlackMatrix();
+    workspace.endDecode();
+  }
+
+  private static void assertSameBits(Binarizer expected, Binarizer actual) throws NotFoundException {
+    BitMatrix expectedMatrix;
+    try {
+      expectedMatrix = expected.getBlackMatrix();
+    } catch (NotFoundException e) {
+      assertNotFound(actual);
+      return;
+    }
+    assertEquals(expectedMatrix, actual.getBlackMatrix());
+  }
+
+  private static void assertNotFound(Binarizer binarizer) {
+    try {
+      binarizer.getBlackMatrix();
+      fail("expected NotFoundException");
+    } catch (NotFoundException e) {
+      // expected
+    }
+  }
+
+  private static LuminanceSource planar(byte[] frame, int width, int height) {
+    return new PlanarYUVLuminanceSource(frame, width, height, 0, 0, width, height, false);
+  }
+
+  /**
+   * A lighting gradient with dark and light squares, flat patches and noise, so that both
+   * binarizers hit their low contrast and high contrast branches.
+   */
+  private static byte[] createFrame(int width, int height, Random random) {
+    byte[] frame = new byte[width * height];
+    int cell = 4 + random.nextInt(12);
+    int gradient = random.nextInt(120);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int light = 60 + gradient * x / width;
+        boolean dark = ((x / cell) + (y / cell)) % 2 == 0;
+        boolean flat = (x / (cell * 4)) % 3 == 1;
+        int value = flat ? light + 40 : dark ? light - 50 : light + 70;
+        value += random.nextInt(9) - 4;
+        frame[y * width + x] = (byte) Math.max(0, Math.min(255, value));
+      }
+    }
+    return frame;
+  }
+}
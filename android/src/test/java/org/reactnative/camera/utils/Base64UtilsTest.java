@@ -0,0 +1,82 @@
+package org.reactnative.camera.utils;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Base64UtilsTest {
+
+    @Test
+    public void encodedLengthMatchesEncoder() {
+        Random random = new Random(1);
+        for (int length = 0; length < 100; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertEquals("length " + length, Base64.getEncoder().encode(data).length,
+                    Base64Utils.encodedLength(length));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOversizedInput() {
+        Base64Utils.encodedLength(2L * Integer.MAX_VALUE);
+    }
+
+    /**
+     * Compares the memory allocated to base64 encode a picture into a growing buffer, as pictures
+     * used to be, and into a buffer sized up front. Both end in the same string.
+     */
+    @Test
+    public void sizedBufferAllocatesLessThanGrowingBuffer() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // about a 12 megapixel JPEG
+        byte[] jpeg = new byte[3 * 1024 * 1024 + 17];
+        new Random(2).nextBytes(jpeg);
+        long threadId = Thread.currentThread().getId();
+        // warm up both paths so class loading is not counted
+        encode(jpeg, new ByteArrayOutputStream());
+        encode(jpeg, Base64Utils.newBuffer(jpeg.length));
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        String growing = encode(jpeg, new ByteArrayOutputStream());
+        long growingBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        String sized = encode(jpeg, Base64Utils.newBuffer(jpeg.length));
+        long sizedBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(growing, sized);
+        int encodedLength = Base64Utils.encodedLength(jpeg.length);
+        System.out.println("base64 of " + jpeg.length + " bytes: growing buffer allocated " + growingBytes
+                + " bytes, sized buffer " + sizedBytes + " bytes, encoding is " + encodedLength + " bytes");
+        // the growing buffer doubles its way past the encoded length, discarding every smaller array
+        assertTrue(sizedBytes + encodedLength < growingBytes);
+    }
+
+    private static String encode(byte[] data, ByteArrayOutputStream buffer) throws IOException {
+        OutputStream stream = Base64.getEncoder().wrap(buffer);
+        try {
+            // in chunks, as from a file
+            for (int offset = 0; offset < data.length; offset += 8192) {
+                stream.write(data, offset, Math.min(8192, data.length - offset));
+            }
+        } finally {
+            stream.close();
+        }
+        return buffer.toString("US-ASCII");
+    }
+}
@@ -0,0 +1,150 @@
+package org.reactnative.camera.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BlockTrackerTest {
+  private static class Block {
+    final String mText;
+    final int[] mBounds;
+
+    Block(String text, int left, int top, int right, int bottom) {
+      mText = text;
+      mBounds = new int[]{left, top, right, bottom};
+    }
+  }
+
+  private static final BlockTracker.Adapter<Block> ADAPTER = new BlockTracker.Adapter<Block>() {
+    @Override
+    public String getText(Block block) {
+      return block.mText;
+    }
+
+    @Override
+    public int[] getBounds(Block block) {
+      return block.mBounds;
+    }
+  };
+
+  private BlockTracker<Block> mTracker;
+
+  @Before
+  public void setUp() {
+    mTracker = new BlockTracker<>(ADAPTER);
+  }
+
+  @Test
+  public void keepsIdsOfBlocksInView() {
+    BlockTracker.Changes<Block> added = mTracker.update(Arrays.asList(
+        new Block("hello", 0, 0, 100, 20), new Block("world", 0, 50, 100, 70)));
+    assertEquals(2, added.getAdded().size());
+    int helloId = idOf(added.getAdded(), "hello");
+    int worldId = idOf(added.getAdded(), "world");
+    assertNotEquals(helloId, worldId);
+
+    // the same blocks, listed in another order and barely moved
+    BlockTracker.Changes<Block> changes = mTracker.update(Arrays.asList(
+        new Block("world", 1, 50, 101, 70), new Block("hello", 0, 1, 100, 21)));
+    assertTrue(changes.isEmpty());
+
+    // text changed in place keeps the id
+    changes = mTracker.update(Arrays.asList(
+        new Block("world", 1, 50, 101, 70), new Block("hallo", 0, 1, 100, 21)));
+    assertEquals(Collections.singleton(helloId), changes.getChanged().keySet());
+    assertEquals("hallo", changes.getChanged().get(helloId).mText);
+    assertTrue(changes.getAdded().isEmpty());
+    assertTrue(changes.getRemoved().isEmpty());
+  }
+
+  @Test
+  public void sameTextBeatsOverlap() {
+    int id = idOf(mTracker.update(Collections.singletonList(new Block("total", 0, 0, 100, 20))).getAdded(), "total");
+
+    // another block now covers the old position, the block with the same text only touches it
+    Block other = new Block("price", 0, 0, 100, 20);
+    Block moved = new Block("total", 90, 0, 190, 20);
+    BlockTracker.Changes<Block> changes = mTracker.update(Arrays.asList(other, moved));
+    assertEquals(Collections.singleton(id), changes.getChanged().keySet());
+    assertSame(moved, changes.getChanged().get(id));
+    assertEquals(1, changes.getAdded().size());
+    assertSame(other, changes.getAdded().values().iterator().next());
+    assertTrue(changes.getRemoved().isEmpty());
+  }
+
+  @Test
+  public void reportsDriftOnceItAddsUp() {
+    int id = idOf(mTracker.update(Collections.singletonList(new Block("drift", 0, 0, 100, 20))).getAdded(), "drift");
+
+    // each step is too small to report, compared with the previous frame
+    int reportedAt = -1;
+    for (int x = 1; x <= 10; x++) {
+      BlockTracker.Changes<Block> changes = mTracker.update(
+          Collections.singletonList(new Block("drift", x, 0, 100 + x, 20)));
+      if (!changes.isEmpty()) {
+        assertEquals(Collections.singleton(id), changes.getChanged().keySet());
+        reportedAt = x;
+        break;
+      }
+    }
+    // with 90% overlap to the reported position as the threshold, about 5 pixels in
+    assertTrue("reported at " + reportedAt, reportedAt > 1 && reportedAt < 10);
+
+    // the reported position moved along, the next small step is quiet again
+    assertTrue(mTracker.update(
+        Collections.singletonList(new Block("drift", reportedAt + 1, 0, 101 + reportedAt, 20))).isEmpty());
+  }
+
+  @Test
+  public void replacesBlocksThatMovedAway() {
+    int id = idOf(mTracker.update(Collections.singletonList(new Block("word", 0, 0, 100, 20))).getAdded(), "word");
+    BlockTracker.Changes<Block> changes = mTracker.update(Collections.singletonList(new Block("word", 200, 0, 300, 20)));
+    assertEquals(Collections.singletonList(id), changes.getRemoved());
+    assertEquals(1, changes.getAdded().size());
+    assertNotEquals(id, (int) changes.getAdded().keySet().iterator().next());
+  }
+
+  @Test
+  public void resetRemovesEveryBlock() {
+    Map<Integer, Block> added = mTracker.update(Arrays.asList(
+        new Block("a", 0, 0, 10, 10), new Block("b", 20, 0, 30, 10))).getAdded();
+    mTracker.update(Collections.singletonList(new Block("a", 0, 0, 10, 10)));
+
+    // b was already removed by the update
+    BlockTracker.Changes<Block> changes = mTracker.reset();
+    assertEquals(Collections.singletonList(idOf(added, "a")), changes.getRemoved());
+    assertTrue(mTracker.reset().isEmpty());
+
+    // nothing is matched against blocks from before the reset
+    List<Block> again = Collections.singletonList(new Block("a", 0, 0, 10, 10));
+    BlockTracker.Changes<Block> readded = mTracker.update(again);
+    assertEquals(1, readded.getAdded().size());
+    assertNotEquals(idOf(added, "a"), idOf(readded.getAdded(), "a"));
+  }
+
+  @Test
+  public void idsAreUniqueAcrossTrackers() {
+    int first = idOf(mTracker.update(Collections.singletonList(new Block("a", 0, 0, 10, 10))).getAdded(), "a");
+    BlockTracker<Block> other = new BlockTracker<>(ADAPTER);
+    int second = idOf(other.update(Collections.singletonList(new Block("a", 0, 0, 10, 10))).getAdded(), "a");
+    assertNotEquals(first, second);
+  }
+
+  private static int idOf(Map<Integer, Block> blocks, String text) {
+    for (Map.Entry<Integer, Block> entry : blocks.entrySet()) {
+      if (entry.getValue().mText.equals(text)) {
+        return entry.getKey();
+      }
+    }
+    throw new AssertionError("no block " + text);
+  }
+}
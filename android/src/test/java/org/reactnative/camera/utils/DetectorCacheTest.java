@@ -0,0 +1,118 @@
+package org.reactnative.camera.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DetectorCacheTest {
+  private static final ImageDimensions PORTRAIT = new ImageDimensions(640, 480, 90);
+  private static final ImageDimensions LANDSCAPE = new ImageDimensions(640, 480, 0);
+
+  private static class FakeDetector {
+    final int mId;
+    int mReleaseCount;
+
+    FakeDetector(int id) {
+      mId = id;
+    }
+  }
+
+  private static class FakeBuilder implements DetectorCache.Builder<FakeDetector> {
+    final List<FakeDetector> mBuilt = new ArrayList<>();
+
+    @Override
+    public FakeDetector build() {
+      FakeDetector detector = new FakeDetector(mBuilt.size());
+      mBuilt.add(detector);
+      return detector;
+    }
+
+    @Override
+    public void release(FakeDetector detector) {
+      detector.mReleaseCount++;
+    }
+  }
+
+  @Test
+  public void reusesDetectorForSameKey() {
+    FakeBuilder builder = new FakeBuilder();
+    DetectorCache<FakeDetector> cache = new DetectorCache<>(2, builder);
+    FakeDetector detector = cache.get(PORTRAIT, "fast");
+    // equal, not identical, dimensions and configuration
+    assertSame(detector, cache.get(new ImageDimensions(640, 480, 90), new String("fast")));
+    assertEquals(1, cache.getBuildCount());
+  }
+
+  @Test
+  public void keysOnDimensionsAndConfiguration() {
+    FakeBuilder builder = new FakeBuilder();
+    DetectorCache<FakeDetector> cache = new DetectorCache<>(4, builder);
+    cache.get(PORTRAIT, "fast");
+    cache.get(LANDSCAPE, "fast");
+    cache.get(PORTRAIT, "accurate");
+    cache.get(null, "fast");
+    assertSame(builder.mBuilt.get(3), cache.get(null, "fast"));
+    assertEquals(4, cache.getBuildCount());
+  }
+
+  @Test
+  public void keyEquality() {
+    assertEquals(new DetectorCache.Key(PORTRAIT, "fast"), new DetectorCache.Key(new ImageDimensions(640, 480, 90), "fast"));
+    assertEquals(new DetectorCache.Key(PORTRAIT, "fast").hashCode(),
+        new DetectorCache.Key(new ImageDimensions(640, 480, 90), "fast").hashCode());
+    assertEquals(new DetectorCache.Key(null, "fast"), new DetectorCache.Key(null, "fast"));
+    assertNotEquals(new DetectorCache.Key(null, "fast"), new DetectorCache.Key(PORTRAIT, "fast"));
+    assertNotEquals(new DetectorCache.Key(PORTRAIT, "fast"), new DetectorCache.Key(null, "fast"));
+    assertNotEquals(new DetectorCache.Key(PORTRAIT, "fast"), new DetectorCache.Key(LANDSCAPE, "fast"));
+    assertNotEquals(new DetectorCache.Key(PORTRAIT, "fast"), new DetectorCache.Key(PORTRAIT, "accurate"));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedAndReleasesItOnce() {
+    FakeBuilder builder = new FakeBuilder();
+    DetectorCache<FakeDetector> cache = new DetectorCache<>(2, builder);
+    FakeDetector portrait = cache.get(PORTRAIT, "fast");
+    FakeDetector landscape = cache.get(LANDSCAPE, "fast");
+    // touching portrait makes landscape the least recently used
+    cache.get(PORTRAIT, "fast");
+    FakeDetector accurate = cache.get(PORTRAIT, "accurate");
+
+    assertEquals(1, landscape.mReleaseCount);
+    assertEquals(0, portrait.mReleaseCount);
+    assertEquals(0, accurate.mReleaseCount);
+    assertSame(accurate, cache.getMostRecent());
+
+    // landscape is rebuilt, evicting portrait
+    FakeDetector rebuilt = cache.get(LANDSCAPE, "fast");
+    assertEquals(3, rebuilt.mId);
+    assertEquals(1, portrait.mReleaseCount);
+    assertEquals(1, landscape.mReleaseCount);
+  }
+
+  @Test
+  public void clearReleasesEveryDetectorOnce() {
+    FakeBuilder builder = new FakeBuilder();
+    DetectorCache<FakeDetector> cache = new DetectorCache<>(2, builder);
+    cache.get(PORTRAIT, "fast");
+    cache.get(LANDSCAPE, "fast");
+    cache.get(null, "fast");
+    cache.clear();
+    assertNull(cache.getMostRecent());
+    cache.clear();
+
+    // one was evicted before the clear, every detector is released exactly once
+    for (FakeDetector detector : builder.mBuilt) {
+      assertEquals("detector " + detector.mId, 1, detector.mReleaseCount);
+    }
+
+    FakeDetector rebuilt = cache.get(PORTRAIT, "fast");
+    assertEquals(0, rebuilt.mReleaseCount);
+    assertEquals(4, cache.getBuildCount());
+  }
+}
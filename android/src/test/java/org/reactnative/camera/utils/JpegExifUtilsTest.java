@@ -0,0 +1,112 @@
+package org.reactnative.camera.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JpegExifUtilsTest {
+    private static final byte[] SOI = {(byte) 0xff, (byte) 0xd8};
+    // start of scan with its header, entropy coded data, end of image
+    private static final byte[] SCAN = {(byte) 0xff, (byte) 0xda, 0, 4, 1, 2, 0x55, (byte) 0xff, 0, 0x66,
+            (byte) 0xff, (byte) 0xd9};
+
+    @Test
+    public void findsNoSegmentsWithoutApp1() throws IOException {
+        byte[] jpeg = concat(SOI, segment(0xe0, 14), segment(0xdb, 65), SCAN);
+        int[] segments = JpegExifUtils.findMetadataSegments(jpeg);
+        assertArrayEquals(new int[0], segments);
+        assertArrayEquals(jpeg, write(jpeg, segments));
+    }
+
+    @Test
+    public void findsEveryApp1Segment() throws IOException {
+        byte[] app0 = segment(0xe0, 14);
+        byte[] exif = segment(0xe1, 100);
+        byte[] quantization = segment(0xdb, 65);
+        byte[] xmp = segment(0xe1, 40);
+        byte[] jpeg = concat(SOI, app0, exif, quantization, xmp, SCAN);
+
+        int exifStart = SOI.length + app0.length;
+        int xmpStart = exifStart + exif.length + quantization.length;
+        int[] segments = JpegExifUtils.findMetadataSegments(jpeg);
+        assertArrayEquals(new int[]{exifStart, exifStart + exif.length, xmpStart, xmpStart + xmp.length}, segments);
+        assertArrayEquals(concat(SOI, app0, quantization, SCAN), write(jpeg, segments));
+        assertEquals(write(jpeg, segments).length, JpegExifUtils.getWrittenLength(jpeg, segments));
+    }
+
+    @Test
+    public void skipsFillBytes() throws IOException {
+        byte[] app0 = segment(0xe0, 14);
+        byte[] fill = {(byte) 0xff, (byte) 0xff, (byte) 0xff};
+        byte[] exif = segment(0xe1, 20);
+        byte[] jpeg = concat(SOI, app0, fill, exif, SCAN);
+
+        int exifStart = SOI.length + app0.length + fill.length;
+        int[] segments = JpegExifUtils.findMetadataSegments(jpeg);
+        // the fill bytes before the marker are kept, they are not part of the segment
+        assertArrayEquals(new int[]{exifStart, exifStart + exif.length}, segments);
+        assertArrayEquals(concat(SOI, app0, fill, SCAN), write(jpeg, segments));
+    }
+
+    @Test
+    public void rejectsTruncatedSegment() {
+        byte[] exif = segment(0xe1, 100);
+        byte[] jpeg = new byte[SOI.length + 50];
+        System.arraycopy(concat(SOI, exif), 0, jpeg, 0, jpeg.length);
+        assertNull(JpegExifUtils.findMetadataSegments(jpeg));
+
+        // a length too short to cover itself
+        assertNull(JpegExifUtils.findMetadataSegments(concat(SOI, new byte[]{(byte) 0xff, (byte) 0xe1, 0, 1}, SCAN)));
+    }
+
+    @Test
+    public void rejectsMissingScan() {
+        assertNull(JpegExifUtils.findMetadataSegments(concat(SOI, segment(0xe1, 20))));
+    }
+
+    @Test
+    public void rejectsMissingSoi() {
+        assertNull(JpegExifUtils.findMetadataSegments(concat(segment(0xe1, 20), SCAN)));
+        assertNull(JpegExifUtils.findMetadataSegments(new byte[]{(byte) 0xff, (byte) 0xd8}));
+        assertNull(JpegExifUtils.findMetadataSegments(new byte[0]));
+    }
+
+    @Test
+    public void rejectsGarbageBetweenSegments() {
+        assertNull(JpegExifUtils.findMetadataSegments(concat(SOI, segment(0xe0, 14), new byte[]{0x12}, SCAN)));
+    }
+
+    /**
+     * A marker segment whose length field covers itself and the payload, as in a JPEG.
+     */
+    private static byte[] segment(int marker, int payloadLength) {
+        byte[] segment = new byte[4 + payloadLength];
+        segment[0] = (byte) 0xff;
+        segment[1] = (byte) marker;
+        segment[2] = (byte) ((payloadLength + 2) >> 8);
+        segment[3] = (byte) (payloadLength + 2);
+        for (int i = 4; i < segment.length; i++) {
+            segment[i] = (byte) (i * 7);
+        }
+        return segment;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            stream.write(part, 0, part.length);
+        }
+        return stream.toByteArray();
+    }
+
+    private static byte[] write(byte[] jpeg, int[] segments) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JpegExifUtils.write(jpeg, segments, stream);
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,122 @@
+package org.reactnative.frame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrameSchedulerTest {
+  private static class CountingRecycler implements PreviewBuffer.Recycler {
+    final AtomicInteger mRecycled = new AtomicInteger();
+
+    @Override
+    public void recycle(byte[] data) {
+      mRecycled.incrementAndGet();
+    }
+  }
+
+  /**
+   * Holds on to every frame it is given until the test completes the lane, like a detector task.
+   */
+  private static class HoldingWorker implements FrameScheduler.Worker {
+    final List<PreviewBuffer> mFrames = new ArrayList<>();
+
+    @Override
+    public void process(PreviewBuffer frame) {
+      mFrames.add(frame);
+    }
+  }
+
+  @Test
+  public void frameIsNotRecycledWhileTheLaneHoldsIt() {
+    CountingRecycler recycler = new CountingRecycler();
+    HoldingWorker worker = new HoldingWorker();
+    FrameScheduler.Lane lane = new FrameScheduler().addLane("test", worker);
+
+    PreviewBuffer frame = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    lane.offer(frame);
+    // the camera callback drops its own reference right after offering
+    frame.release();
+
+    assertEquals(0, recycler.mRecycled.get());
+    assertTrue(lane.isBusy());
+    assertSame(frame, worker.mFrames.get(0));
+
+    lane.complete();
+    assertEquals(1, recycler.mRecycled.get());
+    assertFalse(lane.isBusy());
+    assertEquals(1, lane.getProcessedCount());
+  }
+
+  @Test
+  public void replacedPendingFrameIsRecycledAndCountedAsDropped() {
+    CountingRecycler recycler = new CountingRecycler();
+    HoldingWorker worker = new HoldingWorker();
+    FrameScheduler.Lane lane = new FrameScheduler().addLane("test", worker);
+
+    PreviewBuffer first = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    PreviewBuffer second = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    PreviewBuffer third = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    for (PreviewBuffer frame : new PreviewBuffer[]{first, second, third}) {
+      lane.offer(frame);
+      frame.release();
+    }
+
+    // the first frame is in flight, the second got replaced by the third
+    assertEquals(1, recycler.mRecycled.get());
+    assertEquals(1, lane.getDroppedCount());
+
+    lane.complete();
+    assertEquals(2, recycler.mRecycled.get());
+    assertSame(third, worker.mFrames.get(1));
+
+    lane.complete();
+    assertEquals(3, recycler.mRecycled.get());
+    assertEquals(2, lane.getProcessedCount());
+  }
+
+  @Test
+  public void clearRecyclesThePendingFrameOnly() {
+    CountingRecycler recycler = new CountingRecycler();
+    FrameScheduler.Lane lane = new FrameScheduler().addLane("test", new HoldingWorker());
+
+    PreviewBuffer current = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    PreviewBuffer pending = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    lane.offer(current);
+    current.release();
+    lane.offer(pending);
+    pending.release();
+
+    lane.clear();
+    assertEquals(1, recycler.mRecycled.get());
+
+    lane.complete();
+    assertEquals(2, recycler.mRecycled.get());
+  }
+
+  @Test
+  public void rejectedFrameIsRecycledAndFreesTheLane() {
+    CountingRecycler recycler = new CountingRecycler();
+    FrameScheduler.Lane lane = new FrameScheduler().addLane("test", new FrameScheduler.Worker() {
+      @Override
+      public void process(PreviewBuffer frame) {
+        throw new RejectedExecutionException();
+      }
+    });
+
+    PreviewBuffer frame = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+    lane.offer(frame);
+    frame.release();
+
+    assertEquals(1, recycler.mRecycled.get());
+    assertFalse(lane.isBusy());
+    assertEquals(1, lane.getDroppedCount());
+  }
+}
@@ -0,0 +1,108 @@
+package org.reactnative.frame;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PreviewBufferTest {
+  private static final int THREADS = 8;
+
+  private static class CountingRecycler implements PreviewBuffer.Recycler {
+    final AtomicInteger mRecycled = new AtomicInteger();
+    volatile byte[] mData;
+
+    @Override
+    public void recycle(byte[] data) {
+      mData = data;
+      mRecycled.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void recyclesOnceTheLastReferenceIsReleased() {
+    CountingRecycler recycler = new CountingRecycler();
+    byte[] data = new byte[6];
+    PreviewBuffer buffer = new PreviewBuffer(recycler, data, 2, 2, 0);
+    buffer.retain();
+    buffer.retain();
+    buffer.release();
+    buffer.release();
+    assertEquals(0, recycler.mRecycled.get());
+    buffer.release();
+    assertEquals(1, recycler.mRecycled.get());
+    assertSame(data, recycler.mData);
+  }
+
+  @Test
+  public void concurrentReleasesRecycleExactlyOnce() throws InterruptedException {
+    for (int round = 0; round < 200; round++) {
+      final CountingRecycler recycler = new CountingRecycler();
+      final PreviewBuffer buffer = new PreviewBuffer(recycler, new byte[6], 2, 2, 0);
+      for (int i = 1; i < THREADS; i++) {
+        buffer.retain();
+      }
+      runConcurrently(new Runnable() {
+        @Override
+        public void run() {
+          buffer.release();
+        }
+      });
+      assertEquals(1, recycler.mRecycled.get());
+    }
+  }
+
+  @Test
+  public void sharedFrameIsBuiltOnce() throws InterruptedException {
+    for (int round = 0; round < 50; round++) {
+      final AtomicInteger built = new AtomicInteger();
+      final PreviewBuffer buffer = new PreviewBuffer(new CountingRecycler(), new byte[6], 2, 2, 0) {
+        @Override
+        protected RNFrame buildFrame() {
+          built.incrementAndGet();
+          // widen the window in which other threads find no frame yet
+          Thread.yield();
+          return new RNFrame(null, null);
+        }
+      };
+      final RNFrame[] frames = new RNFrame[THREADS];
+      final AtomicInteger index = new AtomicInteger();
+      runConcurrently(new Runnable() {
+        @Override
+        public void run() {
+          frames[index.getAndIncrement()] = buffer.getFrame();
+        }
+      });
+      assertEquals(1, built.get());
+      for (RNFrame frame : frames) {
+        assertSame(frames[0], frame);
+      }
+    }
+  }
+
+  private static void runConcurrently(final Runnable runnable) throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[THREADS];
+    for (int i = 0; i < THREADS; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          runnable.run();
+        }
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+}
@@ -1,5 +1,5 @@
 // @flow
-import { NativeModules } from 'react-native';
+import { DeviceEventEmitter, NativeModules, Platform } from 'react-native';
 
 const faceDetectionDisabledMessage = 'Face detection has not been included in this build.';
 
@@ -45,6 +45,29 @@ type DetectionOptions = {
   runClassifications?: $Keys<typeof FaceDetectorModule.Classifications>,
 };
 
+type ImagesDetectionOptions = DetectionOptions & {
+  maxImageSize?: number,
+  maxConcurrency?: number,
+};
+
+export type ImageFaces = {
+  uri: string,
+  width?: number,
+  height?: number,
+  orientation?: number,
+  faces?: Array<FaceFeature>,
+  error?: string,
+};
+
+export type ImageFacesProgress = {
+  index: number,
+  completed: number,
+  total: number,
+  image: ImageFaces,
+};
+
+let batchCount = 0;
+
 export default class FaceDetector {
   static Constants = {
     Mode: FaceDetectorModule.Mode,
@@ -55,6 +78,38 @@ export default class FaceDetector {
   static detectFacesAsync(uri: string, options: ?DetectionOptions): Promise<Array<FaceFeature>> {
     return FaceDetectorModule.detectFaces({ ...options, uri });
   }
+
+  static detectFacesInImagesAsync(
+    uris: Array<string>,
+    options: ?ImagesDetectionOptions,
+    onProgress?: (progress: ImageFacesProgress) => void,
+  ): Promise<Array<ImageFaces>> {
+    if (Platform.OS !== 'android') {
+      return Promise.reject(new Error('Detecting faces in many images is not supported on iOS'));
+    }
+    if (!onProgress) {
+      return FaceDetectorModule.detectFacesInImages(uris, { ...options });
+    }
+    const batchId = String(++batchCount);
+    const subscription = DeviceEventEmitter.addListener(
+      'RNFaceDetector.imageFacesDetected',
+      ({ batchId: eventBatchId, ...progress }) => {
+        if (eventBatchId === batchId) {
+          onProgress(progress);
+        }
+      },
+    );
+    return FaceDetectorModule.detectFacesInImages(uris, { ...options, batchId }).then(
+      images => {
+        subscription.remove();
+        return images;
+      },
+      error => {
+        subscription.remove();
+        throw error;
+      },
+    );
+  }
 }
 
 export const Constants = FaceDetector.Constants;
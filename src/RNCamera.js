@@ -42,6 +42,7 @@ type PictureOptions = {
   fixOrientation?: boolean,
   forceUpOrientation?: boolean,
   encryptImage?: boolean,
+  peakBitmapBytes?: boolean,
 };
 
 type TrackedFaceFeature = FaceFeature & {
@@ -62,6 +63,7 @@ type TrackedTextFeature = {
   },
   value: string,
   components: Array<TrackedTextFeature>,
+  id?: number,
 };
 
 type RecordingOptions = {
@@ -74,6 +76,14 @@ type RecordingOptions = {
   path?: string,
 };
 
+type ScanImagesOptions = {
+  barCodeTypes?: Array<string>,
+  maxImageSize?: number,
+  maxConcurrency?: number,
+  tryHarder?: boolean,
+  useGoogleVision?: boolean,
+};
+
 type EventCallbackArgumentsType = {
   nativeEvent: Object,
 };
@@ -88,23 +98,40 @@ type PropsType = typeof View.props & {
   onSegment?: Function,
   onStream?: Function,
   onPictureSaved?: Function,
+  onDetectorsReady?: Function,
   onGoogleVisionBarcodesDetected?: Function,
   faceDetectionMode?: number,
   flashMode?: number | string,
   barCodeTypes?: Array<string>,
+  barCodeScanArea?: { x: number, y: number, width: number, height: number },
+  barCodeOrientationStrategy?: 'both' | 'alternate',
+  barCodeBinarizer?: 'hybrid' | 'global' | 'auto',
+  barCodeMultiple?: boolean,
+  barCodeDedupWindowMs?: number,
+  barCodePositionUpdateIntervalMs?: number,
+  barCodeFullScanInterval?: number,
   googleVisionBarcodeType?: number,
   whiteBalance?: number | string,
   faceDetectionLandmarks?: number,
   autoFocus?: string | boolean | number,
   faceDetectionClassifications?: number,
+  faceDetectionInterval?: number,
   onFacesDetected?: ({ faces: Array<TrackedFaceFeature> }) => void,
-  onTextRecognized?: ({ textBlocks: Array<TrackedTextFeature> }) => void,
+  onTextRecognized?: ({
+    textBlocks?: Array<TrackedTextFeature>,
+    added?: Array<TrackedTextFeature>,
+    changed?: Array<TrackedTextFeature>,
+    removed?: Array<number>,
+  }) => void,
+  textRecognitionIncremental?: boolean,
   captureAudio?: boolean,
   disableVideo?: boolean,
   useCamera2Api?: boolean,
+  usePreviewBuffers?: boolean,
   playSoundOnCapture?: boolean,
   videoStabilizationMode?: number | string,
   pictureSize?: string,
+  scanResolution?: string,
   keyUrlFormat?: string,
 };
 
@@ -191,13 +218,28 @@ export default class Camera extends React.Component<PropsType, StateType> {
     onSegment: PropTypes.func,
     onStream: PropTypes.func,
     onPictureSaved: PropTypes.func,
+    onDetectorsReady: PropTypes.func,
     onGoogleVisionBarcodesDetected: PropTypes.func,
     onFacesDetected: PropTypes.func,
     onTextRecognized: PropTypes.func,
+    textRecognitionIncremental: PropTypes.bool,
     faceDetectionMode: PropTypes.number,
     faceDetectionLandmarks: PropTypes.number,
     faceDetectionClassifications: PropTypes.number,
+    faceDetectionInterval: PropTypes.number,
     barCodeTypes: PropTypes.arrayOf(PropTypes.string),
+    barCodeScanArea: PropTypes.shape({
+      x: PropTypes.number,
+      y: PropTypes.number,
+      width: PropTypes.number,
+      height: PropTypes.number,
+    }),
+    barCodeOrientationStrategy: PropTypes.oneOf(['both', 'alternate']),
+    barCodeBinarizer: PropTypes.oneOf(['hybrid', 'global', 'auto']),
+    barCodeMultiple: PropTypes.bool,
+    barCodeDedupWindowMs: PropTypes.number,
+    barCodePositionUpdateIntervalMs: PropTypes.number,
+    barCodeFullScanInterval: PropTypes.number,
     googleVisionBarcodeType: PropTypes.number,
     type: PropTypes.oneOfType([PropTypes.string, PropTypes.number]),
     flashMode: PropTypes.oneOfType([PropTypes.string, PropTypes.number]),
@@ -211,9 +253,11 @@ export default class Camera extends React.Component<PropsType, StateType> {
     disableVideo: PropTypes.bool,
     encryptImage: PropTypes.bool,
     useCamera2Api: PropTypes.bool,
+    usePreviewBuffers: PropTypes.bool,
     playSoundOnCapture: PropTypes.bool,
     videoStabilizationMode: PropTypes.oneOfType([PropTypes.string, PropTypes.number]),
     pictureSize: PropTypes.string,
+    scanResolution: PropTypes.string,
     keyUrlFormat: PropTypes.string,
     mirrorVideo: PropTypes.bool
   };
@@ -248,14 +292,18 @@ export default class Camera extends React.Component<PropsType, StateType> {
     disableVideo: false,
     encryptImage: false,
     useCamera2Api: false,
+    usePreviewBuffers: false,
     playSoundOnCapture: false,
     pictureSize: 'None',
+    scanResolution: 'None',
     videoStabilizationMode: 0,
     mirrorVideo: false,
   };
 
   static updateBitrate: (bitrate: number) => Promise<void>;
   static getHlsPath: () => Promise<string>;
+  static scanBarcodesFromImagesAsync: (uris: Array<string>, options?: ScanImagesOptions) => Promise<Array<Object>>;
+  static setDetectorThreadPriorityAsync: (threadPriority: number) => Promise<void>;
   
   getHlsPath: Function;
   _cameraRef: ?Object;
@@ -298,6 +346,14 @@ export default class Camera extends React.Component<PropsType, StateType> {
     return await CameraManager.getAvailablePictureSizes(this.props.ratio, this._cameraHandle);
   };
 
+  async getDetectorStatisticsAsync() {
+    if (Platform.OS === 'android') {
+      return await CameraManager.getDetectorStatistics(this._cameraHandle);
+    } else {
+      throw new Error('Detector statistics are not supported on iOS');
+    }
+  }
+
   async recordAsync(options?: RecordingOptions) {
     if (!options || typeof options !== 'object') {
       options = {};
@@ -340,6 +396,12 @@ export default class Camera extends React.Component<PropsType, StateType> {
     }
   };
 
+  _onDetectorsReady = ({ nativeEvent }: EventCallbackArgumentsType) => {
+    if (this.props.onDetectorsReady) {
+      this.props.onDetectorsReady(nativeEvent);
+    }
+  };
+
   _onObjectDetected = (callback: ?Function) => ({ nativeEvent }: EventCallbackArgumentsType) => {
     const { type } = nativeEvent;
 
@@ -418,6 +480,7 @@ export default class Camera extends React.Component<PropsType, StateType> {
           onFacesDetected={this._onObjectDetected(this.props.onFacesDetected)}
           onTextRecognized={this._onObjectDetected(this.props.onTextRecognized)}
           onPictureSaved={this._onPictureSaved}
+          onDetectorsReady={this._onDetectorsReady}
         >
           {this.renderChildren()}
         </RNCamera>
@@ -480,6 +543,21 @@ Camera.updateBitrate = (bitrate: number) => {
   throw new Error("RNCamera.updateBitrate() is not implemented");
 }
 
+Camera.scanBarcodesFromImagesAsync = (uris: Array<string>, options?: ScanImagesOptions = {}) => {
+  if (Platform.OS !== 'android') {
+    return Promise.reject(new Error('Scanning images for barcodes is not supported on iOS'));
+  }
+  return CameraManager.scanBarcodesFromImages(uris, options);
+}
+
+Camera.setDetectorThreadPriorityAsync = (threadPriority: number) => {
+  if (Platform.OS !== 'android') {
+    // iOS has no detector threads to tune
+    return Promise.resolve();
+  }
+  return CameraManager.setDetectorThreadPriority(threadPriority);
+}
+
 Camera.getHlsPath = () => {
   if (CameraManager && CameraManager.getHlsPath) {
     return CameraManager.getHlsPath();
@@ -506,6 +584,7 @@ const RNCamera = requireNativeComponent('RNCamera', Camera, {
     onGoogleVisionBarcodesDetected: true,
     onCameraReady: true,
     onPictureSaved: true,
+    onDetectorsReady: true,
     onFaceDetected: true,
     onLayout: true,
     onMountError: true,
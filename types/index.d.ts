@@ -81,6 +81,20 @@ export interface RNCameraProps {
 
     // -- BARCODE PROPS
     barCodeTypes?: Array<keyof BarCodeType>;
+    /** Android only */
+    barCodeScanArea?: { x: number; y: number; width: number; height: number };
+    /** Android only */
+    barCodeOrientationStrategy?: 'both' | 'alternate';
+    /** Android only */
+    barCodeBinarizer?: 'hybrid' | 'global' | 'auto';
+    /** Android only */
+    barCodeMultiple?: boolean;
+    /** Android only */
+    barCodeDedupWindowMs?: number;
+    /** Android only */
+    barCodePositionUpdateIntervalMs?: number;
+    /** Android only */
+    barCodeFullScanInterval?: number;
     googleVisionBarcodeType?: keyof GoogleVisionBarcodeType;
     onBarCodeRead?(event: {
         data: string,
@@ -89,7 +103,19 @@ export interface RNCameraProps {
          * @description For Android use `[Point<string>, Point<string>]`
          * @description For iOS use `{ origin: Point<string>, size: Size<string> }`
          */
-        bounds: [Point<string>, Point<string>] | { origin: Point<string>, size: Size<string> }
+        bounds: [Point<string>, Point<string>] | { origin: Point<string>, size: Size<string> },
+        /** Android only, the `bounds` points in the camera view, in dp, once it is laid out */
+        viewBounds?: Point<string>[],
+        /** Android only, whether the code was reported before and stayed in view, see `barCodePositionUpdateIntervalMs` */
+        isRepeat?: boolean,
+        /** Android only, set when `barCodeMultiple` is enabled */
+        barcodes?: Array<{
+            data: string,
+            type: keyof BarCodeType,
+            bounds: Point<string>[],
+            viewBounds?: Point<string>[],
+            isRepeat: boolean
+        }>
     }): void;
 
     // -- FACE DETECTION PROPS
@@ -100,10 +126,27 @@ export interface RNCameraProps {
     faceDetectionMode?: keyof FaceDetectionMode;
     faceDetectionLandmarks?: keyof FaceDetectionLandmarks;
     faceDetectionClassifications?: keyof FaceDetectionClassifications;
+    /** Android only */
+    faceDetectionInterval?: number;
 
     // -- ANDROID ONLY PROPS
     /** Android only */
-    onTextRecognized?(response: { textBlocks: TrackedTextFeature[] }): void;
+    onTextRecognized?(response: {
+        textBlocks?: TrackedTextFeature[],
+        /** set instead of `textBlocks` with `textRecognitionIncremental` */
+        added?: TrackedTextFeature[],
+        changed?: TrackedTextFeature[],
+        removed?: number[]
+    }): void;
+    /** Android only */
+    textRecognitionIncremental?: boolean;
+
+    /** Android only */
+    onDetectorsReady?(event: {
+        detectors: {
+            [detector: string]: { operational: boolean; warmUpMs: number };
+        };
+    }): void;
     /** Android only */
     ratio?: string;
     /** Android only */
@@ -112,6 +155,10 @@ export interface RNCameraProps {
     permissionDialogMessage?: string;
     /** Android only */
     playSoundOnCapture?: boolean;
+    /** Android only */
+    usePreviewBuffers?: boolean;
+    /** Android only */
+    scanResolution?: string;
 
     // -- IOS ONLY PROPS
 
@@ -166,6 +213,8 @@ interface TrackedTextFeature {
     },
     value: string;
     components: TrackedTextFeature[];
+    /** Android only, set on blocks reported with `textRecognitionIncremental` */
+    id?: number;
 }
 
 interface TakePictureOptions {
@@ -179,6 +228,8 @@ interface TakePictureOptions {
     skipProcessing?: boolean;
     /** Android only */
     fixOrientation?: boolean;
+    /** Android only */
+    peakBitmapBytes?: boolean;
 
     /** iOS only */
     forceUpOrientation?: boolean;
@@ -190,6 +241,8 @@ interface TakePictureResponse {
     uri: string;
     base64?: string;
     exif?: { [name: string]: any };
+    /** Android only, set with the `peakBitmapBytes` option */
+    peakBitmapBytes?: number;
 }
 
 
@@ -211,15 +264,49 @@ interface RecordResponse {
     codec: VideoCodec[keyof VideoCodec];
 }
 
+interface ScanImagesOptions {
+    barCodeTypes?: Array<keyof BarCodeType>;
+    maxImageSize?: number;
+    maxConcurrency?: number;
+    tryHarder?: boolean;
+    useGoogleVision?: boolean;
+}
+
+interface ScannedImage {
+    uri: string;
+    width?: number;
+    height?: number;
+    barcodes?: Array<{ data: string; type: string; bounds: Point<string>[] }>;
+    error?: string;
+}
+
 export class RNCamera extends Component<RNCameraProps & ViewProperties> {
     static Constants: Constants;
 
+    /** Android only, rejects on iOS */
+    static scanBarcodesFromImagesAsync(uris: string[], options?: ScanImagesOptions): Promise<ScannedImage[]>;
+    /** Android only, resolves without effect on iOS */
+    static setDetectorThreadPriorityAsync(threadPriority: number): Promise<void>;
+
     takePictureAsync(options?: TakePictureOptions): Promise<TakePictureResponse>;
     recordAsync(options?: RecordOptions): Promise<RecordResponse>;
     stopRecording(): void;
 
     /** Android only */
     getSupportedRatiosAsync(): Promise<string[]>;
+
+    /** Android only */
+    getDetectorStatisticsAsync(): Promise<{
+        [detector: string]: { processedFrames: number; droppedFrames: number; busy: boolean };
+    } & {
+        barCodeDeduplication: { emittedCodes: number; suppressedCodes: number };
+        barCodeBinarizer: { globalDecodes: number; hybridDecodes: number };
+        barCodeFormatSelection?: { fullScans: number; narrowScans: number };
+        detectorBuilds: {
+            faceDetector?: { count: number; timeMs: number };
+            googleBarcodeDetector?: { count: number; timeMs: number };
+        };
+    }>;
 }
 
 interface DetectionOptions {
@@ -228,10 +315,30 @@ interface DetectionOptions {
     runClassifications?: keyof FaceDetectionClassifications
 }
 
+interface ImagesDetectionOptions extends DetectionOptions {
+    maxImageSize?: number;
+    maxConcurrency?: number;
+}
+
+interface ImageFaces {
+    uri: string;
+    width?: number;
+    height?: number;
+    orientation?: number;
+    faces?: Face[];
+    error?: string;
+}
+
 export class FaceDetector {
     private constructor();
     static Constants: Constants['FaceDetection'];
     static detectFacesAsync(uri: string, options?: DetectionOptions): Promise<Face[]>;
+    /** Android only */
+    static detectFacesInImagesAsync(
+        uris: string[],
+        options?: ImagesDetectionOptions,
+        onProgress?: (progress: { index: number; completed: number; total: number; image: ImageFaces }) => void
+    ): Promise<ImageFaces[]>;
 }
 
 // -- DEPRECATED CONTENT BELOW